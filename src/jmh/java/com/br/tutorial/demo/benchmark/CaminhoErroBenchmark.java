@@ -0,0 +1,113 @@
+package com.br.tutorial.demo.benchmark;
+
+import com.br.tutorial.demo.controller.UserController;
+import com.br.tutorial.demo.handler.AppExceptionHandler;
+import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Caminho de erro do service até o corpo JSON: "anterior" lança uma exceção nova com stack trace e monta o corpo com
+// java.util.Date (validação com o getMessage() inteiro); "atual" lança a instância pré-alocada e usa o AppExceptionHandler.
+// "profundidade" simula os frames entre o service e o handler (filtros, interceptors, proxies).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CaminhoErroBenchmark {
+    private static final String MENSAGEM = "Usuario não encontrado";
+    private static final BadRequestException PRE_ALOCADA = BadRequestException.preAlocada(MENSAGEM);
+
+    @Param({"anterior", "atual"})
+    public String caminho;
+
+    @Param({"20", "100"})
+    public int profundidade;
+
+    private boolean anterior;
+    private ObjectWriter objectWriter;
+    private AppExceptionHandler appExceptionHandler;
+    private MethodArgumentNotValidException validacao;
+
+    @Setup
+    public void iniciar() throws NoSuchMethodException {
+        this.anterior = this.caminho.equals("anterior");
+        // Mesma configuração de datas do ObjectMapper do Spring Boot (ISO-8601, não timestamp).
+        this.objectWriter = Jackson2ObjectMapperBuilder.json().build().writer();
+        this.appExceptionHandler = new AppExceptionHandler();
+
+        // O que o Spring gera para um POST / com nome em branco.
+        BeanPropertyBindingResult resultado = new BeanPropertyBindingResult(new UsuarioRequestDTO(), "usuarioRequestDTO");
+        resultado.rejectValue("nome", "NotBlank", "nome obrigatorio");
+        resultado.rejectValue("nome", "NotNull", "nome obrigatorio");
+        MethodParameter parametro = new MethodParameter(UserController.class.getMethod("salvar", UsuarioRequestDTO.class), 0);
+        this.validacao = new MethodArgumentNotValidException(parametro, resultado);
+    }
+
+    @Benchmark
+    public byte[] naoEncontrado() throws JsonProcessingException {
+        try {
+            lancar(this.profundidade);
+            throw new IllegalStateException();
+        } catch (BadRequestException e) {
+            if (this.anterior) {
+                return this.objectWriter.writeValueAsBytes(new CorpoAnterior(new Date(), e.getMessage()));
+            }
+            return this.objectWriter.writeValueAsBytes(this.appExceptionHandler.handleBadException(e, null).getBody());
+        }
+    }
+
+    @Benchmark
+    public byte[] validacao() throws JsonProcessingException {
+        if (this.anterior) {
+            return this.objectWriter.writeValueAsBytes(new CorpoAnterior(new Date(), this.validacao.getMessage()));
+        }
+        return this.objectWriter.writeValueAsBytes(this.appExceptionHandler.handleValidationException(this.validacao, null).getBody());
+    }
+
+    private void lancar(int restante) {
+        if (restante == 0) {
+            throw this.anterior ? new BadRequestException(MENSAGEM) : PRE_ALOCADA;
+        }
+        lancar(restante - 1);
+    }
+
+    // Formato do ErrorMessage antes da troca de Date por Instant.
+    public static final class CorpoAnterior {
+        private final Date currentDate;
+        private final String message;
+
+        CorpoAnterior(Date currentDate, String message) {
+            this.currentDate = currentDate;
+            this.message = message;
+        }
+
+        public Date getCurrentDate() {
+            return currentDate;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.br.tutorial.demo.benchmark;
+
+import com.br.tutorial.demo.DemoApplication;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.service.UsuarioLoteService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sobe a aplicação sem servidor web, com um H2 em memória exclusivo para cada execução de benchmark.
+final class ContextoBenchmark {
+
+    private ContextoBenchmark() {
+    }
+
+    static ConfigurableApplicationContext iniciar(String... propriedades) {
+        Map<String, String> todas = new LinkedHashMap<>();
+        todas.put("spring.datasource.url", "jdbc:h2:mem:benchmark" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        todas.put("spring.jpa.open-in-view", "false");
+        todas.put("logging.level.root", "WARN");
+        for (String propriedade : propriedades) {
+            int separador = propriedade.indexOf('=');
+            todas.put(propriedade.substring(0, separador), propriedade.substring(separador + 1));
+        }
+        // Como argumentos de linha de comando, que têm precedência sobre application.properties e os profiles
+        // (as propriedades padrão do SpringApplicationBuilder perdem para eles). Valor vazio remove a propriedade:
+        // "spring.datasource.url=" deixa valer a URL do profile ativo.
+        return new SpringApplicationBuilder(DemoApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(todas.entrySet().stream()
+                        .filter(propriedade -> !propriedade.getValue().isEmpty())
+                        .map(propriedade -> "--" + propriedade.getKey() + "=" + propriedade.getValue())
+                        .toArray(String[]::new));
+    }
+
+    static void popular(ConfigurableApplicationContext contexto, int quantidade) {
+        UsuarioLoteService usuarioLoteService = contexto.getBean(UsuarioLoteService.class);
+        List<UsuarioRequestDTO> lote = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            lote.add(usuario("usuario-" + i, "COD-" + i));
+        }
+        usuarioLoteService.salvarLote(lote);
+    }
+
+    static UsuarioRequestDTO usuario(String nome, String codigo) {
+        UsuarioRequestDTO usuarioRequestDTO = new UsuarioRequestDTO();
+        usuarioRequestDTO.setNome(nome);
+        usuarioRequestDTO.setCodigo(codigo);
+        return usuarioRequestDTO;
+    }
+}
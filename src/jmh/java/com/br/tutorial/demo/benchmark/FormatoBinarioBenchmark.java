@@ -0,0 +1,79 @@
+package com.br.tutorial.demo.benchmark;
+
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON x CBOR para o que o cliente de outro serviço faz com a listagem: o servidor serializa, o cliente lê de volta.
+// O tamanho de cada corpo é impresso no início de cada combinação de parâmetros (bytes e bytes por usuário).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatoBinarioBenchmark {
+
+    @Param({"json", "cbor"})
+    public String formato;
+
+    @Param({"1", "100", "1000"})
+    public int quantidade;
+
+    private ObjectWriter objectWriter;
+    private ObjectReader objectReader;
+    private Object corpo;
+    private byte[] serializado;
+
+    @Setup
+    public void iniciar() throws IOException {
+        // Os dois mappers saem do mesmo builder, como o ObjectMapper do Spring Boot e o conversor do CborConfig.
+        ObjectMapper objectMapper = this.formato.equals("cbor")
+                ? Jackson2ObjectMapperBuilder.cbor().build()
+                : Jackson2ObjectMapperBuilder.json().build();
+        List<UsuarioResponseDTO> usuarios = new ArrayList<>(this.quantidade);
+        for (int i = 0; i < this.quantidade; i++) {
+            usuarios.add(new UsuarioResponseDTO(1_000_000L + i * 50L, "usuario-" + i, "COD-" + i, (long) i % 3));
+        }
+        this.objectWriter = objectMapper.writer();
+        if (this.quantidade == 1) {
+            this.corpo = usuarios.get(0);
+            this.objectReader = objectMapper.readerFor(UsuarioResponseDTO.class);
+        } else {
+            this.corpo = usuarios;
+            this.objectReader = objectMapper.readerFor(new TypeReference<List<UsuarioResponseDTO>>() { });
+        }
+        this.serializado = this.objectWriter.writeValueAsBytes(this.corpo);
+        System.out.printf("%n%s, %d usuario(s): %d bytes (%.1f por usuario)%n", this.formato, this.quantidade,
+                this.serializado.length, (double) this.serializado.length / this.quantidade);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        return this.objectWriter.writeValueAsBytes(this.corpo);
+    }
+
+    @Benchmark
+    public Object desserializar() throws IOException {
+        return this.objectReader.readValue(this.serializado);
+    }
+}
@@ -0,0 +1,133 @@
+package com.br.tutorial.demo.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Teste de carga em laço fechado: cada cliente virtual envia uma requisição, espera a resposta e envia a próxima.
+// Mede vazão e latência (p50/p99/p999) de uma aplicação já em execução, para comparar modos de execução.
+//
+// Uso: GeradorCarga <url> <clientes> <segundos> [idMaximo] [corpo]
+//   "{id}" na url é trocado por um id aleatório entre 1 e idMaximo a cada requisição.
+//   Com corpo, as requisições são POST de JSON; "{n}" no corpo é trocado por um número único por requisição.
+// Ex.: mvn -Pjmh test-compile exec:exec -Djmh.principal=com.br.tutorial.demo.benchmark.GeradorCarga \
+//          -Djmh.argumentos="http://localhost:8080/{id} 1000 30 10000"
+//      -Djmh.argumentos='http://localhost:8080/ 200 30 1 {"nome":"carga-{n}","codigo":"C-{n}"}'
+// Todos os clientes virtuais saem do mesmo IP: para medir a aplicação sem o limite por cliente, suba-a com
+// --usuario.limite.habilitado=false; com ele ligado, as respostas 429/503 aparecem na contagem por status.
+//
+// API bloqueante x reativa em poucos núcleos: suba a aplicação com
+//   java -XX:ActiveProcessorCount=2 -jar target/demo-0.0.1-SNAPSHOT.jar --server.tomcat.threads.max=16
+// e rode a mesma carga contra as duas rotas, uma de cada vez (mesmo idMaximo, mesmos clientes):
+//      -Djmh.argumentos="http://localhost:8080/{id} 1000 30 10000"
+//      -Djmh.argumentos="http://localhost:8080/reativo/{id} 1000 30 10000"
+//      -Djmh.argumentos='http://localhost:8080/reativo 200 30 1 {"nome":"carga-{n}","codigo":"C-{n}"}'
+public final class GeradorCarga {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final Recorder latencias = new Recorder(TimeUnit.SECONDS.toNanos(60), 3);
+    private final Map<Integer, LongAdder> respostasPorStatus = new ConcurrentHashMap<>();
+    private final LongAdder falhas = new LongAdder();
+    private final AtomicLong sequencia = new AtomicLong();
+    private final String url;
+    private final long idMaximo;
+    private final String corpo;
+    private volatile boolean executando = true;
+
+    private GeradorCarga(String url, long idMaximo, String corpo) {
+        this.url = url;
+        this.idMaximo = idMaximo;
+        this.corpo = corpo;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 3) {
+            System.err.println("Uso: GeradorCarga <url> <clientes> <segundos> [idMaximo] [corpo]");
+            System.exit(1);
+        }
+        int clientes = Integer.parseInt(args[1]);
+        int segundos = Integer.parseInt(args[2]);
+        long idMaximo = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+        String corpo = args.length > 4 ? String.join(" ", Arrays.copyOfRange(args, 4, args.length)) : null;
+        new GeradorCarga(args[0], idMaximo, corpo).executar(clientes, segundos);
+    }
+
+    private void executar(int clientes, int segundos) throws InterruptedException {
+        CountDownLatch finalizados = new CountDownLatch(clientes);
+        for (int i = 0; i < clientes; i++) {
+            enviar(finalizados);
+        }
+        // O primeiro quinto da duração serve de aquecimento e é descartado.
+        int aquecimento = Math.max(1, segundos / 5);
+        TimeUnit.SECONDS.sleep(aquecimento);
+        this.latencias.getIntervalHistogram();
+        this.respostasPorStatus.clear();
+        this.falhas.reset();
+
+        long inicio = System.nanoTime();
+        TimeUnit.SECONDS.sleep(segundos - aquecimento);
+        Histogram histograma = this.latencias.getIntervalHistogram();
+        double duracao = (System.nanoTime() - inicio) / 1e9;
+        Map<Integer, Long> status = new TreeMap<>();
+        this.respostasPorStatus.forEach((codigo, total) -> status.put(codigo, total.sum()));
+        long falhasNoPeriodo = this.falhas.sum();
+        this.executando = false;
+        finalizados.await(30, TimeUnit.SECONDS);
+
+        System.out.printf("clientes=%d duracao=%.1fs requisicoes=%d vazao=%.0f req/s falhas=%d status=%s%n",
+                clientes, duracao, histograma.getTotalCount(), histograma.getTotalCount() / duracao,
+                falhasNoPeriodo, status);
+        System.out.printf("latencia(ms) p50=%.2f p99=%.2f p999=%.2f max=%.2f%n",
+                ms(histograma.getValueAtPercentile(50)), ms(histograma.getValueAtPercentile(99)),
+                ms(histograma.getValueAtPercentile(99.9)), ms(histograma.getMaxValue()));
+        System.exit(0);
+    }
+
+    private void enviar(CountDownLatch finalizados) {
+        if (!this.executando) {
+            finalizados.countDown();
+            return;
+        }
+        String destino = this.url.replace("{id}",
+                Long.toString(ThreadLocalRandom.current().nextLong(1, this.idMaximo + 1)));
+        HttpRequest.Builder construtor = HttpRequest.newBuilder(URI.create(destino)).timeout(Duration.ofSeconds(30));
+        if (this.corpo == null) {
+            construtor.GET();
+        } else {
+            construtor.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(
+                    this.corpo.replace("{n}", Long.toString(this.sequencia.incrementAndGet()))));
+        }
+        HttpRequest requisicao = construtor.build();
+        long inicio = System.nanoTime();
+        this.httpClient.sendAsync(requisicao, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((resposta, erro) -> {
+                    this.latencias.recordValue(Math.min(System.nanoTime() - inicio, TimeUnit.SECONDS.toNanos(60)));
+                    if (erro != null) {
+                        this.falhas.increment();
+                    } else {
+                        this.respostasPorStatus.computeIfAbsent(resposta.statusCode(), s -> new LongAdder()).increment();
+                    }
+                    enviar(finalizados);
+                });
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,119 @@
+package com.br.tutorial.demo.benchmark;
+
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.mapper.UsuarioMapper;
+import com.br.tutorial.demo.repository.UsuarioRepository;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Varredura completa da tabela: entidades gerenciadas copiadas para o DTO contra a consulta projetada no DTO.
+// Rodar com o profiler de GC para ver bytes alocados por varredura (gc.alloc.rate.norm) e coletas:
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="LeituraProjetadaBenchmark -prof gc"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class LeituraProjetadaBenchmark {
+
+    @Param({"1000000"})
+    public int linhas;
+
+    @Param({"1000"})
+    public int tamanhoPagina;
+
+    private ConfigurableApplicationContext contexto;
+    private UsuarioRepository usuarioRepository;
+    private UsuarioMapper usuarioMapper;
+    private EntityManager entityManager;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        this.contexto = ContextoBenchmark.iniciar();
+        // Carga direta no banco: o que se mede aqui é a leitura.
+        this.contexto.getBean(JdbcTemplate.class).update(
+                "insert into usuario (id, nome, codigo, versao) "
+                        + "select x, concat('usuario-', x), concat('COD-', x), 0 from system_range(1, ?)", this.linhas);
+        this.usuarioRepository = this.contexto.getBean(UsuarioRepository.class);
+        this.usuarioMapper = this.contexto.getBean(UsuarioMapper.class);
+        this.entityManager = SharedEntityManagerCreator.createSharedEntityManager(
+                this.contexto.getBean(EntityManagerFactory.class));
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        this.contexto.close();
+    }
+
+    // Caminho anterior do percorrerTodos: página de entidades e cópia para o DTO. As consultas sem paginação e a de
+    // entidades ficam só aqui; a aplicação lê pelas páginas projetadas do UsuarioRepository.
+    @Benchmark
+    public void percorrerEntidades(Blackhole blackhole) {
+        long cursor = 0L;
+        List<Usuario> pagina;
+        do {
+            pagina = this.entityManager
+                    .createQuery("select u from Usuario u where u.id > :aposId order by u.id", Usuario.class)
+                    .setParameter("aposId", cursor)
+                    .setMaxResults(this.tamanhoPagina)
+                    .getResultList();
+            for (UsuarioResponseDTO usuarioResponseDTO : this.usuarioMapper.paraResponseDTOs(pagina)) {
+                blackhole.consume(usuarioResponseDTO);
+            }
+            if (!pagina.isEmpty()) {
+                cursor = pagina.get(pagina.size() - 1).getId();
+            }
+        } while (pagina.size() == this.tamanhoPagina);
+    }
+
+    @Benchmark
+    public void percorrerProjetados(Blackhole blackhole) {
+        long cursor = 0L;
+        List<UsuarioResponseDTO> pagina;
+        do {
+            pagina = this.usuarioRepository.buscarPaginaProjetada(cursor, PageRequest.of(0, this.tamanhoPagina));
+            for (UsuarioResponseDTO usuarioResponseDTO : pagina) {
+                blackhole.consume(usuarioResponseDTO);
+            }
+            if (!pagina.isEmpty()) {
+                cursor = pagina.get(pagina.size() - 1).getId();
+            }
+        } while (pagina.size() == this.tamanhoPagina);
+    }
+
+    // Caminho anterior do buscarTodos: a tabela inteira como entidades num único contexto de persistência.
+    @Benchmark
+    public List<UsuarioResponseDTO> buscarTodosEntidades() {
+        return this.usuarioMapper.paraResponseDTOs(this.usuarioRepository.findAll());
+    }
+
+    @Benchmark
+    public List<UsuarioResponseDTO> buscarTodosProjetados() {
+        return this.entityManager.createQuery("select new com.br.tutorial.demo.response.UsuarioResponseDTO("
+                + "u.id, u.nome, u.codigo, u.versao, u.atualizadoEm) from Usuario u order by u.id", UsuarioResponseDTO.class)
+                .getResultList();
+    }
+}
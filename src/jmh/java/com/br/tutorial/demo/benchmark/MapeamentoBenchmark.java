@@ -0,0 +1,61 @@
+package com.br.tutorial.demo.benchmark;
+
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.mapper.UsuarioMapper;
+import com.br.tutorial.demo.mapper.UsuarioMapperDireto;
+import com.br.tutorial.demo.mapper.UsuarioModelMapper;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Conversões DTO <-> entidade: ModelMapper reflexivo contra a cópia direta.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapeamentoBenchmark {
+
+    @Param({"modelmapper", "direto"})
+    public String mapeamento;
+
+    private UsuarioMapper usuarioMapper;
+    private Usuario usuario;
+    private UsuarioRequestDTO usuarioRequestDTO;
+
+    @Setup
+    public void iniciar() {
+        this.usuarioMapper = "direto".equals(this.mapeamento)
+                ? new UsuarioMapperDireto()
+                : new UsuarioModelMapper(new ModelMapper());
+        this.usuario = new Usuario();
+        this.usuario.setId(42L);
+        this.usuario.setNome("Maria");
+        this.usuario.setCodigo("A-042");
+        this.usuarioRequestDTO = ContextoBenchmark.usuario("Maria", "A-042");
+    }
+
+    @Benchmark
+    public UsuarioResponseDTO paraResponseDTO() {
+        return this.usuarioMapper.paraResponseDTO(this.usuario);
+    }
+
+    @Benchmark
+    public Usuario paraEntidade() {
+        return this.usuarioMapper.paraEntidade(this.usuarioRequestDTO);
+    }
+}
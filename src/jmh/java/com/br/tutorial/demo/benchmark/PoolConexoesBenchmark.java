@@ -0,0 +1,92 @@
+package com.br.tutorial.demo.benchmark;
+
+import com.br.tutorial.demo.response.UsuarioPaginaResponseDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+// Vazão com o profile "banco-arquivo" (H2 em arquivo) variando o tamanho do pool Hikari, sem cache de leitura.
+// Com mais threads que conexões, a vazão cresce com o pool até o limite do banco/CPU e depois fica estável
+// (ou cai, pela disputa de locks); a partir daí aumentar o pool só acrescenta espera. Rodar com muitas threads:
+//   mvn -Pjmh test-compile exec:exec -Djmh.args="PoolConexoesBenchmark" -Djmh.threads=64
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PoolConexoesBenchmark {
+    private static final int TAMANHO_TABELA = 10000;
+
+    @Param({"2", "4", "8", "16", "32", "64"})
+    public int tamanhoPool;
+
+    private Path diretorio;
+    private ConfigurableApplicationContext contexto;
+    private UsuarioService usuarioService;
+    private long primeiroId;
+    private final AtomicLong sequencia = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void iniciar() throws IOException {
+        this.diretorio = Files.createTempDirectory("pool-benchmark");
+        this.contexto = ContextoBenchmark.iniciar(
+                "spring.profiles.active=banco-arquivo",
+                "spring.datasource.url=",
+                "usuario.banco.arquivo=" + this.diretorio.resolve("usuarios"),
+                "spring.cache.type=none",
+                "spring.datasource.hikari.maximum-pool-size=" + this.tamanhoPool,
+                "spring.datasource.hikari.minimum-idle=" + this.tamanhoPool,
+                // Threads acima do pool esperam; o benchmark mede a vazão, não as recusas.
+                "spring.datasource.hikari.connection-timeout=60000");
+        ContextoBenchmark.popular(this.contexto, TAMANHO_TABELA);
+        this.usuarioService = this.contexto.getBean(UsuarioService.class);
+        this.primeiroId = this.usuarioService.buscarPagina(null, 1).getUsuarios().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() throws IOException {
+        this.contexto.close();
+        try (Stream<Path> arquivos = Files.walk(this.diretorio)) {
+            arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public UsuarioResponseDTO buscarPorId() {
+        return this.usuarioService.buscarPorId(this.primeiroId + ThreadLocalRandom.current().nextInt(TAMANHO_TABELA));
+    }
+
+    @Benchmark
+    public UsuarioPaginaResponseDTO buscarPagina() {
+        return this.usuarioService.buscarPagina(this.primeiroId + ThreadLocalRandom.current().nextInt(TAMANHO_TABELA), 20);
+    }
+
+    @Benchmark
+    public UsuarioResponseDTO salvar() {
+        long n = this.sequencia.incrementAndGet();
+        return this.usuarioService.salvar(ContextoBenchmark.usuario("pool-" + n, "POOL-" + n));
+    }
+}
@@ -0,0 +1,57 @@
+package com.br.tutorial.demo.benchmark;
+
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serialização JSON de UsuarioResponseDTO, isolado e em listas do tamanho de uma página.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoJsonBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int quantidade;
+
+    private ObjectWriter objectWriter;
+    private List<UsuarioResponseDTO> usuarios;
+
+    @Setup
+    public void iniciar() {
+        this.objectWriter = new ObjectMapper().writer();
+        this.usuarios = new ArrayList<>(this.quantidade);
+        for (int i = 0; i < this.quantidade; i++) {
+            UsuarioResponseDTO usuarioResponseDTO = new UsuarioResponseDTO();
+            usuarioResponseDTO.setId((long) i);
+            usuarioResponseDTO.setNome("usuario-" + i);
+            usuarioResponseDTO.setCodigo("COD-" + i);
+            this.usuarios.add(usuarioResponseDTO);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializar() throws JsonProcessingException {
+        return this.quantidade == 1
+                ? this.objectWriter.writeValueAsBytes(this.usuarios.get(0))
+                : this.objectWriter.writeValueAsBytes(this.usuarios);
+    }
+}
@@ -0,0 +1,91 @@
+package com.br.tutorial.demo.benchmark;
+
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caminhos quentes do UsuarioService contra o H2 embarcado.
+// O número de threads vem da opção -t do JMH (propriedade jmh.threads no profile "jmh").
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UsuarioServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    public int tamanhoTabela;
+
+    // Mesmo lote do GET / (usuario.paginacao.lote-stream).
+    @Param({"500"})
+    public int loteStream;
+
+    // "none" mede o caminho até o banco; "caffeine" mede buscarPorId com o cache de leitura ligado.
+    @Param({"none", "caffeine"})
+    public String cache;
+
+    private ConfigurableApplicationContext contexto;
+    private UsuarioService usuarioService;
+    private long primeiroId;
+    private final AtomicLong sequencia = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        this.contexto = ContextoBenchmark.iniciar("spring.cache.type=" + this.cache);
+        ContextoBenchmark.popular(this.contexto, this.tamanhoTabela);
+        this.usuarioService = this.contexto.getBean(UsuarioService.class);
+        this.primeiroId = this.usuarioService.buscarPagina(null, 1).getUsuarios().get(0).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        this.contexto.close();
+    }
+
+    @Benchmark
+    public UsuarioResponseDTO buscarPorId() {
+        return this.usuarioService.buscarPorId(idAleatorio());
+    }
+
+    @Benchmark
+    public void buscarTodos(Blackhole blackhole) {
+        for (UsuarioResponseDTO usuarioResponseDTO : this.usuarioService.buscarTodos(this.loteStream)) {
+            blackhole.consume(usuarioResponseDTO);
+        }
+    }
+
+    @Benchmark
+    public UsuarioResponseDTO salvar() {
+        long n = this.sequencia.incrementAndGet();
+        return this.usuarioService.salvar(ContextoBenchmark.usuario("novo-" + n, "NOVO-" + n));
+    }
+
+    @Benchmark
+    public UsuarioResponseDTO atualizar() {
+        long n = this.sequencia.incrementAndGet();
+        return this.usuarioService.atualizar(idAleatorio(), ContextoBenchmark.usuario("alterado-" + n, "ALT-" + n));
+    }
+
+    private long idAleatorio() {
+        return this.primeiroId + ThreadLocalRandom.current().nextInt(this.tamanhoTabela);
+    }
+}
@@ -7,17 +7,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 public class DemoApplication {
 
 	public static void main(String[] args) {
+		// O servidor web embarcado mantém a JVM ativa; o desligamento (SIGTERM) segue o ciclo de vida do Spring.
 		SpringApplication.run(DemoApplication.class, args);
-
-
-		// Loop infinito
-		while (true) {
-			try {
-				Thread.sleep(1000); // Pausa de 1 segundo
-			} catch (InterruptedException e) {
-				e.printStackTrace();
-			}
-		}
-
 	}
 }
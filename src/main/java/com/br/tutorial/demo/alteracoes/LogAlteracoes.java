@@ -0,0 +1,253 @@
+package com.br.tutorial.demo.alteracoes;
+
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.response.AlteracaoDTO;
+import com.br.tutorial.demo.response.AlteracoesDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Log ordenado das alterações de usuários, em memória e num arquivo de segmento local. Cada linha é
+//   #<tab>início<tab>próximo offset   (cabeçalho, gravado na compactação), ou
+//   a alteração em JSON, com o offset que recebeu.
+// Compactado por usuário: só a última alteração de cada id fica, com o offset original. Quem lê a partir de um offset
+// recebe o estado mais recente de todo usuário alterado desde então (pode pular estados intermediários, nunca o último).
+// Remoções ficam pelo tempo de retenção e depois saem do log; o início (menor offset de leitura completa) avança.
+// Não há fsync por alteração: a escrita sobrevive à queda do processo, e uma queda da máquina pode perder o final do
+// arquivo, que volta a ser numerado a partir do último offset gravado.
+// O log vive o mesmo tanto que o banco: sem arquivo (banco em memória), fica só em memória, e os offsets partem do
+// instante de abertura em microssegundos. Um consumidor com offset de uma execução anterior cai antes do início e é
+// mandado recarregar, em vez de receber as alterações de usuários novos que reutilizam ids antigos.
+public class LogAlteracoes implements Closeable {
+    private static final String CABECALHO = "#";
+
+    // Nulo com o banco em memória.
+    private final Path arquivo;
+    private final ObjectWriter escritor;
+    private final ObjectReader leitor;
+    private final Duration retencaoRemocoes;
+    private final int compactacaoMinima;
+    private final NavigableMap<Long, AlteracaoDTO> porOffset = new TreeMap<>();
+    private final Map<Long, AlteracaoDTO> porUsuario = new HashMap<>();
+    private long proximoOffset = 1;
+    private long inicio;
+    // Linhas no arquivo (ou registros, sem arquivo), inclusive as superadas por alterações mais novas do mesmo usuário.
+    private long linhas;
+    private FileChannel canal;
+
+    public LogAlteracoes(Path arquivo, ObjectMapper objectMapper, Duration retencaoRemocoes, int compactacaoMinima) {
+        this.arquivo = arquivo;
+        this.escritor = objectMapper.writerFor(AlteracaoDTO.class);
+        this.leitor = objectMapper.readerFor(AlteracaoDTO.class);
+        this.retencaoRemocoes = retencaoRemocoes;
+        this.compactacaoMinima = compactacaoMinima;
+    }
+
+    public synchronized void abrir() throws IOException {
+        if (this.arquivo == null) {
+            this.inicio = Math.multiplyExact(System.currentTimeMillis(), 1000L);
+            this.proximoOffset = this.inicio;
+            this.linhas = 1;
+            return;
+        }
+        if (Files.exists(this.arquivo)) {
+            String conteudo = new String(Files.readAllBytes(this.arquivo), StandardCharsets.UTF_8);
+            // O trecho após a última quebra de linha é uma escrita interrompida pela queda e é descartado.
+            for (String linha : conteudo.substring(0, conteudo.lastIndexOf('\n') + 1).split("\n")) {
+                if (linha.startsWith(CABECALHO)) {
+                    String[] partes = linha.split("\t");
+                    this.inicio = Long.parseLong(partes[1]);
+                    this.proximoOffset = Math.max(this.proximoOffset, Long.parseLong(partes[2]));
+                } else if (!linha.isEmpty()) {
+                    AlteracaoDTO alteracao = this.leitor.readValue(linha);
+                    aplicar(alteracao);
+                    this.proximoOffset = Math.max(this.proximoOffset, alteracao.getOffset() + 1);
+                }
+            }
+        } else if (this.arquivo.getParent() != null) {
+            Files.createDirectories(this.arquivo.getParent());
+        }
+
+        expirarRemocoes(Instant.now());
+        Path temporario = temporario();
+        try (FileChannel novo = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            escreverTudo(novo, codificar(cabecalho(this.inicio, this.proximoOffset), this.porOffset.values()));
+            novo.force(true);
+        }
+        Files.move(temporario, this.arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.canal = FileChannel.open(this.arquivo, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.linhas = this.porOffset.size() + 1L;
+    }
+
+    // Nulo quando o evento chega depois de outro mais novo do mesmo usuário: os eventos são publicados depois do
+    // commit, por threads diferentes, e um atrasado não pode sobrescrever o estado mais recente no log.
+    public synchronized AlteracaoDTO registrar(UsuarioEvento evento, Instant momento) throws IOException {
+        AlteracaoDTO anterior = this.porUsuario.get(evento.getId());
+        if (anterior != null && superado(anterior, evento)) {
+            return null;
+        }
+        AlteracaoDTO alteracao = new AlteracaoDTO(this.proximoOffset, evento.getTipo(), evento.getId(),
+                evento.getUsuario(), momento);
+        if (this.canal != null) {
+            escreverTudo(this.canal, codificar(null, List.of(alteracao)));
+        }
+        this.proximoOffset++;
+        this.linhas++;
+        aplicar(alteracao);
+        return alteracao;
+    }
+
+    // Enquanto o banco do log é o mesmo, ids não se repetem: nada do mesmo id é mais novo que a remoção. Entre
+    // gravações, vale a versão otimista.
+    private static boolean superado(AlteracaoDTO anterior, UsuarioEvento evento) {
+        if (anterior.getTipo() == UsuarioEvento.Tipo.REMOVIDO) {
+            return true;
+        }
+        if (evento.getTipo() == UsuarioEvento.Tipo.REMOVIDO) {
+            return false;
+        }
+        Long versaoAnterior = anterior.getUsuario().getVersao();
+        Long versao = evento.getUsuario().getVersao();
+        return versaoAnterior != null && versao != null && versao <= versaoAnterior;
+    }
+
+    private void aplicar(AlteracaoDTO alteracao) {
+        AlteracaoDTO anterior = this.porUsuario.put(alteracao.getId(), alteracao);
+        if (anterior != null) {
+            this.porOffset.remove(anterior.getOffset());
+        }
+        this.porOffset.put(alteracao.getOffset(), alteracao);
+    }
+
+    // Até "limite" alterações a partir do offset, em ordem; o próximo offset vem da mesma leitura.
+    public synchronized AlteracoesDTO ler(long aPartirDe, int limite) {
+        List<AlteracaoDTO> lidas = new ArrayList<>(Math.min(limite, 64));
+        for (AlteracaoDTO alteracao : this.porOffset.tailMap(aPartirDe, true).values()) {
+            if (lidas.size() == limite) {
+                break;
+            }
+            lidas.add(alteracao);
+        }
+        long proximo = lidas.isEmpty() ? this.proximoOffset : lidas.get(lidas.size() - 1).getOffset() + 1;
+        return new AlteracoesDTO(lidas, proximo);
+    }
+
+    public synchronized long getProximoOffset() {
+        return this.proximoOffset;
+    }
+
+    public synchronized long getInicio() {
+        return this.inicio;
+    }
+
+    public synchronized int tamanho() {
+        return this.porOffset.size();
+    }
+
+    public synchronized boolean precisaCompactar() {
+        return this.linhas >= this.compactacaoMinima && this.linhas > 2L * (this.porOffset.size() + 1);
+    }
+
+    // Regrava o arquivo só com o conteúdo em memória. A cópia é escrita fora do monitor, sem bloquear registrar();
+    // o que chegar nesse meio tempo entra no fim do arquivo novo antes da troca. Uma compactação por vez.
+    // Sem arquivo, só expira as remoções.
+    public void compactar(Instant agora) throws IOException {
+        if (this.arquivo == null) {
+            synchronized (this) {
+                expirarRemocoes(agora);
+                this.linhas = this.porOffset.size() + 1L;
+            }
+            return;
+        }
+        List<AlteracaoDTO> copia;
+        long proximoCopia;
+        String cabecalho;
+        synchronized (this) {
+            expirarRemocoes(agora);
+            copia = new ArrayList<>(this.porOffset.values());
+            proximoCopia = this.proximoOffset;
+            cabecalho = cabecalho(this.inicio, proximoCopia);
+        }
+        Path temporario = temporario();
+        try (FileChannel novo = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            escreverTudo(novo, codificar(cabecalho, copia));
+            synchronized (this) {
+                List<AlteracaoDTO> recentes = new ArrayList<>(this.porOffset.tailMap(proximoCopia, true).values());
+                escreverTudo(novo, codificar(null, recentes));
+                novo.force(true);
+                Files.move(temporario, this.arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                this.canal.close();
+                this.canal = FileChannel.open(this.arquivo, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                this.linhas = 1L + copia.size() + recentes.size();
+            }
+        }
+    }
+
+    private void expirarRemocoes(Instant agora) {
+        Instant limite = agora.minus(this.retencaoRemocoes);
+        Iterator<AlteracaoDTO> alteracoes = this.porOffset.values().iterator();
+        while (alteracoes.hasNext()) {
+            AlteracaoDTO alteracao = alteracoes.next();
+            if (alteracao.getTipo() == UsuarioEvento.Tipo.REMOVIDO && alteracao.getMomento().isBefore(limite)) {
+                alteracoes.remove();
+                this.porUsuario.remove(alteracao.getId());
+                // Quem lê de antes deste offset já não veria a remoção.
+                this.inicio = Math.max(this.inicio, alteracao.getOffset() + 1);
+            }
+        }
+    }
+
+    private ByteBuffer codificar(String cabecalho, Collection<AlteracaoDTO> alteracoes) throws IOException {
+        StringBuilder texto = new StringBuilder(alteracoes.size() * 160 + 32);
+        if (cabecalho != null) {
+            texto.append(cabecalho);
+        }
+        for (AlteracaoDTO alteracao : alteracoes) {
+            texto.append(this.escritor.writeValueAsString(alteracao)).append('\n');
+        }
+        return StandardCharsets.UTF_8.encode(texto.toString());
+    }
+
+    private static String cabecalho(long inicio, long proximoOffset) {
+        return CABECALHO + '\t' + inicio + '\t' + proximoOffset + '\n';
+    }
+
+    private Path temporario() {
+        return this.arquivo.resolveSibling(this.arquivo.getFileName() + ".tmp");
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer dados) throws IOException {
+        while (dados.hasRemaining()) {
+            canal.write(dados);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (this.canal != null) {
+            this.canal.close();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package com.br.tutorial.demo.busca;
+
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+// Índice invertido em memória sobre nome e codigo: termo normalizado (minúsculo, sem acento) -> entradas.
+// Termos ordenados, então a busca por prefixo é um intervalo do mapa; alterações do mesmo id são serializadas.
+public class IndiceUsuarios {
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+    // Verifica o orçamento de tempo a cada tantos candidatos, para não chamar nanoTime em todo passo.
+    private static final int VERIFICAR_PRAZO_A_CADA = 256;
+
+    private final ConcurrentSkipListMap<String, Set<Entrada>> termos = new ConcurrentSkipListMap<>();
+    private final Map<Long, Entrada> entradas = new ConcurrentHashMap<>();
+
+    // Inclui ou substitui o usuário. Uma versão mais antiga que a já indexada é ignorada, o que permite
+    // que a carga inicial rode em paralelo com as alterações em tempo real.
+    public void indexar(UsuarioResponseDTO usuario) {
+        Entrada nova = new Entrada(usuario);
+        this.entradas.compute(usuario.getId(), (id, atual) -> {
+            if (atual != null && maisNova(atual.usuario, usuario)) {
+                return atual;
+            }
+            if (atual != null) {
+                desindexar(atual);
+            }
+            for (String termo : nova.termosIndexados) {
+                this.termos.computeIfAbsent(termo, t -> ConcurrentHashMap.newKeySet()).add(nova);
+            }
+            return nova;
+        });
+    }
+
+    public void remover(Long id) {
+        this.entradas.computeIfPresent(id, (chave, atual) -> {
+            desindexar(atual);
+            return null;
+        });
+    }
+
+    public int tamanho() {
+        return this.entradas.size();
+    }
+
+    // Todos os termos da consulta precisam casar (como prefixo) com algum termo do usuário. O termo mais longo
+    // da consulta, em geral o mais seletivo, define os candidatos; os demais são conferidos na própria entrada.
+    // Esgotado o prazo (System.nanoTime), devolve o melhor encontrado até ali com completo = false.
+    public Resultado buscar(String consulta, int limite, long prazoNanos) {
+        List<String> termosConsulta = new ArrayList<>(tokenizar(consulta));
+        if (termosConsulta.isEmpty() || limite <= 0) {
+            return new Resultado(List.of(), true);
+        }
+        termosConsulta.sort(Comparator.comparingInt(String::length).reversed());
+        String principal = termosConsulta.get(0);
+        String consultaNormalizada = normalizar(consulta).trim();
+
+        PriorityQueue<Candidato> melhores = new PriorityQueue<>(limite + 1, Candidato.PIOR_PRIMEIRO);
+        boolean completo = true;
+        int verificados = 0;
+        busca:
+        for (Map.Entry<String, Set<Entrada>> termo : this.termos.subMap(principal, true,
+                principal + Character.MAX_VALUE, false).entrySet()) {
+            String termoIndice = termo.getKey();
+            for (Entrada entrada : termo.getValue()) {
+                if (++verificados % VERIFICAR_PRAZO_A_CADA == 0 && System.nanoTime() - prazoNanos > 0) {
+                    completo = false;
+                    break busca;
+                }
+                // Um usuário com vários termos no intervalo só é avaliado no primeiro deles.
+                if (entrada.temTermoAnterior(principal, termoIndice)) {
+                    continue;
+                }
+                double pontuacao = entrada.pontuar(termosConsulta, consultaNormalizada);
+                if (pontuacao > 0 && (melhores.size() < limite
+                        || Candidato.comparar(pontuacao, entrada, melhores.peek()) > 0)) {
+                    melhores.add(new Candidato(entrada, pontuacao));
+                    if (melhores.size() > limite) {
+                        melhores.poll();
+                    }
+                }
+            }
+        }
+
+        List<UsuarioResponseDTO> usuarios = new ArrayList<>(melhores.size());
+        while (!melhores.isEmpty()) {
+            usuarios.add(melhores.poll().entrada.usuario);
+        }
+        Collections.reverse(usuarios);
+        return new Resultado(usuarios, completo);
+    }
+
+    // Conjuntos vazios permanecem no mapa: removê-los exigiria sincronizar com inclusões concorrentes do mesmo termo.
+    private void desindexar(Entrada entrada) {
+        for (String termo : entrada.termosIndexados) {
+            Set<Entrada> conjunto = this.termos.get(termo);
+            if (conjunto != null) {
+                conjunto.remove(entrada);
+            }
+        }
+    }
+
+    private static boolean maisNova(UsuarioResponseDTO atual, UsuarioResponseDTO novo) {
+        return atual.getVersao() != null && novo.getVersao() != null && atual.getVersao() > novo.getVersao();
+    }
+
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        return ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    static Set<String> tokenizar(String texto) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARADORES.split(normalizar(texto))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public static final class Resultado {
+        private final List<UsuarioResponseDTO> usuarios;
+        private final boolean completo;
+
+        Resultado(List<UsuarioResponseDTO> usuarios, boolean completo) {
+            this.usuarios = usuarios;
+            this.completo = completo;
+        }
+
+        public List<UsuarioResponseDTO> getUsuarios() {
+            return usuarios;
+        }
+
+        public boolean isCompleto() {
+            return completo;
+        }
+    }
+
+    private static final class Entrada {
+        private final UsuarioResponseDTO usuario;
+        private final long id;
+        private final String nome;
+        private final String codigo;
+        // Termos do nome e do codigo; um codigo com separadores ("AB-12") vira vários termos.
+        private final String[] termosIndexados;
+
+        private Entrada(UsuarioResponseDTO usuario) {
+            this.usuario = usuario;
+            this.id = usuario.getId();
+            this.nome = normalizar(usuario.getNome());
+            this.codigo = normalizar(usuario.getCodigo());
+            Set<String> todos = tokenizar(usuario.getNome());
+            todos.addAll(tokenizar(usuario.getCodigo()));
+            this.termosIndexados = todos.toArray(String[]::new);
+        }
+
+        // Algum termo deste usuário, menor que "termo", também começa com o prefixo?
+        private boolean temTermoAnterior(String prefixo, String termo) {
+            for (String indexado : this.termosIndexados) {
+                if (indexado.compareTo(termo) < 0 && indexado.startsWith(prefixo)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Soma, para cada termo da consulta, o melhor casamento: termo idêntico vale 2, prefixo vale a fração
+        // do termo coberta. Codigo idêntico ou começando pela consulta e nome começando pela consulta inteira recebem bônus.
+        // Zero quando algum termo da consulta não casa.
+        private double pontuar(List<String> termosConsulta, String consulta) {
+            double total = 0;
+            for (String termoConsulta : termosConsulta) {
+                double melhor = 0;
+                for (String termo : this.termosIndexados) {
+                    if (termo.equals(termoConsulta)) {
+                        melhor = 2;
+                        break;
+                    }
+                    if (termo.startsWith(termoConsulta)) {
+                        melhor = Math.max(melhor, (double) termoConsulta.length() / termo.length());
+                    }
+                }
+                if (melhor == 0) {
+                    return 0;
+                }
+                total += melhor;
+            }
+            if (this.codigo.equals(consulta)) {
+                total += 4;
+            } else if (this.codigo.startsWith(consulta)) {
+                total += 2;
+            }
+            if (this.nome.startsWith(consulta)) {
+                total += 1;
+            }
+            return total;
+        }
+    }
+
+    private static final class Candidato {
+        // Menor pontuação primeiro; no empate, o nome mais longo e depois o maior id saem antes.
+        private static final Comparator<Candidato> PIOR_PRIMEIRO = (a, b) -> comparar(a.pontuacao, a.entrada, b);
+
+        private final Entrada entrada;
+        private final double pontuacao;
+
+        private Candidato(Entrada entrada, double pontuacao) {
+            this.entrada = entrada;
+            this.pontuacao = pontuacao;
+        }
+
+        // Positivo quando (pontuacao, entrada) é melhor que o candidato; compara sem criar objetos.
+        private static int comparar(double pontuacao, Entrada entrada, Candidato candidato) {
+            int resultado = Double.compare(pontuacao, candidato.pontuacao);
+            if (resultado == 0) {
+                resultado = Integer.compare(candidato.entrada.nome.length(), entrada.nome.length());
+            }
+            if (resultado == 0) {
+                resultado = Long.compare(candidato.entrada.id, entrada.id);
+            }
+            return resultado;
+        }
+    }
+}
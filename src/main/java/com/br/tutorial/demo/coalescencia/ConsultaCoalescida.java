@@ -0,0 +1,92 @@
+package com.br.tutorial.demo.coalescencia;
+
+import com.br.tutorial.demo.handler.entidadeHandler.ServicoIndisponivelException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Single-flight: chamadas simultâneas para a mesma chave compartilham uma única execução da consulta. A primeira
+// executa na própria thread; as demais esperam o resultado (ou a exceção) por até "espera" e então desistem com 503.
+// Métricas: <nome>{resultado=executada|compartilhada|tempo-esgotado} e <nome>.em-andamento.
+public class ConsultaCoalescida<K, V> {
+    private static final ServicoIndisponivelException TEMPO_ESGOTADO =
+            ServicoIndisponivelException.preAlocada("Consulta em andamento demorou demais, tente novamente");
+    private static final ServicoIndisponivelException INTERROMPIDA =
+            ServicoIndisponivelException.preAlocada("Consulta interrompida");
+
+    private final Map<K, CompletableFuture<V>> emAndamento = new ConcurrentHashMap<>();
+    private final long esperaNanos;
+    private final Counter executadas;
+    private final Counter compartilhadas;
+    private final Counter esgotadas;
+
+    public ConsultaCoalescida(MeterRegistry meterRegistry, String nome, Duration espera) {
+        this.esperaNanos = espera.toNanos();
+        this.executadas = meterRegistry.counter(nome, "resultado", "executada");
+        this.compartilhadas = meterRegistry.counter(nome, "resultado", "compartilhada");
+        this.esgotadas = meterRegistry.counter(nome, "resultado", "tempo-esgotado");
+        meterRegistry.gauge(nome + ".em-andamento", this.emAndamento, Map::size);
+    }
+
+    // "aoConcluir" recebe o resultado de uma execução bem-sucedida, a não ser que a chave tenha sido descartada
+    // durante a consulta; é atômico em relação a descartar (ex.: gravar em cache sem sobrescrever uma alteração).
+    public V executar(K chave, Supplier<V> consulta, Consumer<V> aoConcluir) {
+        CompletableFuture<V> nova = new CompletableFuture<>();
+        CompletableFuture<V> existente = this.emAndamento.putIfAbsent(chave, nova);
+        if (existente != null) {
+            this.compartilhadas.increment();
+            return aguardar(existente);
+        }
+
+        this.executadas.increment();
+        V resultado;
+        try {
+            resultado = consulta.get();
+        } catch (RuntimeException | Error e) {
+            this.emAndamento.remove(chave, nova);
+            nova.completeExceptionally(e);
+            throw e;
+        }
+        this.emAndamento.computeIfPresent(chave, (k, atual) -> {
+            if (atual == nova) {
+                aoConcluir.accept(resultado);
+                return null;
+            }
+            return atual;
+        });
+        nova.complete(resultado);
+        return resultado;
+    }
+
+    // Chamadas que chegarem depois passam a executar uma consulta nova, em vez de aproveitar a que está em andamento.
+    public void descartar(K chave) {
+        this.emAndamento.remove(chave);
+    }
+
+    private V aguardar(CompletableFuture<V> futuro) {
+        try {
+            return futuro.get(this.esperaNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            this.esgotadas.increment();
+            throw TEMPO_ESGOTADO;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw INTERROMPIDA;
+        } catch (ExecutionException e) {
+            // A mesma exceção da execução original (ex.: BadRequestException de usuário não encontrado).
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw (Error) e.getCause();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.br.tutorial.demo.config;
+
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+
+// Cache em memória (Caffeine) configurado em application.properties via spring.cache.*
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	// Faltas no cache de usuários: leituras simultâneas do mesmo id compartilham uma única consulta ao banco.
+	@Bean
+	public ConsultaCoalescida<Long, UsuarioResponseDTO> consultasUsuarioPorId(MeterRegistry meterRegistry,
+			@Value("${usuario.coalescencia.espera:2s}") Duration espera) {
+		return new ConsultaCoalescida<>(meterRegistry, "usuario.coalescencia", espera);
+	}
+
+}
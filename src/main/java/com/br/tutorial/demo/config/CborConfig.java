@@ -0,0 +1,50 @@
+package com.br.tutorial.demo.config;
+
+import com.br.tutorial.demo.controller.CondicaoAcceptExplicito;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.lang.reflect.Method;
+
+
+// CBOR (RFC 8949) como alternativa binária ao JSON para os mesmos DTOs: escolhido pelo cliente com
+// Accept/Content-Type application/cbor. O mapper parte do builder do Spring Boot, então segue as mesmas
+// configurações do JSON (spring.jackson.*, datas ISO-8601). O stream de usuários usa application/cbor-seq
+// (RFC 8742): um item CBOR atrás do outro, sem separador. Os streams (NDJSON e CBOR sequence) só respondem a um Accept
+// que os nomeie: sem Accept ou com */* o cliente recebe a lista em JSON, como antes do CBOR.
+@Configuration
+public class CborConfig {
+	public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+	public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+
+	// Substitui o conversor CBOR padrão do Spring MVC, criado sem as customizações do Spring Boot.
+	@Bean
+	public MappingJackson2CborHttpMessageConverter conversorCbor(Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+		return new MappingJackson2CborHttpMessageConverter(
+				jackson2ObjectMapperBuilder.factory(new CBORFactory()).build());
+	}
+
+	// Mapeamento com a condição de @AcceptExplicito (CondicaoAcceptExplicito) nos métodos anotados.
+	@Bean
+	public WebMvcRegistrations mapeamentoAcceptExplicito() {
+		return new WebMvcRegistrations() {
+			@Override
+			public RequestMappingHandlerMapping getRequestMappingHandlerMapping() {
+				return new RequestMappingHandlerMapping() {
+					@Override
+					protected RequestCondition<?> getCustomMethodCondition(Method metodo) {
+						return CondicaoAcceptExplicito.de(metodo);
+					}
+				};
+			}
+		};
+	}
+
+}
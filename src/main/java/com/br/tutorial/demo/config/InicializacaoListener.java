@@ -0,0 +1,40 @@
+package com.br.tutorial.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+
+// Registra no log o tempo desde o início da JVM até a aplicação ficar pronta e a memória residente (RSS),
+// para comparar os modos de inicialização (padrão, profile "inicio-rapido", AOT).
+@Component
+public class InicializacaoListener implements ApplicationListener<ApplicationReadyEvent> {
+	private static final Logger LOGGER = LoggerFactory.getLogger(InicializacaoListener.class);
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		long desdeInicioJvm = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+		LOGGER.info("Aplicacao pronta em {} ms desde o inicio da JVM (contexto: {} ms), RSS: {}",
+				desdeInicioJvm, event.getTimeTaken().toMillis(), memoriaResidente());
+	}
+
+	private static String memoriaResidente() {
+		try {
+			return Files.readAllLines(Path.of("/proc/self/status")).stream()
+					.filter(linha -> linha.startsWith("VmRSS:"))
+					.map(linha -> linha.substring("VmRSS:".length()).trim())
+					.findFirst()
+					.orElse("indisponivel");
+		} catch (IOException | RuntimeException e) {
+			return "indisponivel";
+		}
+	}
+
+}
@@ -0,0 +1,62 @@
+package com.br.tutorial.demo.config;
+
+import com.br.tutorial.demo.limite.LimitadorTaxa;
+import com.br.tutorial.demo.limite.LimiteConcorrenciaAdaptativo;
+import com.br.tutorial.demo.limite.LimiteConcorrenciaInterceptor;
+import com.br.tutorial.demo.limite.LimiteTaxaInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Proteção contra sobrecarga nos controllers: primeiro a taxa por cliente (o cliente abusivo é barrado com 429 antes
+// de ocupar vaga), depois o limite adaptativo de concorrência (503 quando o serviço inteiro passa do alvo de p99).
+// Os endpoints do actuator não passam por esses interceptors.
+@Configuration
+@ConditionalOnProperty(name = "usuario.limite.habilitado", havingValue = "true", matchIfMissing = true)
+public class LimiteConfig implements WebMvcConfigurer {
+	private final LimitadorTaxa limitadorTaxa;
+	private final Set<String> chavesConhecidas;
+	private final LimiteConcorrenciaAdaptativo limiteConcorrencia;
+	private final List<String> rotasForaDaConcorrencia;
+	private final Set<MediaType> tiposForaDaConcorrencia;
+
+	public LimiteConfig(MeterRegistry meterRegistry,
+						@Value("${usuario.limite.taxa.regras:* /**=200/400}") List<String> regras,
+						@Value("${usuario.limite.taxa.clientes-maximo:100000}") int clientesMaximo,
+						@Value("${usuario.limite.taxa.chaves:}") List<String> chavesConhecidas,
+						@Value("${usuario.limite.concorrencia.inicial:20}") int limiteInicial,
+						@Value("${usuario.limite.concorrencia.minimo:4}") int limiteMinimo,
+						@Value("${usuario.limite.concorrencia.maximo:200}") int limiteMaximo,
+						@Value("${usuario.limite.concorrencia.alvo-p99:250ms}") Duration alvoP99,
+						@Value("${usuario.limite.concorrencia.janela:1s}") Duration janela,
+						@Value("${usuario.limite.concorrencia.amostras-minimas:100}") long amostrasMinimas,
+						@Value("${usuario.limite.concorrencia.fila:50}") int filaMaxima,
+						@Value("${usuario.limite.concorrencia.espera:50ms}") Duration espera,
+						@Value("${usuario.limite.concorrencia.rotas-excluidas:}") List<String> rotasForaDaConcorrencia,
+						@Value("${usuario.limite.concorrencia.tipos-excluidos:}") List<String> tiposForaDaConcorrencia) {
+		this.limitadorTaxa = new LimitadorTaxa(meterRegistry, regras, clientesMaximo, System::nanoTime);
+		this.chavesConhecidas = Set.copyOf(chavesConhecidas);
+		this.limiteConcorrencia = new LimiteConcorrenciaAdaptativo(meterRegistry, limiteInicial, limiteMinimo,
+				limiteMaximo, alvoP99, janela, amostrasMinimas, filaMaxima, espera, System::nanoTime);
+		this.rotasForaDaConcorrencia = rotasForaDaConcorrencia;
+		this.tiposForaDaConcorrencia = tiposForaDaConcorrencia.stream().map(MediaType::parseMediaType)
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new LimiteTaxaInterceptor(this.limitadorTaxa, this.chavesConhecidas)).order(0);
+		registry.addInterceptor(new LimiteConcorrenciaInterceptor(this.limiteConcorrencia, this.tiposForaDaConcorrencia))
+				.order(1)
+				.excludePathPatterns(this.rotasForaDaConcorrencia);
+	}
+}
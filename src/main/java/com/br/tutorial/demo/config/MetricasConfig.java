@@ -0,0 +1,68 @@
+package com.br.tutorial.demo.config;
+
+import com.br.tutorial.demo.metricas.ContadorSql;
+import com.br.tutorial.demo.metricas.MetricasRequisicaoInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+
+// Métricas do caminho controller -> service -> repository, publicadas em /actuator/prometheus.
+// http.server.requests (controller) e spring.data.repository.invocations (banco) vêm do Spring Boot;
+// aqui entram os timers @Timed do service e a contagem de SQL por requisição.
+@Configuration
+public class MetricasConfig implements WebMvcConfigurer {
+	private final MeterRegistry meterRegistry;
+
+	public MetricasConfig(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Bean
+	public TimedAspect timedAspect() {
+		return new TimedAspect(this.meterRegistry);
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer contadorSqlCustomizer() {
+		return propriedades -> propriedades.put(AvailableSettings.STATEMENT_INSPECTOR, new ContadorSql());
+	}
+
+	// Ocupação do pool contando quem espera por conexão: acima de 1 há requisições paradas na fila do Hikari.
+	// Complementa os hikaricp.connections.* (active, pending, acquire, timeout) publicados pelo Spring Boot.
+	@Bean
+	public static MeterBinder saturacaoPoolConexoes(ObjectProvider<DataSource> dataSource) {
+		return registry -> dataSource.ifAvailable(ds -> {
+			if (ds instanceof HikariDataSource hikari) {
+				Gauge.builder("hikaricp.connections.saturacao", hikari, MetricasConfig::saturacao).register(registry);
+			}
+		});
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new MetricasRequisicaoInterceptor(this.meterRegistry));
+	}
+
+	private static double saturacao(HikariDataSource hikari) {
+		// O pool só existe depois da primeira conexão.
+		HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+		if (pool == null) {
+			return 0;
+		}
+		return (double) (pool.getActiveConnections() + pool.getThreadsAwaitingConnection()) / hikari.getMaximumPoolSize();
+	}
+
+}
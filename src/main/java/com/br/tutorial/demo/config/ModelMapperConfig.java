@@ -1,16 +1,24 @@
 package com.br.tutorial.demo.config;
 
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
 import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 
 @Configuration
+@Profile("modelmapper")
 public class ModelMapperConfig {
 
 	@Bean
 	public ModelMapper modelMapper() {
-		return new ModelMapper();
+		ModelMapper modelMapper = new ModelMapper();
+		// A versão é controlada pelo @Version da entidade e não deve ser copiada do request.
+		modelMapper.typeMap(UsuarioRequestDTO.class, Usuario.class)
+				.addMappings(mapper -> mapper.skip(Usuario::setVersao));
+		return modelMapper;
 	}
 
 }
@@ -0,0 +1,39 @@
+package com.br.tutorial.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import javax.sql.DataSource;
+
+
+// Acesso R2DBC da API reativa: a ConnectionFactory (com pool) vem de spring.r2dbc.*; sem o Spring Data R2DBC,
+// o DatabaseClient é declarado aqui.
+// Com uma ConnectionFactory no contexto o Spring Boot não cria o DataSource JDBC (nem, com ele, o JPA): o pool Hikari
+// de spring.datasource.* e spring.datasource.hikari.* também é declarado aqui.
+@Configuration
+@Profile("!shards")
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReativoConfig {
+
+	@Bean
+	@ConditionalOnMissingBean
+	public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+		return DatabaseClient.create(connectionFactory);
+	}
+
+	@Bean
+	@ConditionalOnMissingBean(DataSource.class)
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource dataSource(DataSourceProperties propriedades) {
+		return propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+}
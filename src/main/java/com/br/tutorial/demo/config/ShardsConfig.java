@@ -0,0 +1,81 @@
+package com.br.tutorial.demo.config;
+
+import com.br.tutorial.demo.shard.GeradorIdUsuario;
+import com.br.tutorial.demo.shard.RoteadorShards;
+import com.br.tutorial.demo.shard.RoteamentoDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+
+// Tabela de usuários dividida entre "usuario.shards.quantidade" bancos independentes (profile "shards").
+// O DataSource da aplicação roteia cada conexão para o shard da operação (RoteadorShards); o esquema de cada
+// shard é criado por schema-shards.sql, já que o Hibernate só enxergaria um deles.
+@Configuration
+@Profile("shards")
+public class ShardsConfig {
+	private final int quantidade;
+
+	public ShardsConfig(@Value("${usuario.shards.quantidade}") int quantidade) {
+		this.quantidade = quantidade;
+	}
+
+	@Bean
+	public DataSource dataSource(@Value("${usuario.shards.url}") String url,
+								 @Value("${spring.datasource.username:}") String usuario,
+								 @Value("${spring.datasource.password:}") String senha,
+								 @Value("${usuario.shards.conexoes-por-shard:10}") int conexoesPorShard) {
+		ResourceDatabasePopulator esquema = new ResourceDatabasePopulator(new ClassPathResource("schema-shards.sql"));
+		Map<Object, Object> shards = new HashMap<>();
+		for (int shard = 0; shard < this.quantidade; shard++) {
+			HikariDataSource dataSource = new HikariDataSource();
+			dataSource.setPoolName("shard-" + shard);
+			dataSource.setJdbcUrl(url.replace("{shard}", Integer.toString(shard)));
+			dataSource.setUsername(usuario);
+			dataSource.setPassword(senha);
+			dataSource.setMaximumPoolSize(conexoesPorShard);
+			esquema.execute(dataSource);
+			shards.put(shard, dataSource);
+		}
+		RoteamentoDataSource roteamento = new RoteamentoDataSource();
+		roteamento.setTargetDataSources(shards);
+		return roteamento;
+	}
+
+	@Bean(destroyMethod = "encerrar")
+	public RoteadorShards roteadorShards(DataSource dataSource) {
+		return new RoteadorShards(this.quantidade, dataSource);
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer shardsHibernateCustomizer(@Value("${usuario.shards.url}") String url)
+			throws SQLException {
+		// Sem conexão na inicialização: fora de uma operação roteada não há shard para atender. A versão do banco vem
+		// do driver; sem ela o H2Dialect assume o H2 1.x e gera "select usuario_seq.nextval", que o H2 2.x recusa.
+		Driver driver = DriverManager.getDriver(url.replace("{shard}", "0"));
+		return propriedades -> {
+			propriedades.put(GeradorIdUsuario.PROPRIEDADE_SHARDS, this.quantidade);
+			propriedades.put(AvailableSettings.DIALECT, "org.hibernate.dialect.H2Dialect");
+			propriedades.put(AvailableSettings.JAKARTA_HBM2DDL_DB_NAME, "H2");
+			propriedades.put(AvailableSettings.JAKARTA_HBM2DDL_DB_MAJOR_VERSION, Integer.toString(driver.getMajorVersion()));
+			propriedades.put(AvailableSettings.JAKARTA_HBM2DDL_DB_MINOR_VERSION, Integer.toString(driver.getMinorVersion()));
+			propriedades.put("hibernate.temp.use_jdbc_metadata_defaults", false);
+			// A chave do cache de consultas não inclui o shard: o resultado de um shard valeria para os outros.
+			propriedades.put(AvailableSettings.USE_QUERY_CACHE, false);
+		};
+	}
+
+}
@@ -0,0 +1,13 @@
+package com.br.tutorial.demo.controller;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// O handler só é escolhido quando o Accept nomeia um dos tipos do seu "produces". Um Accept ausente ou curinga
+// (*/*, application/*) fica com o handler vizinho na mesma rota, como a listagem em JSON de GET /.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AcceptExplicito {
+}
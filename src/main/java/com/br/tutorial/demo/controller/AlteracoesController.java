@@ -0,0 +1,36 @@
+package com.br.tutorial.demo.controller;
+
+import com.br.tutorial.demo.response.AlteracoesDTO;
+import com.br.tutorial.demo.service.UsuarioAlteracoesService;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+// Feed de alterações de usuários: o consumidor informa o offset de onde continuar e recebe só o que mudou desde então.
+@RestController
+@RequestMapping("/alteracoes")
+public class AlteracoesController {
+	private final UsuarioAlteracoesService usuarioAlteracoesService;
+
+	public AlteracoesController(UsuarioAlteracoesService usuarioAlteracoesService) {
+		this.usuarioAlteracoesService = usuarioAlteracoesService;
+	}
+
+	// Long-poll: sem alterações a partir do offset, segura a resposta por até "espera" segundos.
+	@GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+	public DeferredResult<AlteracoesDTO> consultar(@RequestParam(required = false) Long aPartirDe,
+												   @RequestParam(defaultValue = "500") int limite,
+												   @RequestParam(defaultValue = "0") long espera) {
+		return this.usuarioAlteracoesService.aguardar(aPartirDe, limite, Duration.ofSeconds(espera));
+	}
+
+	// SSE: o navegador (EventSource) reenvia o id do último evento recebido ao reconectar.
+	@GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter assinar(@RequestParam(required = false) Long aPartirDe,
+							  @RequestHeader(value = "Last-Event-ID", required = false) Long ultimoEvento) {
+		return this.usuarioAlteracoesService.assinar(ultimoEvento != null ? ultimoEvento + 1 : aPartirDe);
+	}
+}
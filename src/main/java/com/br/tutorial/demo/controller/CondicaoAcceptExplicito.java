@@ -0,0 +1,67 @@
+package com.br.tutorial.demo.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.servlet.mvc.condition.RequestCondition;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+
+// Condição de mapeamento dos métodos com @AcceptExplicito: casa só se algum tipo aceito, sem curinga e com q > 0,
+// for compatível com o "produces" do método. Sem ela, o Spring MVC desempata um Accept curinga pela ordem alfabética
+// dos tipos, e application/cbor-seq ganharia de application/json.
+public final class CondicaoAcceptExplicito implements RequestCondition<CondicaoAcceptExplicito> {
+    private final List<MediaType> produzidos;
+
+    private CondicaoAcceptExplicito(List<MediaType> produzidos) {
+        this.produzidos = produzidos;
+    }
+
+    // Null para métodos sem @AcceptExplicito: o mapeamento segue sem condição extra.
+    public static CondicaoAcceptExplicito de(Method metodo) {
+        if (!metodo.isAnnotationPresent(AcceptExplicito.class)) {
+            return null;
+        }
+        RequestMapping mapeamento = AnnotatedElementUtils.findMergedAnnotation(metodo, RequestMapping.class);
+        if (mapeamento == null || mapeamento.produces().length == 0) {
+            throw new IllegalStateException("@AcceptExplicito exige um produces em " + metodo);
+        }
+        return new CondicaoAcceptExplicito(MediaType.parseMediaTypes(List.of(mapeamento.produces())));
+    }
+
+    @Override
+    public CondicaoAcceptExplicito combine(CondicaoAcceptExplicito outra) {
+        return outra;
+    }
+
+    @Override
+    public CondicaoAcceptExplicito getMatchingCondition(HttpServletRequest request) {
+        if (CorsUtils.isPreFlightRequest(request)) {
+            return this;
+        }
+        List<MediaType> aceitos;
+        try {
+            aceitos = MediaType.parseMediaTypes(Collections.list(request.getHeaders(HttpHeaders.ACCEPT)));
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        for (MediaType aceito : aceitos) {
+            if (!aceito.isWildcardType() && !aceito.isWildcardSubtype() && aceito.getQualityValue() > 0
+                    && this.produzidos.stream().anyMatch(aceito::isCompatibleWith)) {
+                return this;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int compareTo(CondicaoAcceptExplicito outra, HttpServletRequest request) {
+        return 0;
+    }
+}
@@ -0,0 +1,61 @@
+package com.br.tutorial.demo.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ETags do GET condicional. O mesmo conteúdo em JSON e em CBOR são corpos diferentes: cada formato tem a própria ETag
+// e as respostas levam Vary: Accept.
+public final class EtagUsuarios {
+    public static final String FORMATO_JSON = "";
+    public static final String FORMATO_CBOR = "-cbor";
+
+    private EtagUsuarios() {
+    }
+
+    // Forte: dentro de uma execução, id e versão identificam o corpo (a versão muda a cada gravação). Depois de um
+    // reinício com o banco em memória, o mesmo id e a mesma versão são outro usuário: a execução entra no valor.
+    public static String doUsuario(String execucao, long versao, String formato) {
+        return "\"" + execucao + "-" + versao + formato + "\"";
+    }
+
+    // Fraca: uma leitura que cruza um commit pode sair com a versão anterior e o conteúdo novo.
+    public static String daColecao(String versao, String formato) {
+        return "W/\"" + versao + formato + "\"";
+    }
+
+    // O formato que o Spring MVC vai escolher entre JSON e CBOR para este Accept (JSON em empate, como os conversores).
+    public static String formato(List<MediaType> aceitos) {
+        if (aceitos.isEmpty()) {
+            return FORMATO_JSON;
+        }
+        List<MediaType> ordenados = new ArrayList<>(aceitos);
+        MimeTypeUtils.sortBySpecificity(ordenados);
+        for (MediaType aceito : ordenados) {
+            if (aceito.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return FORMATO_JSON;
+            }
+            if (aceito.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return FORMATO_CBOR;
+            }
+        }
+        return FORMATO_JSON;
+    }
+
+    // Comparação fraca do If-None-Match (RFC 9110): W/"x" corresponde a "x"; "*" corresponde a qualquer versão.
+    public static boolean corresponde(List<String> ifNoneMatch, String etag) {
+        String valor = semPrefixoFraco(etag);
+        for (String informada : ifNoneMatch) {
+            if (informada.equals("*") || semPrefixoFraco(informada).equals(valor)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String semPrefixoFraco(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,34 @@
+package com.br.tutorial.demo.controller;
+
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.IngestaoStatusDTO;
+import com.br.tutorial.demo.service.UsuarioIngestaoService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+// Criação de usuários sem esperar a gravação (profile "ingestao"): 202 com o rastreio e consulta da situação.
+@RestController
+@RequestMapping("/ingestao")
+@Profile("ingestao & !shards")
+public class IngestaoController {
+	private final UsuarioIngestaoService usuarioIngestaoService;
+
+	public IngestaoController(UsuarioIngestaoService usuarioIngestaoService) {
+		this.usuarioIngestaoService = usuarioIngestaoService;
+	}
+
+	@PostMapping
+	public ResponseEntity<IngestaoStatusDTO> aceitar(@RequestBody UsuarioRequestDTO usuarioRequestDTO) {
+		IngestaoStatusDTO situacao = this.usuarioIngestaoService.aceitar(usuarioRequestDTO);
+		return ResponseEntity.accepted().location(URI.create("/ingestao/" + situacao.getRastreio())).body(situacao);
+	}
+
+	@GetMapping("/{rastreio}")
+	public ResponseEntity<IngestaoStatusDTO> consultar(@PathVariable String rastreio) {
+		return ResponseEntity.ok(this.usuarioIngestaoService.consultar(rastreio));
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.br.tutorial.demo.controller;
+
+import com.br.tutorial.demo.response.ImportacaoResultadoDTO;
+import com.br.tutorial.demo.service.UsuarioTransferenciaService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Cópia da tabela de usuários: GET /exportacao em CSV ou NDJSON (conforme o Accept) e POST /importacao no
+// mesmo formato. Com Accept-Encoding: gzip a exportação sai compactada; Content-Encoding: gzip na importação
+// indica um corpo compactado.
+@RestController
+@Profile("!shards")
+public class TransferenciaController {
+	private static final String TEXT_CSV = "text/csv";
+	private static final String GZIP = "gzip";
+	private static final int BUFFER_GZIP = 64 * 1024;
+
+	private final UsuarioTransferenciaService usuarioTransferenciaService;
+
+	public TransferenciaController(UsuarioTransferenciaService usuarioTransferenciaService) {
+		this.usuarioTransferenciaService = usuarioTransferenciaService;
+	}
+
+	@GetMapping(value = "/exportacao", produces = TEXT_CSV)
+	public ResponseEntity<StreamingResponseBody> exportarCsv(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		return exportar(MediaType.parseMediaType(TEXT_CSV + ";charset=UTF-8"), "usuarios.csv", acceptEncoding,
+				this.usuarioTransferenciaService::exportarCsv);
+	}
+
+	@GetMapping(value = "/exportacao", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportarNdjson(
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		return exportar(MediaType.APPLICATION_NDJSON, "usuarios.ndjson", acceptEncoding,
+				this.usuarioTransferenciaService::exportarNdjson);
+	}
+
+	@PostMapping(value = "/importacao", consumes = TEXT_CSV)
+	public ResponseEntity<ImportacaoResultadoDTO> importarCsv(InputStream corpo,
+			@RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding)
+			throws IOException {
+		return ResponseEntity.ok(this.usuarioTransferenciaService.importarCsv(descompactar(corpo, contentEncoding)));
+	}
+
+	@PostMapping(value = "/importacao", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<ImportacaoResultadoDTO> importarNdjson(InputStream corpo,
+			@RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding)
+			throws IOException {
+		return ResponseEntity.ok(this.usuarioTransferenciaService.importarNdjson(descompactar(corpo, contentEncoding)));
+	}
+
+	private ResponseEntity<StreamingResponseBody> exportar(MediaType tipo, String arquivo, String acceptEncoding,
+														   StreamingResponseBody exportacao) {
+		boolean compactar = aceitaGzip(acceptEncoding);
+		ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+				.contentType(tipo)
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + arquivo)
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (!compactar) {
+			return resposta.body(exportacao);
+		}
+		return resposta.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(saida -> {
+			GZIPOutputStream gzip = new GZIPOutputStream(saida, BUFFER_GZIP);
+			exportacao.writeTo(gzip);
+			// finish e não close: o stream da resposta é fechado pelo container.
+			gzip.finish();
+		});
+	}
+
+	// gzip com q > 0 no Accept-Encoding, pelo nome ou pelo curinga "*" (RFC 9110); "gzip;q=0" recusa a compactação.
+	private static boolean aceitaGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		Double curinga = null;
+		for (String item : acceptEncoding.split(",")) {
+			String[] partes = item.split(";");
+			String codificacao = partes[0].trim();
+			double q = 1.0;
+			for (int i = 1; i < partes.length; i++) {
+				String parametro = partes[i].trim();
+				if (parametro.regionMatches(true, 0, "q=", 0, 2)) {
+					try {
+						q = Double.parseDouble(parametro.substring(2).trim());
+					} catch (NumberFormatException e) {
+						q = 0;
+					}
+				}
+			}
+			if (codificacao.equalsIgnoreCase(GZIP)) {
+				return q > 0;
+			}
+			if (codificacao.equals("*")) {
+				curinga = q;
+			}
+		}
+		return curinga != null && curinga > 0;
+	}
+
+	private static InputStream descompactar(InputStream corpo, String contentEncoding) throws IOException {
+		return GZIP.equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(corpo, BUFFER_GZIP) : corpo;
+	}
+
+}
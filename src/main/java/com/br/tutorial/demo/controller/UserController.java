@@ -1,22 +1,62 @@
 package com.br.tutorial.demo.controller;
 
 
+import com.br.tutorial.demo.config.CborConfig;
+import com.br.tutorial.demo.evento.VersaoColecaoUsuarios;
 import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
 import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioBuscaResponseDTO;
+import com.br.tutorial.demo.response.UsuarioPaginaResponseDTO;
 import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioBuscaService;
 import com.br.tutorial.demo.service.UsuarioService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Function;
 
 @RestController
 public class UserController {
 	private final UsuarioService userService;
+	private final UsuarioBuscaService usuarioBuscaService;
+	private final VersaoColecaoUsuarios versaoColecao;
+	private final ObjectWriter objectWriter;
+	private final ObjectWriter cborWriter;
 
-	public UserController(UsuarioService userService) {
+	@Value("${usuario.paginacao.limite-maximo:1000}")
+	private int limiteMaximo;
+
+	@Value("${usuario.paginacao.lote-stream:500}")
+	private int loteStream;
+
+	public UserController(UsuarioService userService, UsuarioBuscaService usuarioBuscaService,
+						  VersaoColecaoUsuarios versaoColecao, ObjectMapper objectMapper,
+						  MappingJackson2CborHttpMessageConverter conversorCbor) {
 		this.userService = userService;
+		this.usuarioBuscaService = usuarioBuscaService;
+		this.versaoColecao = versaoColecao;
+		// Cada usuário vira uma linha NDJSON: o gerador não pode fechar nem descarregar o stream a cada objeto.
+		this.objectWriter = objectMapper.writerFor(UsuarioResponseDTO.class)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		this.cborWriter = conversorCbor.getObjectMapper().writerFor(UsuarioResponseDTO.class)
+				.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+				.without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
 	}
 
 	@PostMapping
@@ -25,15 +65,67 @@ public class UserController {
 		return ResponseEntity.ok(usuarioResponseDTO);
 	}
 	@GetMapping("/{id}")
-	public ResponseEntity<UsuarioResponseDTO> buscarPorId(@PathVariable Long id) throws BadRequestException {
+	public ResponseEntity<UsuarioResponseDTO> buscarPorId(@PathVariable Long id, @RequestHeader HttpHeaders cabecalhos)
+			throws BadRequestException {
+		String formato = EtagUsuarios.formato(cabecalhos.getAccept());
+		// Revalidação: compara só a versão (cache ou SELECT de uma coluna), sem carregar nem mapear o usuário.
+		if (!cabecalhos.getIfNoneMatch().isEmpty()) {
+			String etag = EtagUsuarios.doUsuario(this.versaoColecao.execucao(), this.userService.buscarVersao(id), formato);
+			if (EtagUsuarios.corresponde(cabecalhos.getIfNoneMatch(), etag)) {
+				return naoModificado(etag);
+			}
+		}
 		UsuarioResponseDTO usuarioResponseDTO = this.userService.buscarPorId(id);
-		return ResponseEntity.ok(usuarioResponseDTO);
+		ResponseEntity.BodyBuilder resposta = ResponseEntity.ok()
+				.eTag(EtagUsuarios.doUsuario(this.versaoColecao.execucao(), usuarioResponseDTO.getVersao(), formato))
+				.varyBy(HttpHeaders.ACCEPT);
+		// Um If-Modified-Since sem If-None-Match é respondido com 304 pelo próprio Spring MVC a partir deste valor.
+		if (usuarioResponseDTO.getAtualizadoEm() != null) {
+			resposta.lastModified(usuarioResponseDTO.getAtualizadoEm());
+		}
+		return resposta.body(usuarioResponseDTO);
+	}
+
+	// Mesmo array de sempre, serializado enquanto a tabela é lida em lotes do stream: sem a lista inteira em memória.
+	@GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+	public ResponseEntity<Iterable<UsuarioResponseDTO>> buscarTodos(@RequestHeader HttpHeaders cabecalhos) {
+		return listagem(cabecalhos, EtagUsuarios.formato(cabecalhos.getAccept()),
+				ok -> ok.body(this.userService.buscarTodos(this.loteStream)));
 	}
 
-	@GetMapping
-	public ResponseEntity<List<UsuarioResponseDTO>> buscarTodos() {
-		List<UsuarioResponseDTO> usuarioResponseDTOS = this.userService.buscarTodos();
-		return ResponseEntity.ok(usuarioResponseDTOS);
+	@GetMapping(params = "limite", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+	public ResponseEntity<UsuarioPaginaResponseDTO> buscarPagina(@RequestParam(required = false) Long aposId,
+																 @RequestParam int limite,
+																 @RequestHeader HttpHeaders cabecalhos) {
+		int limiteValido = Math.max(1, Math.min(limite, this.limiteMaximo));
+		return listagem(cabecalhos, EtagUsuarios.formato(cabecalhos.getAccept()),
+				ok -> ok.body(this.userService.buscarPagina(aposId, limiteValido)));
+	}
+
+	@AcceptExplicito
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> transmitirTodos(@RequestHeader HttpHeaders cabecalhos) {
+		StreamingResponseBody corpo = outputStream -> this.userService.percorrerTodos(this.loteStream,
+				usuarioResponseDTO -> escreverLinha(outputStream, usuarioResponseDTO));
+		return listagem(cabecalhos, "-ndjson", ok -> ok.contentType(MediaType.APPLICATION_NDJSON).body(corpo));
+	}
+
+	// Mesmo stream em CBOR: um único gerador para a resposta inteira, um item por usuário.
+	@AcceptExplicito
+	@GetMapping(produces = CborConfig.APPLICATION_CBOR_SEQ_VALUE)
+	public ResponseEntity<StreamingResponseBody> transmitirTodosCbor(@RequestHeader HttpHeaders cabecalhos) {
+		StreamingResponseBody corpo = outputStream -> {
+			try (SequenceWriter sequencia = this.cborWriter.writeValues(outputStream)) {
+				this.userService.percorrerTodos(this.loteStream, usuarioResponseDTO -> escreverItem(sequencia, usuarioResponseDTO));
+			}
+		};
+		return listagem(cabecalhos, "-cbor-seq", ok -> ok.contentType(CborConfig.APPLICATION_CBOR_SEQ).body(corpo));
+	}
+
+	@GetMapping("/busca")
+	public ResponseEntity<UsuarioBuscaResponseDTO> buscar(@RequestParam("q") String consulta,
+														  @RequestParam(defaultValue = "10") int limite) {
+		return ResponseEntity.ok(this.usuarioBuscaService.buscar(consulta, limite));
 	}
 
 	@PutMapping("/{id}")
@@ -49,4 +141,36 @@ public class UserController {
 		return ResponseEntity.noContent().build();
 	}
 
+	// GET condicional das listagens: a versão da coleção é lida antes dos dados, então uma alteração concluída durante
+	// a leitura sai com a ETag anterior e é buscada de novo na próxima consulta do cliente.
+	private <T> ResponseEntity<T> listagem(HttpHeaders cabecalhos, String formato,
+										   Function<ResponseEntity.BodyBuilder, ResponseEntity<T>> resposta) {
+		String etag = EtagUsuarios.daColecao(this.versaoColecao.atual(), formato);
+		if (EtagUsuarios.corresponde(cabecalhos.getIfNoneMatch(), etag)) {
+			return naoModificado(etag);
+		}
+		return resposta.apply(ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT));
+	}
+
+	private static <T> ResponseEntity<T> naoModificado(String etag) {
+		return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+	}
+
+	private void escreverLinha(OutputStream outputStream, UsuarioResponseDTO usuarioResponseDTO) {
+		try {
+			this.objectWriter.writeValue(outputStream, usuarioResponseDTO);
+			outputStream.write('\n');
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void escreverItem(SequenceWriter sequencia, UsuarioResponseDTO usuarioResponseDTO) {
+		try {
+			sequencia.write(usuarioResponseDTO);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
 }
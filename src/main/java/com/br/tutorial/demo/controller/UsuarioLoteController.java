@@ -0,0 +1,42 @@
+package com.br.tutorial.demo.controller;
+
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.ResultadoLoteDTO;
+import com.br.tutorial.demo.service.UsuarioLoteService;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+// Operações em lote (/lote): cada bloco é uma transação sobre vários usuários, o que não existe com shards.
+@RestController
+@Profile("!shards")
+public class UsuarioLoteController {
+	private final UsuarioLoteService usuarioLoteService;
+
+	public UsuarioLoteController(UsuarioLoteService usuarioLoteService) {
+		this.usuarioLoteService = usuarioLoteService;
+	}
+
+	@PostMapping("/lote")
+	public ResponseEntity<List<ResultadoLoteDTO>> salvarLote(@RequestBody List<UsuarioRequestDTO> usuarioRequestDTOS) {
+		return ResponseEntity.ok(this.usuarioLoteService.salvarLote(usuarioRequestDTOS));
+	}
+
+	@PutMapping("/lote")
+	public ResponseEntity<List<ResultadoLoteDTO>> atualizarLote(@RequestBody List<UsuarioRequestDTO> usuarioRequestDTOS) {
+		return ResponseEntity.ok(this.usuarioLoteService.atualizarLote(usuarioRequestDTOS));
+	}
+
+	@DeleteMapping("/lote")
+	public ResponseEntity<List<ResultadoLoteDTO>> deletarLote(@RequestBody List<Long> ids) {
+		return ResponseEntity.ok(this.usuarioLoteService.deletarLote(ids));
+	}
+
+	@DeleteMapping(value = "/lote", params = "prefixoCodigo")
+	public ResponseEntity<Long> deletarPorPrefixoCodigo(@RequestParam String prefixoCodigo) {
+		return ResponseEntity.ok(this.usuarioLoteService.deletarPorPrefixoCodigo(prefixoCodigo));
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.br.tutorial.demo.controller;
+
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioReativoService;
+import jakarta.validation.Valid;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Variante não bloqueante da API de usuários, no mesmo servidor: o Spring MVC devolve a thread do Tomcat ao receber
+// o Mono/Flux e responde quando o resultado chega. Em application/x-ndjson a listagem é escrita usuário a usuário,
+// pedindo a próxima linha ao banco só depois de escrever a anterior.
+@RestController
+@RequestMapping("/reativo")
+@Profile("!shards")
+public class UsuarioReativoController {
+	private final UsuarioReativoService usuarioReativoService;
+
+	public UsuarioReativoController(UsuarioReativoService usuarioReativoService) {
+		this.usuarioReativoService = usuarioReativoService;
+	}
+
+	@PostMapping
+	public Mono<UsuarioResponseDTO> salvar(@Valid @RequestBody UsuarioRequestDTO usuarioRequestDTO) {
+		return this.usuarioReativoService.salvar(usuarioRequestDTO);
+	}
+
+	@GetMapping("/{id}")
+	public Mono<UsuarioResponseDTO> buscarPorId(@PathVariable Long id) {
+		return this.usuarioReativoService.buscarPorId(id);
+	}
+
+	@GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+			MediaType.APPLICATION_NDJSON_VALUE})
+	public Flux<UsuarioResponseDTO> buscarTodos() {
+		return this.usuarioReativoService.buscarTodos();
+	}
+
+	@PutMapping("/{id}")
+	public Mono<UsuarioResponseDTO> atualizar(@PathVariable Long id, @RequestBody UsuarioRequestDTO usuarioRequestDTO) {
+		return this.usuarioReativoService.atualizar(id, usuarioRequestDTO);
+	}
+
+	@DeleteMapping("/{id}")
+	public Mono<ResponseEntity<Void>> deletar(@PathVariable Long id) {
+		return this.usuarioReativoService.deletar(id)
+				.then(Mono.just(ResponseEntity.noContent().build()));
+	}
+}
@@ -1,18 +1,43 @@
 package com.br.tutorial.demo.entity;
 
 
+import com.br.tutorial.demo.shard.GeradorIdUsuario;
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import java.io.Serializable;
+import java.time.Instant;
 
 @Entity
+@Table(uniqueConstraints = {
+        @UniqueConstraint(name = Usuario.UK_NOME, columnNames = "nome"),
+        @UniqueConstraint(name = Usuario.UK_CODIGO, columnNames = "codigo")
+})
 public class Usuario implements Serializable {
     private static final long serialVersionUID = 1L;
+    public static final String UK_NOME = "UK_USUARIO_NOME";
+    public static final String UK_CODIGO = "UK_USUARIO_CODIGO";
+    // Sequence com alocação em blocos (pooled): evita um round trip por id e permite INSERTs em batch JDBC.
+    // Com shards, o GeradorIdUsuario acrescenta o número do shard ao valor da sequence local.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "usuario_seq")
+    @GenericGenerator(name = "usuario_seq", type = GeradorIdUsuario.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "usuario_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50"),
+            @Parameter(name = SequenceStyleGenerator.OPT_PARAM, value = "pooled")
+    })
     private Long id;
     private String nome;
     private String codigo;
+    // Controle de concorrência otimista: incrementada a cada UPDATE.
+    @Version
+    private Long versao;
+    // Momento da última gravação (Last-Modified); no UPDATE em JPQL é o service que informa o valor.
+    @UpdateTimestamp
+    private Instant atualizadoEm;
 
     public Long getId() {
         return id;
@@ -38,5 +63,19 @@ public class Usuario implements Serializable {
         this.codigo = codigo;
     }
 
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 
+    public Instant getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(Instant atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
 }
@@ -0,0 +1,43 @@
+package com.br.tutorial.demo.evento;
+
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+
+// Publicado depois que um usuário é gravado ou removido, para quem mantém cópias derivadas dos dados.
+public class UsuarioEvento {
+    public enum Tipo { SALVO, ATUALIZADO, REMOVIDO }
+
+    private final Tipo tipo;
+    private final Long id;
+    // Estado após a alteração; nulo na remoção.
+    private final UsuarioResponseDTO usuario;
+
+    private UsuarioEvento(Tipo tipo, Long id, UsuarioResponseDTO usuario) {
+        this.tipo = tipo;
+        this.id = id;
+        this.usuario = usuario;
+    }
+
+    public static UsuarioEvento salvo(UsuarioResponseDTO usuario) {
+        return new UsuarioEvento(Tipo.SALVO, usuario.getId(), usuario);
+    }
+
+    public static UsuarioEvento atualizado(UsuarioResponseDTO usuario) {
+        return new UsuarioEvento(Tipo.ATUALIZADO, usuario.getId(), usuario);
+    }
+
+    public static UsuarioEvento removido(Long id) {
+        return new UsuarioEvento(Tipo.REMOVIDO, id, null);
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UsuarioResponseDTO getUsuario() {
+        return usuario;
+    }
+}
@@ -0,0 +1,30 @@
+package com.br.tutorial.demo.evento;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Versão da coleção de usuários para a ETag das listagens: um contador em memória incrementado a cada UsuarioEvento,
+// sem consultar o banco. Toda gravação de usuário publica o evento (service, lotes, importação, ingestão, API reativa).
+// O instante de início faz parte do valor, então um reinício nunca repete uma versão já entregue; a ETag de cada
+// usuário usa o mesmo prefixo (execucao()).
+@Component
+public class VersaoColecaoUsuarios {
+    private final long inicio = System.currentTimeMillis();
+    private final AtomicLong geracao = new AtomicLong();
+
+    // Depois do commit: a versão só muda quando a alteração já pode ser lida.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarUsuario(UsuarioEvento evento) {
+        this.geracao.incrementAndGet();
+    }
+
+    public String atual() {
+        return execucao() + "-" + this.geracao.get();
+    }
+
+    public String execucao() {
+        return Long.toString(this.inicio, 36);
+    }
+}
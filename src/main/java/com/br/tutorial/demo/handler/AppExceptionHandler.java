@@ -1,29 +1,68 @@
 package com.br.tutorial.demo.handler;
 
 import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.handler.entidadeHandler.ConflitoException;
+import com.br.tutorial.demo.handler.entidadeHandler.LimiteExcedidoException;
+import com.br.tutorial.demo.handler.entidadeHandler.ServicoIndisponivelException;
+import com.br.tutorial.demo.handler.message.ErroCampo;
 import com.br.tutorial.demo.handler.message.ErrorMessage;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
-import java.util.Date;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 @RestController
 @RestControllerAdvice
 public class AppExceptionHandler {
+    private static final String DADOS_INVALIDOS = "Dados invalidos";
 
     @ExceptionHandler(value = {BadRequestException.class})
     public ResponseEntity<ErrorMessage> handleBadException(BadRequestException e, WebRequest webRequest){
-        return new ResponseEntity<>((new ErrorMessage(new Date(),e.getMessage())), HttpStatus.BAD_REQUEST);
+        return new ResponseEntity<>((new ErrorMessage(Instant.now(),e.getMessage())), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(value = {ConflitoException.class})
+    public ResponseEntity<ErrorMessage> handleConflitoException(ConflitoException e, WebRequest webRequest){
+        return new ResponseEntity<>((new ErrorMessage(Instant.now(),e.getMessage())), HttpStatus.CONFLICT);
+    }
+
+    // Sobrecarga momentânea: o cliente pode repetir a requisição depois do intervalo indicado em Retry-After.
+    @ExceptionHandler(value = {ServicoIndisponivelException.class})
+    public ResponseEntity<ErrorMessage> handleServicoIndisponivelException(ServicoIndisponivelException e, WebRequest webRequest){
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>((new ErrorMessage(Instant.now(),e.getMessage())), headers, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    // Cliente acima da sua taxa: Retry-After indica quando haverá token de novo.
+    @ExceptionHandler(value = {LimiteExcedidoException.class})
+    public ResponseEntity<ErrorMessage> handleLimiteExcedidoException(LimiteExcedidoException e, WebRequest webRequest){
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(e.getEsperaSegundos()));
+        return new ResponseEntity<>((new ErrorMessage(Instant.now(),e.getMessage())), headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    // Um item por campo rejeitado, em vez do getMessage() da exceção (que descreve o método e todo o BindingResult).
     @ExceptionHandler(value = {MethodArgumentNotValidException.class})
     public ResponseEntity<ErrorMessage> handleValidationException(MethodArgumentNotValidException e, WebRequest webRequest){
-        return new ResponseEntity<>((new ErrorMessage(new Date(),e.getMessage())), HttpStatus.BAD_REQUEST);
+        List<ErroCampo> erros = new ArrayList<>(e.getErrorCount());
+        for (FieldError erro : e.getFieldErrors()) {
+            erros.add(new ErroCampo(erro.getField(), erro.getDefaultMessage()));
+        }
+        for (ObjectError erro : e.getGlobalErrors()) {
+            erros.add(new ErroCampo(erro.getObjectName(), erro.getDefaultMessage()));
+        }
+        return new ResponseEntity<>((new ErrorMessage(Instant.now(),DADOS_INVALIDOS,erros)), HttpStatus.BAD_REQUEST);
     }
 
 }
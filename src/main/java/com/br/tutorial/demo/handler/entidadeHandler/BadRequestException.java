@@ -6,5 +6,15 @@ public class BadRequestException extends RuntimeException {
         super(getMessage);
     }
 
+    private BadRequestException(String mensagem, boolean pilha) {
+        super(mensagem, null, false, pilha);
+    }
+
+    // Para erros conhecidos, lançados com frequência: sem stack trace (o handler usa só a mensagem) e sem
+    // exceções suprimidas, então uma única instância pode ser lançada de qualquer thread.
+    public static BadRequestException preAlocada(String mensagem) {
+        return new BadRequestException(mensagem, false);
+    }
+
 
 }
@@ -0,0 +1,19 @@
+package com.br.tutorial.demo.handler.entidadeHandler;
+
+
+public class ConflitoException extends RuntimeException {
+    public ConflitoException(String getMessage) {
+        super(getMessage);
+    }
+
+    private ConflitoException(String mensagem, boolean pilha) {
+        super(mensagem, null, false, pilha);
+    }
+
+    // Instância sem stack trace, compartilhável entre threads (como em BadRequestException.preAlocada).
+    public static ConflitoException preAlocada(String mensagem) {
+        return new ConflitoException(mensagem, false);
+    }
+
+
+}
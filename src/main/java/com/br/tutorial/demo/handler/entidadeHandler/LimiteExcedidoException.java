@@ -0,0 +1,19 @@
+package com.br.tutorial.demo.handler.entidadeHandler;
+
+
+// Cliente acima da taxa permitida para o endpoint: 429 com Retry-After.
+public class LimiteExcedidoException extends RuntimeException {
+    private final long esperaSegundos;
+
+    // Sem stack trace: as recusas são frequentes justamente quando um cliente abusa.
+    public LimiteExcedidoException(String mensagem, long esperaSegundos) {
+        super(mensagem, null, false, false);
+        this.esperaSegundos = esperaSegundos;
+    }
+
+    public long getEsperaSegundos() {
+        return esperaSegundos;
+    }
+
+
+}
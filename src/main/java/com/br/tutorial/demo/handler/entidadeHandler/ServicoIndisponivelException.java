@@ -0,0 +1,19 @@
+package com.br.tutorial.demo.handler.entidadeHandler;
+
+
+public class ServicoIndisponivelException extends RuntimeException {
+    public ServicoIndisponivelException(String getMessage) {
+        super(getMessage);
+    }
+
+    private ServicoIndisponivelException(String mensagem, boolean pilha) {
+        super(mensagem, null, false, pilha);
+    }
+
+    // Instância sem stack trace, compartilhável entre threads (como em BadRequestException.preAlocada).
+    public static ServicoIndisponivelException preAlocada(String mensagem) {
+        return new ServicoIndisponivelException(mensagem, false);
+    }
+
+
+}
@@ -1,26 +1,39 @@
 package com.br.tutorial.demo.handler.message;
 
-import java.util.Date;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+import java.util.List;
 
 public class ErrorMessage {
-    private Date currentDate;
+    // Instant em vez de java.util.Date: sai em ISO-8601 sem passar pelo DateFormat do Jackson.
+    private Instant currentDate;
     private String message;
+    // Só nos erros de validação: um item por campo rejeitado.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<ErroCampo> erros;
 
     public ErrorMessage() {
     }
 
-    public ErrorMessage(Date currentDate, String message) {
+    public ErrorMessage(Instant currentDate, String message) {
+        this.currentDate = currentDate;
+        this.message = message;
+    }
+
+    public ErrorMessage(Instant currentDate, String message, List<ErroCampo> erros) {
         this.currentDate = currentDate;
         this.message = message;
+        this.erros = erros;
     }
 
 
 
-    public Date getCurrentDate() {
+    public Instant getCurrentDate() {
         return currentDate;
     }
 
-    public void setCurrentDate(Date currentDate) {
+    public void setCurrentDate(Instant currentDate) {
         this.currentDate = currentDate;
     }
 
@@ -31,4 +44,12 @@ public class ErrorMessage {
     public void setMessage(String message) {
         this.message = message;
     }
+
+    public List<ErroCampo> getErros() {
+        return erros;
+    }
+
+    public void setErros(List<ErroCampo> erros) {
+        this.erros = erros;
+    }
 }
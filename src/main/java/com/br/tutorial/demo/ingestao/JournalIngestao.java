@@ -0,0 +1,156 @@
+package com.br.tutorial.demo.ingestao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Arquivo local de pedidos aceitos e ainda não gravados no banco. Cada linha é
+//   A<tab>rastreio<tab>conteúdo   quando o pedido é aceito, ou
+//   C<tab>rastreio                quando ele foi gravado (com sucesso ou erro definitivo).
+// O aceite só retorna depois do fsync; escritas concorrentes compartilham o mesmo fsync (group commit).
+// Na abertura, os aceitos sem conclusão são devolvidos para reprocessamento e o arquivo é compactado.
+public class JournalIngestao implements Closeable {
+    private final Path arquivo;
+    private final long limiteBytes;
+    private final Object escrita = new Object();
+    private final Object sincronizacao = new Object();
+    private FileChannel canal;
+    private long escrito;
+    private long sincronizado;
+    private long pendentes;
+
+    public JournalIngestao(Path arquivo, long limiteBytes) {
+        this.arquivo = arquivo;
+        this.limiteBytes = limiteBytes;
+    }
+
+    public List<Registro> abrir() throws IOException {
+        Map<String, String> aceitos = new LinkedHashMap<>();
+        if (Files.exists(this.arquivo)) {
+            String conteudo = new String(Files.readAllBytes(this.arquivo), StandardCharsets.UTF_8);
+            // O trecho após a última quebra de linha é uma escrita interrompida pela queda e é descartado.
+            String[] linhas = conteudo.substring(0, conteudo.lastIndexOf('\n') + 1).split("\n");
+            for (String linha : linhas) {
+                String[] partes = linha.split("\t", 3);
+                if (partes.length == 3 && partes[0].equals("A")) {
+                    aceitos.put(partes[1], partes[2]);
+                } else if (partes.length == 2 && partes[0].equals("C")) {
+                    aceitos.remove(partes[1]);
+                }
+            }
+        } else if (this.arquivo.getParent() != null) {
+            Files.createDirectories(this.arquivo.getParent());
+        }
+
+        List<Registro> registros = new ArrayList<>(aceitos.size());
+        StringBuilder compactado = new StringBuilder();
+        aceitos.forEach((rastreio, conteudo) -> {
+            registros.add(new Registro(rastreio, conteudo));
+            compactado.append("A\t").append(rastreio).append('\t').append(conteudo).append('\n');
+        });
+        Path temporario = this.arquivo.resolveSibling(this.arquivo.getFileName() + ".tmp");
+        try (FileChannel novo = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            escreverTudo(novo, StandardCharsets.UTF_8.encode(compactado.toString()));
+            novo.force(true);
+        }
+        Files.move(temporario, this.arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        this.canal = FileChannel.open(this.arquivo, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        this.escrito = this.canal.size();
+        this.sincronizado = this.escrito;
+        this.pendentes = registros.size();
+        return registros;
+    }
+
+    public void registrarAceito(String rastreio, String conteudo) throws IOException {
+        anexar("A\t" + rastreio + '\t' + conteudo + '\n', 1);
+    }
+
+    public void registrarConcluidos(Collection<String> rastreios) throws IOException {
+        StringBuilder linhas = new StringBuilder(rastreios.size() * 40);
+        for (String rastreio : rastreios) {
+            linhas.append("C\t").append(rastreio).append('\n');
+        }
+        anexar(linhas.toString(), -rastreios.size());
+        truncarSeVazio();
+    }
+
+    private void anexar(String texto, int variacaoPendentes) throws IOException {
+        ByteBuffer dados = StandardCharsets.UTF_8.encode(texto);
+        long fim;
+        synchronized (this.escrita) {
+            escreverTudo(this.canal, dados);
+            this.escrito += dados.limit();
+            this.pendentes += variacaoPendentes;
+            fim = this.escrito;
+        }
+        synchronized (this.sincronizacao) {
+            // Outra thread pode já ter feito o fsync que cobre esta escrita.
+            if (this.sincronizado < fim) {
+                long alvo;
+                synchronized (this.escrita) {
+                    alvo = this.escrito;
+                }
+                this.canal.force(false);
+                this.sincronizado = alvo;
+            }
+        }
+    }
+
+    // Sem pedidos em aberto, todo o conteúdo já está no banco e o arquivo pode recomeçar do zero.
+    private void truncarSeVazio() throws IOException {
+        synchronized (this.sincronizacao) {
+            synchronized (this.escrita) {
+                if (this.pendentes == 0 && this.escrito > this.limiteBytes) {
+                    this.canal.truncate(0);
+                    this.canal.force(false);
+                    this.escrito = 0;
+                    this.sincronizado = 0;
+                }
+            }
+        }
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer dados) throws IOException {
+        while (dados.hasRemaining()) {
+            canal.write(dados);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.canal != null) {
+            this.canal.close();
+        }
+    }
+
+    public static final class Registro {
+        private final String rastreio;
+        private final String conteudo;
+
+        Registro(String rastreio, String conteudo) {
+            this.rastreio = rastreio;
+            this.conteudo = conteudo;
+        }
+
+        public String getRastreio() {
+            return rastreio;
+        }
+
+        public String getConteudo() {
+            return conteudo;
+        }
+    }
+}
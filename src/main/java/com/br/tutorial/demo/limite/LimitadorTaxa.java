@@ -0,0 +1,122 @@
+package com.br.tutorial.demo.limite;
+
+import com.br.tutorial.demo.handler.entidadeHandler.LimiteExcedidoException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.util.AntPathMatcher;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Token bucket por cliente e regra. Cada regra é "<método> <rota>=<requisições por segundo>/<rajada>", com "*" para
+// qualquer método e a rota no formato do mapeamento ("/{id}", "/lote", "/**"); vale a primeira que combinar.
+// Cada balde é um único AtomicLong com o instante teórico da próxima chegada (GCRA, equivalente ao token bucket):
+// liberar uma requisição é um compareAndSet, sem lock. Um balde sem uso por tempo suficiente para encher de novo
+// é igual a um novo, então expira do cache sem mudar o resultado.
+public class LimitadorTaxa {
+    private static final String EXCEDIDO = "Limite de requisicoes excedido, tente novamente";
+
+    private final List<Regra> regras = new ArrayList<>();
+    private final ConcurrentMap<String, Optional<Regra>> regraPorRota = new ConcurrentHashMap<>();
+    private final Cache<String, AtomicLong> baldes;
+    private final AntPathMatcher rotas = new AntPathMatcher();
+    private final LongSupplier relogio;
+    private final Counter recusadas;
+
+    public LimitadorTaxa(MeterRegistry meterRegistry, List<String> regras, int clientesMaximo, LongSupplier relogio) {
+        long reposicaoMaxima = TimeUnit.SECONDS.toNanos(1);
+        for (String regra : regras) {
+            Regra lida = Regra.ler(regra);
+            this.regras.add(lida);
+            reposicaoMaxima = Math.max(reposicaoMaxima, lida.toleranciaNanos + lida.intervaloNanos);
+        }
+        this.baldes = Caffeine.newBuilder()
+                .maximumSize(clientesMaximo)
+                .expireAfterAccess(Duration.ofNanos(reposicaoMaxima))
+                .build();
+        this.relogio = relogio;
+        this.recusadas = meterRegistry.counter("usuario.limite.recusadas", "motivo", "taxa");
+    }
+
+    public void verificar(String metodo, String rota, String cliente) {
+        Regra regra = this.regraPorRota.computeIfAbsent(metodo + ' ' + rota, chave -> procurar(metodo, rota)).orElse(null);
+        if (regra == null) {
+            return;
+        }
+        long espera = tentar(regra, cliente);
+        if (espera > 0) {
+            this.recusadas.increment();
+            throw new LimiteExcedidoException(EXCEDIDO, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(espera + 999_999_999L)));
+        }
+    }
+
+    // 0 se liberada; senão, nanos até o próximo token.
+    private long tentar(Regra regra, String cliente) {
+        long agora = this.relogio.getAsLong();
+        AtomicLong balde = this.baldes.get(regra.nome + ' ' + cliente, chave -> new AtomicLong(agora));
+        while (true) {
+            long prevista = balde.get();
+            // Em comparações de nanoTime vale a diferença, não o valor.
+            long base = prevista - agora > 0 ? prevista : agora;
+            long adiantamento = base - agora;
+            if (adiantamento > regra.toleranciaNanos) {
+                return adiantamento - regra.toleranciaNanos;
+            }
+            if (balde.compareAndSet(prevista, base + regra.intervaloNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    private Optional<Regra> procurar(String metodo, String rota) {
+        for (Regra regra : this.regras) {
+            if ((regra.metodo.equals("*") || regra.metodo.equalsIgnoreCase(metodo)) && this.rotas.match(regra.rota, rota)) {
+                return Optional.of(regra);
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static final class Regra {
+        private final String nome;
+        private final String metodo;
+        private final String rota;
+        // Um token a cada intervalo; a tolerância permite "rajada" requisições seguidas com o balde cheio.
+        private final long intervaloNanos;
+        private final long toleranciaNanos;
+
+        private Regra(String nome, String metodo, String rota, double porSegundo, int rajada) {
+            this.nome = nome;
+            this.metodo = metodo;
+            this.rota = rota;
+            this.intervaloNanos = (long) (TimeUnit.SECONDS.toNanos(1) / porSegundo);
+            this.toleranciaNanos = (rajada - 1) * this.intervaloNanos;
+        }
+
+        static Regra ler(String texto) {
+            String regra = texto.trim();
+            int igual = regra.lastIndexOf('=');
+            String[] alvo = igual < 0 ? new String[0] : regra.substring(0, igual).trim().split("\\s+");
+            String[] taxa = igual < 0 ? new String[0] : regra.substring(igual + 1).trim().split("/");
+            if (alvo.length != 2 || taxa.length != 2) {
+                throw new IllegalArgumentException("Regra de limite invalida: \"" + regra
+                        + "\" (esperado \"<metodo> <rota>=<por segundo>/<rajada>\")");
+            }
+            double porSegundo = Double.parseDouble(taxa[0]);
+            int rajada = Integer.parseInt(taxa[1]);
+            if (porSegundo <= 0 || rajada < 1) {
+                throw new IllegalArgumentException("Regra de limite invalida: \"" + regra + "\"");
+            }
+            return new Regra(regra, alvo[0], alvo[1], porSegundo, rajada);
+        }
+    }
+}
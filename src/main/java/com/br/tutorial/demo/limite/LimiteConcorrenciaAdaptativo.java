@@ -0,0 +1,148 @@
+package com.br.tutorial.demo.limite;
+
+import com.br.tutorial.demo.handler.entidadeHandler.ServicoIndisponivelException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+// Limite de requisições simultâneas ajustado pela latência (AIMD). A cada janela, se mais de 1% das requisições
+// atendidas passou do alvo (p99 acima do alvo), o limite cai 10%; se ficou abaixo e o limite chegou a ser todo usado,
+// sobe 1. Sem vaga, a requisição espera pouco numa fila curta e então é recusada com 503: o excesso sai rápido em
+// vez de alongar a fila do pool de conexões e a cauda de latência de todos.
+// Métricas: usuario.limite.recusadas{motivo=concorrencia}, usuario.limite.enfileiradas, usuario.limite.concorrencia
+// (limite atual), usuario.limite.concorrencia.em-andamento e usuario.limite.concorrencia.fila.
+public class LimiteConcorrenciaAdaptativo {
+    private static final ServicoIndisponivelException SOBRECARGA =
+            ServicoIndisponivelException.preAlocada("Servico sobrecarregado, tente novamente");
+
+    private final Vagas vagas;
+    private final AtomicInteger limite;
+    private final int limiteMinimo;
+    private final int limiteMaximo;
+    private final long alvoNanos;
+    private final long janelaNanos;
+    private final long amostrasMinimas;
+    private final int filaMaxima;
+    private final long esperaNanos;
+    private final LongSupplier relogio;
+    private final AtomicInteger emAndamento = new AtomicInteger();
+    private final AtomicInteger pico = new AtomicInteger();
+    private final AtomicInteger naFila = new AtomicInteger();
+    private final LongAdder atendidas = new LongAdder();
+    private final LongAdder lentas = new LongAdder();
+    private final AtomicLong fimJanela;
+    private final Counter recusadas;
+    private final Counter enfileiradas;
+
+    public LimiteConcorrenciaAdaptativo(MeterRegistry meterRegistry, int limiteInicial, int limiteMinimo,
+                                        int limiteMaximo, Duration alvoP99, Duration janela, long amostrasMinimas,
+                                        int filaMaxima, Duration espera, LongSupplier relogio) {
+        this.vagas = new Vagas(limiteInicial);
+        this.limite = new AtomicInteger(limiteInicial);
+        this.limiteMinimo = limiteMinimo;
+        this.limiteMaximo = limiteMaximo;
+        this.alvoNanos = alvoP99.toNanos();
+        this.janelaNanos = janela.toNanos();
+        this.amostrasMinimas = amostrasMinimas;
+        this.filaMaxima = filaMaxima;
+        this.esperaNanos = espera.toNanos();
+        this.relogio = relogio;
+        this.fimJanela = new AtomicLong(relogio.getAsLong() + this.janelaNanos);
+        this.recusadas = meterRegistry.counter("usuario.limite.recusadas", "motivo", "concorrencia");
+        this.enfileiradas = meterRegistry.counter("usuario.limite.enfileiradas");
+        meterRegistry.gauge("usuario.limite.concorrencia", this.limite);
+        meterRegistry.gauge("usuario.limite.concorrencia.em-andamento", this.emAndamento);
+        meterRegistry.gauge("usuario.limite.concorrencia.fila", this.naFila);
+    }
+
+    // Devolve o instante de entrada, a informar em sair().
+    public long entrar() {
+        if (!this.vagas.tryAcquire()) {
+            if (this.naFila.incrementAndGet() > this.filaMaxima) {
+                this.naFila.decrementAndGet();
+                this.recusadas.increment();
+                throw SOBRECARGA;
+            }
+            this.enfileiradas.increment();
+            try {
+                if (!this.vagas.tryAcquire(this.esperaNanos, TimeUnit.NANOSECONDS)) {
+                    this.recusadas.increment();
+                    throw SOBRECARGA;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.recusadas.increment();
+                throw SOBRECARGA;
+            } finally {
+                this.naFila.decrementAndGet();
+            }
+        }
+        this.pico.accumulateAndGet(this.emAndamento.incrementAndGet(), Math::max);
+        // A espera na fila fica fora da latência medida: o ajuste olha só o tempo de atendimento.
+        return this.relogio.getAsLong();
+    }
+
+    public void sair(long entrada) {
+        long agora = this.relogio.getAsLong();
+        this.emAndamento.decrementAndGet();
+        this.vagas.release();
+        this.atendidas.increment();
+        if (agora - entrada > this.alvoNanos) {
+            this.lentas.increment();
+        }
+        long fim = this.fimJanela.get();
+        // Uma única thread fecha cada janela.
+        if (agora - fim >= 0 && this.fimJanela.compareAndSet(fim, agora + this.janelaNanos)) {
+            ajustar();
+        }
+    }
+
+    public int getLimite() {
+        return this.limite.get();
+    }
+
+    private synchronized void ajustar() {
+        long total = this.atendidas.sum();
+        // Poucas amostras não dizem nada sobre o p99: a contagem segue acumulando para a próxima janela.
+        if (total < this.amostrasMinimas) {
+            return;
+        }
+        long acimaDoAlvo = this.lentas.sumThenReset();
+        this.atendidas.add(-total);
+        int atual = this.limite.get();
+        boolean usado = this.pico.getAndSet(this.emAndamento.get()) >= atual;
+
+        int novo = atual;
+        if (acimaDoAlvo * 100 > total) {
+            novo = Math.max(this.limiteMinimo, (int) (atual * 0.9));
+        } else if (usado) {
+            novo = Math.min(this.limiteMaximo, atual + 1);
+        }
+        if (novo > atual) {
+            this.vagas.release(novo - atual);
+        } else if (novo < atual) {
+            // As vagas em uso voltam normalmente; o saldo fica negativo até as saídas cobrirem a redução.
+            this.vagas.reduzir(atual - novo);
+        }
+        this.limite.set(novo);
+    }
+
+    private static final class Vagas extends Semaphore {
+        private static final long serialVersionUID = 1L;
+
+        private Vagas(int vagas) {
+            super(vagas);
+        }
+
+        private void reduzir(int quantidade) {
+            reducePermits(quantidade);
+        }
+    }
+}
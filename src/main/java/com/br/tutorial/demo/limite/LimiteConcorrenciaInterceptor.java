@@ -0,0 +1,51 @@
+package com.br.tutorial.demo.limite;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Set;
+
+// Ocupa uma vaga do LimiteConcorrenciaAdaptativo durante a requisição. Numa resposta assíncrona, o afterCompletion
+// só vem no despacho final; a vaga fica presa à requisição até lá.
+// Handlers que só produzem tipos de stream (NDJSON, CBOR sequence, SSE) ficam de fora: a rota "/" é a mesma da
+// listagem em JSON, então a exclusão é pelo tipo produzido e não pelo caminho.
+public class LimiteConcorrenciaInterceptor implements HandlerInterceptor {
+    private static final String ENTRADA = LimiteConcorrenciaInterceptor.class.getName() + ".entrada";
+
+    private final LimiteConcorrenciaAdaptativo limiteConcorrencia;
+    private final Set<MediaType> tiposForaDoLimite;
+
+    public LimiteConcorrenciaInterceptor(LimiteConcorrenciaAdaptativo limiteConcorrencia,
+                                         Set<MediaType> tiposForaDoLimite) {
+        this.limiteConcorrencia = limiteConcorrencia;
+        this.tiposForaDoLimite = tiposForaDoLimite;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.REQUEST && !foraDoLimite(request)) {
+            request.setAttribute(ENTRADA, this.limiteConcorrencia.entrar());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        Object entrada = request.getAttribute(ENTRADA);
+        if (entrada != null) {
+            request.removeAttribute(ENTRADA);
+            this.limiteConcorrencia.sair((Long) entrada);
+        }
+    }
+
+    // Tipos que o handler escolhido declara em "produces", expostos pelo mapeamento antes dos interceptors.
+    private boolean foraDoLimite(HttpServletRequest request) {
+        return request.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE) instanceof Set<?> produzidos
+                && !produzidos.isEmpty() && this.tiposForaDoLimite.containsAll(produzidos);
+    }
+}
@@ -0,0 +1,40 @@
+package com.br.tutorial.demo.limite;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Set;
+
+// Aplica o LimitadorTaxa por cliente: a chave de API, se estiver entre as configuradas, ou o IP de origem. Uma chave
+// desconhecida é ignorada, senão bastaria inventar uma chave nova a cada requisição para escapar do limite do IP.
+// Atrás de um proxy, o IP real vem do X-Forwarded-For com server.forward-headers-strategy=native.
+public class LimiteTaxaInterceptor implements HandlerInterceptor {
+    public static final String CABECALHO_CHAVE = "X-API-Key";
+
+    private final LimitadorTaxa limitadorTaxa;
+    private final Set<String> chavesConhecidas;
+
+    public LimiteTaxaInterceptor(LimitadorTaxa limitadorTaxa, Set<String> chavesConhecidas) {
+        this.limitadorTaxa = limitadorTaxa;
+        this.chavesConhecidas = chavesConhecidas;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Só no despacho original: o retorno de uma resposta assíncrona (DeferredResult, Mono) não conta de novo.
+        if (request.getDispatcherType() != DispatcherType.REQUEST) {
+            return true;
+        }
+        Object rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        this.limitadorTaxa.verificar(request.getMethod(), rota == null ? "/**" : rota.toString(), cliente(request));
+        return true;
+    }
+
+    private String cliente(HttpServletRequest request) {
+        String chave = request.getHeader(CABECALHO_CHAVE);
+        return chave != null && this.chavesConhecidas.contains(chave) ? "chave:" + chave : "ip:" + request.getRemoteAddr();
+    }
+}
@@ -0,0 +1,23 @@
+package com.br.tutorial.demo.mapper;
+
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public interface UsuarioMapper {
+
+    Usuario paraEntidade(UsuarioRequestDTO usuarioRequestDTO);
+
+    UsuarioResponseDTO paraResponseDTO(Usuario usuario);
+
+    default List<UsuarioResponseDTO> paraResponseDTOs(List<Usuario> usuarios) {
+        List<UsuarioResponseDTO> usuarioResponseDTOS = new ArrayList<>(usuarios.size());
+        for (Usuario usuario : usuarios) {
+            usuarioResponseDTOS.add(paraResponseDTO(usuario));
+        }
+        return usuarioResponseDTOS;
+    }
+}
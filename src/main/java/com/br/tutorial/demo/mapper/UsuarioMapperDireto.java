@@ -0,0 +1,40 @@
+package com.br.tutorial.demo.mapper;
+
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// Mapeamento padrão: copia os campos diretamente, sem reflexão por chamada.
+@Component
+@Profile("!modelmapper")
+public class UsuarioMapperDireto implements UsuarioMapper {
+
+    // A versão nunca vem do cliente para a entidade: ela é controlada pelo @Version do banco.
+    @Override
+    public Usuario paraEntidade(UsuarioRequestDTO usuarioRequestDTO) {
+        if (usuarioRequestDTO == null) {
+            return null;
+        }
+        Usuario usuario = new Usuario();
+        usuario.setId(usuarioRequestDTO.getId());
+        usuario.setNome(usuarioRequestDTO.getNome());
+        usuario.setCodigo(usuarioRequestDTO.getCodigo());
+        return usuario;
+    }
+
+    @Override
+    public UsuarioResponseDTO paraResponseDTO(Usuario usuario) {
+        if (usuario == null) {
+            return null;
+        }
+        UsuarioResponseDTO usuarioResponseDTO = new UsuarioResponseDTO();
+        usuarioResponseDTO.setId(usuario.getId());
+        usuarioResponseDTO.setNome(usuario.getNome());
+        usuarioResponseDTO.setCodigo(usuario.getCodigo());
+        usuarioResponseDTO.setVersao(usuario.getVersao());
+        usuarioResponseDTO.setAtualizadoEm(usuario.getAtualizadoEm());
+        return usuarioResponseDTO;
+    }
+}
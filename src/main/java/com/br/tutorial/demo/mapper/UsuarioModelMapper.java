@@ -0,0 +1,29 @@
+package com.br.tutorial.demo.mapper;
+
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import org.modelmapper.ModelMapper;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// Mapeamento reflexivo original, ativado com o profile "modelmapper" para comparação.
+@Component
+@Profile("modelmapper")
+public class UsuarioModelMapper implements UsuarioMapper {
+    private final ModelMapper modelMapper;
+
+    public UsuarioModelMapper(ModelMapper modelMapper) {
+        this.modelMapper = modelMapper;
+    }
+
+    @Override
+    public Usuario paraEntidade(UsuarioRequestDTO usuarioRequestDTO) {
+        return this.modelMapper.map(usuarioRequestDTO, Usuario.class);
+    }
+
+    @Override
+    public UsuarioResponseDTO paraResponseDTO(Usuario usuario) {
+        return this.modelMapper.map(usuario, UsuarioResponseDTO.class);
+    }
+}
@@ -0,0 +1,28 @@
+package com.br.tutorial.demo.metricas;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Conta os comandos SQL preparados pelo Hibernate na thread da requisição atual.
+// Só conta entre iniciar() e encerrar(); fora de uma requisição o custo é uma leitura de ThreadLocal.
+public class ContadorSql implements StatementInspector {
+    private static final ThreadLocal<int[]> CONTAGEM = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] contagem = CONTAGEM.get();
+        if (contagem != null) {
+            contagem[0]++;
+        }
+        return sql;
+    }
+
+    public static void iniciar() {
+        CONTAGEM.set(new int[1]);
+    }
+
+    public static int encerrar() {
+        int[] contagem = CONTAGEM.get();
+        CONTAGEM.remove();
+        return contagem == null ? 0 : contagem[0];
+    }
+}
@@ -0,0 +1,49 @@
+package com.br.tutorial.demo.metricas;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Registra quantos comandos SQL cada requisição executou, por método HTTP e rota.
+// Em respostas assíncronas a thread do Tomcat é liberada antes do afterCompletion: a contagem
+// parcial vai para um atributo da requisição e é somada no despacho assíncrono que a conclui.
+public class MetricasRequisicaoInterceptor implements AsyncHandlerInterceptor {
+    private static final String ATRIBUTO_COMANDOS = MetricasRequisicaoInterceptor.class.getName() + ".comandos";
+
+    private final MeterRegistry meterRegistry;
+
+    public MetricasRequisicaoInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ContadorSql.iniciar();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response,
+                                               Object handler) {
+        request.setAttribute(ATRIBUTO_COMANDOS, ContadorSql.encerrar());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        int comandos = ContadorSql.encerrar();
+        if (request.getAttribute(ATRIBUTO_COMANDOS) instanceof Integer anteriores) {
+            comandos += anteriores;
+        }
+        Object rota = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        DistributionSummary.builder("usuario.requisicao.sql")
+                .description("Comandos SQL executados pelo Hibernate por requisição")
+                .tag("method", request.getMethod())
+                .tag("uri", rota == null ? "UNKNOWN" : rota.toString())
+                .register(this.meterRegistry)
+                .record(comandos);
+    }
+}
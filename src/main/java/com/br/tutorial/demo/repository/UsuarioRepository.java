@@ -1,9 +1,18 @@
 package com.br.tutorial.demo.repository;
 
 import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 
@@ -11,5 +20,41 @@ import java.util.Optional;
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
   Optional<Usuario> findByNome(String nome);
 
+  // Leituras projetadas direto no DTO de resposta: nenhuma entidade entra no contexto de persistência
+  // e a transação somente leitura não faz flush.
+  @Transactional(readOnly = true)
+  @Query("select new com.br.tutorial.demo.response.UsuarioResponseDTO(u.id, u.nome, u.codigo, u.versao, u.atualizadoEm) "
+          + "from Usuario u where u.id = :id")
+  Optional<UsuarioResponseDTO> buscarProjetadoPorId(@Param("id") Long id);
+
+  // Paginação por cursor (keyset): usa a chave primária, sem OFFSET nem COUNT.
+  @Transactional(readOnly = true)
+  @Query("select new com.br.tutorial.demo.response.UsuarioResponseDTO(u.id, u.nome, u.codigo, u.versao, u.atualizadoEm) "
+          + "from Usuario u where u.id > :aposId order by u.id")
+  List<UsuarioResponseDTO> buscarPaginaProjetada(@Param("aposId") Long aposId, Pageable pageable);
+
+  @Query("select u.versao from Usuario u where u.id = :id")
+  Optional<Long> buscarVersao(@Param("id") Long id);
+
+  // UPDATE único condicionado à versão: 0 linhas afetadas indica usuário inexistente ou já alterado por outra requisição.
+  @Transactional
+  @Modifying
+  @Query("update Usuario u set u.nome = :nome, u.codigo = :codigo, u.versao = u.versao + 1, "
+          + "u.atualizadoEm = :atualizadoEm where u.id = :id and u.versao = :versao")
+  int atualizarSeVersao(@Param("id") Long id, @Param("nome") String nome, @Param("codigo") String codigo,
+                        @Param("versao") Long versao, @Param("atualizadoEm") Instant atualizadoEm);
+
+  @Query("select u.id from Usuario u where u.id in :ids")
+  List<Long> buscarIdsExistentes(@Param("ids") Collection<Long> ids);
+
+  // DELETE direto pela chave: o número de linhas afetadas indica se o usuário existia.
+  @Transactional
+  @Modifying
+  @Query("delete from Usuario u where u.id = :id")
+  int deletarPorId(@Param("id") Long id);
+
+  // Próximo bloco de ids cujo codigo começa com o prefixo, em ordem de id a partir do cursor.
+  @Query("select u.id from Usuario u where u.codigo like :padrao escape '\\' and u.id > :aposId order by u.id")
+  List<Long> buscarIdsPorPadraoCodigo(@Param("padrao") String padrao, @Param("aposId") Long aposId, Pageable pageable);
 
 }
@@ -12,6 +12,8 @@ public class UsuarioRequestDTO implements Serializable {
     @NotNull(message = "nome obrigatorio")
     private String nome;
     private String codigo;
+    // Versão conhecida pelo cliente; se informada, o update só é aplicado se ainda for a versão atual.
+    private Long versao;
 
     public Long getId() {
         return id;
@@ -36,4 +38,12 @@ public class UsuarioRequestDTO implements Serializable {
     public void setCodigo(String codigo) {
         this.codigo = codigo;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
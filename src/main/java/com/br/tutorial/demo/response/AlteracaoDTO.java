@@ -0,0 +1,70 @@
+package com.br.tutorial.demo.response;
+
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+// Uma entrada do log de alterações: o offset é a posição no log e nunca se repete.
+public class AlteracaoDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private long offset;
+    private UsuarioEvento.Tipo tipo;
+    private Long id;
+    // Estado após a alteração; ausente na remoção.
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private UsuarioResponseDTO usuario;
+    private Instant momento;
+
+    public AlteracaoDTO() {
+    }
+
+    public AlteracaoDTO(long offset, UsuarioEvento.Tipo tipo, Long id, UsuarioResponseDTO usuario, Instant momento) {
+        this.offset = offset;
+        this.tipo = tipo;
+        this.id = id;
+        this.usuario = usuario;
+        this.momento = momento;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    public UsuarioEvento.Tipo getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(UsuarioEvento.Tipo tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UsuarioResponseDTO getUsuario() {
+        return usuario;
+    }
+
+    public void setUsuario(UsuarioResponseDTO usuario) {
+        this.usuario = usuario;
+    }
+
+    public Instant getMomento() {
+        return momento;
+    }
+
+    public void setMomento(Instant momento) {
+        this.momento = momento;
+    }
+}
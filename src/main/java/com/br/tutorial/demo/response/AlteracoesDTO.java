@@ -0,0 +1,35 @@
+package com.br.tutorial.demo.response;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class AlteracoesDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private List<AlteracaoDTO> alteracoes;
+    // Offset a informar em aPartirDe na próxima consulta.
+    private long proximoOffset;
+
+    public AlteracoesDTO() {
+    }
+
+    public AlteracoesDTO(List<AlteracaoDTO> alteracoes, long proximoOffset) {
+        this.alteracoes = alteracoes;
+        this.proximoOffset = proximoOffset;
+    }
+
+    public List<AlteracaoDTO> getAlteracoes() {
+        return alteracoes;
+    }
+
+    public void setAlteracoes(List<AlteracaoDTO> alteracoes) {
+        this.alteracoes = alteracoes;
+    }
+
+    public long getProximoOffset() {
+        return proximoOffset;
+    }
+
+    public void setProximoOffset(long proximoOffset) {
+        this.proximoOffset = proximoOffset;
+    }
+}
@@ -0,0 +1,55 @@
+package com.br.tutorial.demo.response;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class ImportacaoResultadoDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private long lidos;
+    private long gravados;
+    private long recusados;
+    // Apenas os primeiros erros; o índice é a posição do registro no arquivo (começando em 0, sem o cabeçalho).
+    private List<ResultadoLoteDTO> erros;
+
+    public ImportacaoResultadoDTO() {
+    }
+
+    public ImportacaoResultadoDTO(long lidos, long gravados, long recusados, List<ResultadoLoteDTO> erros) {
+        this.lidos = lidos;
+        this.gravados = gravados;
+        this.recusados = recusados;
+        this.erros = erros;
+    }
+
+    public long getLidos() {
+        return lidos;
+    }
+
+    public void setLidos(long lidos) {
+        this.lidos = lidos;
+    }
+
+    public long getGravados() {
+        return gravados;
+    }
+
+    public void setGravados(long gravados) {
+        this.gravados = gravados;
+    }
+
+    public long getRecusados() {
+        return recusados;
+    }
+
+    public void setRecusados(long recusados) {
+        this.recusados = recusados;
+    }
+
+    public List<ResultadoLoteDTO> getErros() {
+        return erros;
+    }
+
+    public void setErros(List<ResultadoLoteDTO> erros) {
+        this.erros = erros;
+    }
+}
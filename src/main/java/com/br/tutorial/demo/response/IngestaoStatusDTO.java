@@ -0,0 +1,58 @@
+package com.br.tutorial.demo.response;
+
+import java.io.Serializable;
+
+public class IngestaoStatusDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    public enum Situacao { PENDENTE, CONCLUIDO, ERRO }
+
+    private String rastreio;
+    private Situacao situacao;
+    // Id do usuário criado, quando CONCLUIDO.
+    private Long id;
+    // Motivo da recusa, quando ERRO.
+    private String mensagem;
+
+    public IngestaoStatusDTO() {
+    }
+
+    public IngestaoStatusDTO(String rastreio, Situacao situacao, Long id, String mensagem) {
+        this.rastreio = rastreio;
+        this.situacao = situacao;
+        this.id = id;
+        this.mensagem = mensagem;
+    }
+
+    public String getRastreio() {
+        return rastreio;
+    }
+
+    public void setRastreio(String rastreio) {
+        this.rastreio = rastreio;
+    }
+
+    public Situacao getSituacao() {
+        return situacao;
+    }
+
+    public void setSituacao(Situacao situacao) {
+        this.situacao = situacao;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
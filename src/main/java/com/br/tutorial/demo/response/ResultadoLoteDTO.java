@@ -0,0 +1,62 @@
+package com.br.tutorial.demo.response;
+
+import java.io.Serializable;
+
+public class ResultadoLoteDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    // Posição do item no array enviado na requisição.
+    private int indice;
+    private Long id;
+    private boolean sucesso;
+    private String mensagem;
+
+    public ResultadoLoteDTO() {
+    }
+
+    public ResultadoLoteDTO(int indice, Long id, boolean sucesso, String mensagem) {
+        this.indice = indice;
+        this.id = id;
+        this.sucesso = sucesso;
+        this.mensagem = mensagem;
+    }
+
+    public static ResultadoLoteDTO sucesso(int indice, Long id) {
+        return new ResultadoLoteDTO(indice, id, true, null);
+    }
+
+    public static ResultadoLoteDTO erro(int indice, Long id, String mensagem) {
+        return new ResultadoLoteDTO(indice, id, false, mensagem);
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public boolean isSucesso() {
+        return sucesso;
+    }
+
+    public void setSucesso(boolean sucesso) {
+        this.sucesso = sucesso;
+    }
+
+    public String getMensagem() {
+        return mensagem;
+    }
+
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+}
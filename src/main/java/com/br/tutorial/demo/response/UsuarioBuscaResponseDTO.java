@@ -0,0 +1,36 @@
+package com.br.tutorial.demo.response;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class UsuarioBuscaResponseDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    // Do mais relevante para o menos relevante.
+    private List<UsuarioResponseDTO> usuarios;
+    // Falso quando o orçamento de tempo acabou ou o índice ainda está sendo carregado.
+    private boolean completo;
+
+    public UsuarioBuscaResponseDTO() {
+    }
+
+    public UsuarioBuscaResponseDTO(List<UsuarioResponseDTO> usuarios, boolean completo) {
+        this.usuarios = usuarios;
+        this.completo = completo;
+    }
+
+    public List<UsuarioResponseDTO> getUsuarios() {
+        return usuarios;
+    }
+
+    public void setUsuarios(List<UsuarioResponseDTO> usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    public boolean isCompleto() {
+        return completo;
+    }
+
+    public void setCompleto(boolean completo) {
+        this.completo = completo;
+    }
+}
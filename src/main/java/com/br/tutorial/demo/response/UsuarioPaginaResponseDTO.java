@@ -0,0 +1,35 @@
+package com.br.tutorial.demo.response;
+
+import java.io.Serializable;
+import java.util.List;
+
+public class UsuarioPaginaResponseDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private List<UsuarioResponseDTO> usuarios;
+    // Id do último usuário da página; nulo quando não há mais páginas.
+    private Long proximoCursor;
+
+    public UsuarioPaginaResponseDTO() {
+    }
+
+    public UsuarioPaginaResponseDTO(List<UsuarioResponseDTO> usuarios, Long proximoCursor) {
+        this.usuarios = usuarios;
+        this.proximoCursor = proximoCursor;
+    }
+
+    public List<UsuarioResponseDTO> getUsuarios() {
+        return usuarios;
+    }
+
+    public void setUsuarios(List<UsuarioResponseDTO> usuarios) {
+        this.usuarios = usuarios;
+    }
+
+    public Long getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(Long proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+}
@@ -1,12 +1,31 @@
 package com.br.tutorial.demo.response;
 
 import java.io.Serializable;
+import java.time.Instant;
 
 public class UsuarioResponseDTO implements Serializable {
     private static final long serialVersionUID = 1L;
     private Long id;
     private String nome;
     private String codigo;
+    private Long versao;
+    private Instant atualizadoEm;
+
+    public UsuarioResponseDTO() {
+    }
+
+    public UsuarioResponseDTO(Long id, String nome, String codigo, Long versao) {
+        this.id = id;
+        this.nome = nome;
+        this.codigo = codigo;
+        this.versao = versao;
+    }
+
+    // Usado pelas consultas com "select new": a linha vira o DTO sem passar por uma entidade.
+    public UsuarioResponseDTO(Long id, String nome, String codigo, Long versao, Instant atualizadoEm) {
+        this(id, nome, codigo, versao);
+        this.atualizadoEm = atualizadoEm;
+    }
 
     public Long getId() {
         return id;
@@ -31,4 +50,20 @@ public class UsuarioResponseDTO implements Serializable {
     public void setCodigo(String codigo) {
         this.codigo = codigo;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public Instant getAtualizadoEm() {
+        return atualizadoEm;
+    }
+
+    public void setAtualizadoEm(Instant atualizadoEm) {
+        this.atualizadoEm = atualizadoEm;
+    }
 }
@@ -0,0 +1,235 @@
+package com.br.tutorial.demo.service;
+
+import com.br.tutorial.demo.alteracoes.LogAlteracoes;
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.handler.entidadeHandler.ConflitoException;
+import com.br.tutorial.demo.response.AlteracaoDTO;
+import com.br.tutorial.demo.response.AlteracoesDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Feed de alterações para quem mantém cópias dos usuários: cada UsuarioEvento (service, lotes, importação, ingestão,
+// API reativa) entra no LogAlteracoes, e o consumidor continua do último offset que recebeu, por long-poll ou SSE.
+// Para começar do zero: guardar o proximoOffset atual, carregar os usuários pelo GET / e seguir o feed a partir dele.
+@Service
+public class UsuarioAlteracoesService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(UsuarioAlteracoesService.class);
+	private static final ConflitoException OFFSET_INDISPONIVEL = ConflitoException.preAlocada(
+			"Offset fora do log de alteracoes, recarregue os usuarios e siga a partir do proximoOffset atual");
+
+	private final LogAlteracoes log;
+	// Entregas e compactação numa única thread: a gravação do usuário não espera por consumidores, e cada assinante
+	// recebe as alterações em ordem.
+	private final ExecutorService notificacao = Executors.newSingleThreadExecutor(tarefa -> {
+		Thread thread = new Thread(tarefa, "alteracoes-notificacao");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final AtomicBoolean notificacaoAgendada = new AtomicBoolean();
+	private final Queue<Espera> esperas = new ConcurrentLinkedQueue<>();
+	private final List<Assinatura> assinaturas = new CopyOnWriteArrayList<>();
+	private final int limiteMaximo;
+	private final long esperaMaximaMillis;
+	private final long duracaoAssinaturaMillis;
+
+	public UsuarioAlteracoesService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+									@Value("${usuario.alteracoes.arquivo:}") String arquivo,
+									@Value("${usuario.alteracoes.retencao-remocoes:7d}") Duration retencaoRemocoes,
+									@Value("${usuario.alteracoes.compactacao-minima:100000}") int compactacaoMinima,
+									@Value("${usuario.alteracoes.limite-maximo:1000}") int limiteMaximo,
+									@Value("${usuario.alteracoes.espera-maxima:30s}") Duration esperaMaxima,
+									@Value("${usuario.alteracoes.duracao-assinatura:30m}") Duration duracaoAssinatura) {
+		this.log = new LogAlteracoes(arquivo.isBlank() ? null : Path.of(arquivo), objectMapper, retencaoRemocoes,
+				compactacaoMinima);
+		this.limiteMaximo = limiteMaximo;
+		this.esperaMaximaMillis = esperaMaxima.toMillis();
+		this.duracaoAssinaturaMillis = duracaoAssinatura.toMillis();
+		meterRegistry.gauge("usuario.alteracoes.registros", this.log, LogAlteracoes::tamanho);
+		meterRegistry.gauge("usuario.alteracoes.assinaturas", this.assinaturas, List::size);
+		meterRegistry.gauge("usuario.alteracoes.esperas", this.esperas, Queue::size);
+	}
+
+	@PostConstruct
+	public void iniciar() throws IOException {
+		this.log.abrir();
+	}
+
+	// Depois do commit, como as demais cópias derivadas: só entra no log o que já pode ser lido no banco.
+	@TransactionalEventListener(fallbackExecution = true)
+	public void aoAlterarUsuario(UsuarioEvento evento) {
+		try {
+			if (this.log.registrar(evento, Instant.now()) != null) {
+				agendarNotificacao();
+			}
+		} catch (IOException e) {
+			// O usuário já foi gravado: a falha do log não desfaz a operação de quem publicou o evento.
+			LOGGER.error("Falha ao registrar a alteracao do usuario {} no log", evento.getId(), e);
+		}
+	}
+
+	// Long-poll: responde assim que houver alteração a partir do offset, ou vazio ao fim da espera.
+	public DeferredResult<AlteracoesDTO> aguardar(Long aPartirDe, int limite, Duration espera) {
+		long offset = offsetValido(aPartirDe);
+		int limiteValido = limiteValido(limite);
+		long esperaMillis = Math.min(espera.toMillis(), this.esperaMaximaMillis);
+		if (esperaMillis <= 0) {
+			DeferredResult<AlteracoesDTO> imediato = new DeferredResult<>();
+			imediato.setResult(this.log.ler(offset, limiteValido));
+			return imediato;
+		}
+
+		DeferredResult<AlteracoesDTO> resultado = new DeferredResult<>(esperaMillis, () -> this.log.ler(offset, limiteValido));
+		Espera pendente = new Espera(offset, limiteValido, resultado);
+		resultado.onCompletion(() -> this.esperas.remove(pendente));
+		// Entra na fila antes de olhar o log: uma alteração registrada entre as duas etapas não fica sem resposta.
+		this.esperas.add(pendente);
+		if (this.log.getProximoOffset() > offset) {
+			resultado.setResult(this.log.ler(offset, limiteValido));
+		}
+		return resultado;
+	}
+
+	// SSE: cada alteração vira um evento com id = offset; ao reconectar, o Last-Event-ID indica de onde continuar.
+	public SseEmitter assinar(Long aPartirDe) {
+		Assinatura assinatura = new Assinatura(new SseEmitter(this.duracaoAssinaturaMillis), offsetValido(aPartirDe));
+		assinatura.emissor.onCompletion(() -> this.assinaturas.remove(assinatura));
+		assinatura.emissor.onTimeout(assinatura.emissor::complete);
+		this.assinaturas.add(assinatura);
+		// O que já está no log a partir do offset sai pela thread de notificação, antes das alterações seguintes.
+		agendarNotificacao();
+		return assinatura.emissor;
+	}
+
+	private long offsetValido(Long aPartirDe) {
+		long proximo = this.log.getProximoOffset();
+		if (aPartirDe == null) {
+			return proximo;
+		}
+		// Antes do início, remoções já saíram do log; depois do próximo, o offset não foi gerado por este log.
+		if (aPartirDe < this.log.getInicio() || aPartirDe > proximo) {
+			throw OFFSET_INDISPONIVEL;
+		}
+		return aPartirDe;
+	}
+
+	private int limiteValido(int limite) {
+		return Math.max(1, Math.min(limite, this.limiteMaximo));
+	}
+
+	// Várias alterações seguidas geram uma só rodada de entregas.
+	private void agendarNotificacao() {
+		if (this.notificacaoAgendada.compareAndSet(false, true) && !this.notificacao.isShutdown()) {
+			this.notificacao.execute(this::notificar);
+		}
+	}
+
+	private void notificar() {
+		this.notificacaoAgendada.set(false);
+		long proximo = this.log.getProximoOffset();
+		for (Iterator<Espera> pendentes = this.esperas.iterator(); pendentes.hasNext(); ) {
+			Espera espera = pendentes.next();
+			if (espera.offset < proximo) {
+				pendentes.remove();
+				espera.resultado.setResult(this.log.ler(espera.offset, espera.limite));
+			}
+		}
+		for (Assinatura assinatura : this.assinaturas) {
+			enviar(assinatura);
+		}
+		if (this.log.precisaCompactar()) {
+			try {
+				this.log.compactar(Instant.now());
+			} catch (IOException e) {
+				LOGGER.error("Falha ao compactar o log de alteracoes", e);
+			}
+		}
+	}
+
+	private void enviar(Assinatura assinatura) {
+		try {
+			while (true) {
+				AlteracoesDTO pagina = this.log.ler(assinatura.proximo, this.limiteMaximo);
+				for (AlteracaoDTO alteracao : pagina.getAlteracoes()) {
+					assinatura.emissor.send(SseEmitter.event()
+							.id(Long.toString(alteracao.getOffset()))
+							.name(alteracao.getTipo().name())
+							.data(alteracao, MediaType.APPLICATION_JSON));
+				}
+				assinatura.proximo = pagina.getProximoOffset();
+				if (pagina.getAlteracoes().isEmpty()) {
+					return;
+				}
+			}
+		} catch (IOException | IllegalStateException e) {
+			// Cliente desconectado ou emissor já completado.
+			this.assinaturas.remove(assinatura);
+		}
+	}
+
+	// Antes do desligamento gracioso do Tomcat: conexões abertas de long-poll e SSE não seguram o encerramento.
+	@EventListener(ContextClosedEvent.class)
+	public void encerrarConexoes() {
+		for (Espera espera : this.esperas) {
+			espera.resultado.setResult(this.log.ler(espera.offset, espera.limite));
+		}
+		for (Assinatura assinatura : this.assinaturas) {
+			assinatura.emissor.complete();
+		}
+	}
+
+	@PreDestroy
+	public void encerrar() throws IOException, InterruptedException {
+		this.notificacao.shutdown();
+		this.notificacao.awaitTermination(5, TimeUnit.SECONDS);
+		this.log.close();
+	}
+
+	private static final class Espera {
+		private final long offset;
+		private final int limite;
+		private final DeferredResult<AlteracoesDTO> resultado;
+
+		private Espera(long offset, int limite, DeferredResult<AlteracoesDTO> resultado) {
+			this.offset = offset;
+			this.limite = limite;
+			this.resultado = resultado;
+		}
+	}
+
+	private static final class Assinatura {
+		private final SseEmitter emissor;
+		// Só a thread de notificação altera.
+		private volatile long proximo;
+
+		private Assinatura(SseEmitter emissor, long proximo) {
+			this.emissor = emissor;
+			this.proximo = proximo;
+		}
+	}
+}
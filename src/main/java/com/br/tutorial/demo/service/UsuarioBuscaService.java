@@ -0,0 +1,148 @@
+package com.br.tutorial.demo.service;
+
+import com.br.tutorial.demo.busca.IndiceUsuarios;
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.repository.UsuarioRepository;
+import com.br.tutorial.demo.response.UsuarioBuscaResponseDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Busca por prefixo em nome e codigo sobre o índice em memória. O índice acompanha os eventos de gravação
+// e remoção e é carregado do banco quando a aplicação fica pronta, com a indexação das páginas em paralelo.
+@Service
+public class UsuarioBuscaService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(UsuarioBuscaService.class);
+
+	private final IndiceUsuarios indice = new IndiceUsuarios();
+	// Ids removidos durante a carga inicial: a carga não pode reinserir um usuário lido antes da remoção.
+	private final Set<Long> removidosDuranteCarga = ConcurrentHashMap.newKeySet();
+	private final UsuarioRepository usuarioRepository;
+	private final long orcamentoNanos;
+	private final int limiteMaximo;
+	private final int tamanhoPaginaCarga;
+	private final int tentativasCarga;
+	private final Duration esperaCarga;
+	private volatile boolean carregado;
+
+	public UsuarioBuscaService(UsuarioRepository usuarioRepository,
+							   @Value("${usuario.busca.orcamento:1ms}") Duration orcamento,
+							   @Value("${usuario.busca.limite-maximo:50}") int limiteMaximo,
+							   @Value("${usuario.paginacao.lote-stream:500}") int tamanhoPaginaCarga,
+							   @Value("${usuario.busca.carga-tentativas:5}") int tentativasCarga,
+							   @Value("${usuario.busca.carga-espera:2s}") Duration esperaCarga) {
+		this.usuarioRepository = usuarioRepository;
+		this.orcamentoNanos = orcamento.toNanos();
+		this.limiteMaximo = limiteMaximo;
+		this.tamanhoPaginaCarga = tamanhoPaginaCarga;
+		this.tentativasCarga = tentativasCarga;
+		this.esperaCarga = esperaCarga;
+	}
+
+	@Timed("usuario.busca")
+	public UsuarioBuscaResponseDTO buscar(String consulta, int limite) {
+		int limiteEfetivo = Math.max(1, Math.min(limite, this.limiteMaximo));
+		IndiceUsuarios.Resultado resultado = this.indice.buscar(consulta, limiteEfetivo,
+				System.nanoTime() + this.orcamentoNanos);
+		return new UsuarioBuscaResponseDTO(resultado.getUsuarios(), resultado.isCompleto() && this.carregado);
+	}
+
+	// Depois do commit quando há transação; sem transação (UPDATE/DELETE diretos), logo após a gravação.
+	@TransactionalEventListener(fallbackExecution = true)
+	public void aoAlterarUsuario(UsuarioEvento evento) {
+		if (evento.getTipo() == UsuarioEvento.Tipo.REMOVIDO) {
+			if (!this.carregado) {
+				this.removidosDuranteCarga.add(evento.getId());
+			}
+			this.indice.remover(evento.getId());
+		} else {
+			this.indice.indexar(evento.getUsuario());
+		}
+	}
+
+	// A carga roda fora da thread principal para não atrasar o início do atendimento.
+	@EventListener(ApplicationReadyEvent.class)
+	public void carregarAoIniciar() {
+		Thread carga = new Thread(this::carregarComRetentativas, "indice-usuarios-carga");
+		carga.setDaemon(true);
+		carga.start();
+	}
+
+	// Uma falha na carga (banco fora do ar no início, por exemplo) não pode matar a thread em silêncio: a carga é
+	// refeita com espera dobrando a cada tentativa. Esgotadas as tentativas, o índice fica só com as alterações
+	// em tempo real e as buscas continuam respondendo com completo = false.
+	void carregarComRetentativas() {
+		long espera = this.esperaCarga.toMillis();
+		for (int tentativa = 1; tentativa <= this.tentativasCarga; tentativa++) {
+			try {
+				carregar();
+				return;
+			} catch (RuntimeException e) {
+				if (tentativa == this.tentativasCarga) {
+					LOGGER.error("Falha ao carregar o indice de busca apos {} tentativas; buscas seguem incompletas",
+							tentativa, e);
+					return;
+				}
+				LOGGER.warn("Falha ao carregar o indice de busca (tentativa {} de {}), nova tentativa em {} ms",
+						tentativa, this.tentativasCarga, espera, e);
+			}
+			try {
+				Thread.sleep(espera);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				LOGGER.error("Carga do indice de busca interrompida; buscas seguem incompletas");
+				return;
+			}
+			espera *= 2;
+		}
+	}
+
+	void carregar() {
+		long inicio = System.nanoTime();
+		// Uma thread lê as páginas por cursor; cada página é indexada no pool comum enquanto a próxima é lida.
+		List<CompletableFuture<Void>> paginas = new ArrayList<>();
+		List<UsuarioResponseDTO> pagina;
+		long cursor = 0L;
+		do {
+			pagina = this.usuarioRepository.buscarPaginaProjetada(cursor, PageRequest.of(0, this.tamanhoPaginaCarga));
+			if (!pagina.isEmpty()) {
+				cursor = pagina.get(pagina.size() - 1).getId();
+				List<UsuarioResponseDTO> lida = pagina;
+				paginas.add(CompletableFuture.runAsync(() -> indexarCarga(lida)));
+			}
+		} while (pagina.size() == this.tamanhoPaginaCarga);
+		CompletableFuture.allOf(paginas.toArray(CompletableFuture[]::new)).join();
+
+		this.carregado = true;
+		this.removidosDuranteCarga.clear();
+		LOGGER.info("Indice de busca carregado com {} usuarios em {} ms", this.indice.tamanho(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+	}
+
+	private void indexarCarga(List<UsuarioResponseDTO> usuarios) {
+		for (UsuarioResponseDTO usuario : usuarios) {
+			if (!this.removidosDuranteCarga.contains(usuario.getId())) {
+				this.indice.indexar(usuario);
+				// A remoção pode ter chegado entre a verificação e a inclusão.
+				if (this.removidosDuranteCarga.contains(usuario.getId())) {
+					this.indice.remover(usuario.getId());
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,228 @@
+package com.br.tutorial.demo.service;
+
+import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.handler.entidadeHandler.ServicoIndisponivelException;
+import com.br.tutorial.demo.ingestao.JournalIngestao;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.IngestaoStatusDTO;
+import com.br.tutorial.demo.response.ResultadoLoteDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Criação assíncrona (write-behind): o pedido é validado, registrado no journal local e enfileirado; o cliente
+// recebe um rastreio sem esperar o INSERT. Escritores agrupam os pedidos da fila em lotes do UsuarioLoteService.
+// A fila é limitada: sem vaga dentro do tempo de espera, o pedido é recusado com 503.
+@Service
+@Profile("ingestao & !shards")
+public class UsuarioIngestaoService {
+	private static final Logger LOGGER = LoggerFactory.getLogger(UsuarioIngestaoService.class);
+	// Recusas repetidas, sobretudo com a fila cheia: instâncias únicas, sem stack trace.
+	private static final BadRequestException NOME_OBRIGATORIO = BadRequestException.preAlocada("nome obrigatorio");
+	private static final BadRequestException RASTREIO_NAO_ENCONTRADO = BadRequestException.preAlocada("Rastreio não encontrado");
+	private static final ServicoIndisponivelException FILA_CHEIA =
+			ServicoIndisponivelException.preAlocada("Fila de ingestao cheia, tente novamente");
+
+	private final UsuarioLoteService usuarioLoteService;
+	private final ObjectMapper objectMapper;
+	private final JournalIngestao journal;
+	// A fila em si não tem limite: as vagas controlam os pedidos novos, e os reprocessados do journal sempre entram.
+	private final BlockingQueue<Pedido> fila = new LinkedBlockingQueue<>();
+	private final Semaphore vagas;
+	private final Cache<String, IngestaoStatusDTO> situacoes;
+	private final ExecutorService escritores;
+	private final int quantidadeEscritores;
+	private final int tamanhoLote;
+	private final long esperaVagaNanos;
+	private final Counter recusados;
+	private volatile boolean encerrando;
+
+	public UsuarioIngestaoService(UsuarioLoteService usuarioLoteService, ObjectMapper objectMapper,
+								  MeterRegistry meterRegistry,
+								  @Value("${usuario.ingestao.journal:dados/ingestao.journal}") Path arquivoJournal,
+								  @Value("${usuario.ingestao.journal-limite:64MB}") DataSize limiteJournal,
+								  @Value("${usuario.ingestao.capacidade-fila:10000}") int capacidadeFila,
+								  @Value("${usuario.ingestao.espera-vaga:100ms}") Duration esperaVaga,
+								  @Value("${usuario.ingestao.escritores:2}") int quantidadeEscritores,
+								  @Value("${usuario.ingestao.tamanho-lote:500}") int tamanhoLote,
+								  @Value("${usuario.ingestao.retencao-situacao:1h}") Duration retencaoSituacao) {
+		this.usuarioLoteService = usuarioLoteService;
+		this.objectMapper = objectMapper;
+		this.journal = new JournalIngestao(arquivoJournal, limiteJournal.toBytes());
+		this.vagas = new Semaphore(capacidadeFila);
+		this.situacoes = Caffeine.newBuilder()
+				.maximumSize(capacidadeFila * 10L)
+				.expireAfterWrite(retencaoSituacao)
+				.build();
+		this.quantidadeEscritores = quantidadeEscritores;
+		this.escritores = Executors.newFixedThreadPool(quantidadeEscritores, tarefa -> new Thread(tarefa, "ingestao-escritor"));
+		this.tamanhoLote = tamanhoLote;
+		this.esperaVagaNanos = esperaVaga.toNanos();
+		meterRegistry.gauge("usuario.ingestao.fila", this.fila, BlockingQueue::size);
+		this.recusados = meterRegistry.counter("usuario.ingestao.recusados");
+	}
+
+	@PostConstruct
+	public void iniciar() throws IOException {
+		// Pedidos aceitos antes de uma queda, e ainda não gravados, voltam para a fila.
+		List<JournalIngestao.Registro> pendentes = this.journal.abrir();
+		for (JournalIngestao.Registro registro : pendentes) {
+			UsuarioRequestDTO usuarioRequestDTO = this.objectMapper.readValue(registro.getConteudo(), UsuarioRequestDTO.class);
+			this.situacoes.put(registro.getRastreio(), pendente(registro.getRastreio()));
+			this.fila.add(new Pedido(registro.getRastreio(), usuarioRequestDTO, false));
+		}
+		if (!pendentes.isEmpty()) {
+			LOGGER.info("Reprocessando {} pedidos de ingestao do journal", pendentes.size());
+		}
+		for (int i = 0; i < this.quantidadeEscritores; i++) {
+			this.escritores.execute(this::escrever);
+		}
+	}
+
+	public IngestaoStatusDTO aceitar(UsuarioRequestDTO usuarioRequestDTO) {
+		if (usuarioRequestDTO.getNome() == null || usuarioRequestDTO.getNome().isBlank()) {
+			throw NOME_OBRIGATORIO;
+		}
+		if (this.encerrando || !obterVaga()) {
+			this.recusados.increment();
+			throw FILA_CHEIA;
+		}
+
+		String rastreio = UUID.randomUUID().toString();
+		try {
+			this.journal.registrarAceito(rastreio, this.objectMapper.writeValueAsString(usuarioRequestDTO));
+		} catch (IOException e) {
+			this.vagas.release();
+			throw new UncheckedIOException(e);
+		}
+		IngestaoStatusDTO situacao = pendente(rastreio);
+		this.situacoes.put(rastreio, situacao);
+		this.fila.add(new Pedido(rastreio, usuarioRequestDTO, true));
+		return situacao;
+	}
+
+	public IngestaoStatusDTO consultar(String rastreio) {
+		IngestaoStatusDTO situacao = this.situacoes.getIfPresent(rastreio);
+		if (situacao == null) {
+			throw RASTREIO_NAO_ENCONTRADO;
+		}
+		return situacao;
+	}
+
+	// Na parada da aplicação os escritores esvaziam a fila antes de terminar; o que não couber no prazo
+	// continua no journal e é gravado no próximo início.
+	@PreDestroy
+	public void encerrar() throws InterruptedException, IOException {
+		this.encerrando = true;
+		this.escritores.shutdown();
+		if (!this.escritores.awaitTermination(15, TimeUnit.SECONDS)) {
+			this.escritores.shutdownNow();
+		}
+		this.journal.close();
+	}
+
+	private boolean obterVaga() {
+		try {
+			return this.vagas.tryAcquire(this.esperaVagaNanos, TimeUnit.NANOSECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private void escrever() {
+		List<Pedido> lote = new ArrayList<>(this.tamanhoLote);
+		while (!(this.encerrando && this.fila.isEmpty()) && !Thread.currentThread().isInterrupted()) {
+			try {
+				Pedido primeiro = this.fila.poll(200, TimeUnit.MILLISECONDS);
+				if (primeiro == null) {
+					continue;
+				}
+				lote.add(primeiro);
+				this.fila.drainTo(lote, this.tamanhoLote - 1);
+				gravar(lote);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				lote.clear();
+			}
+		}
+	}
+
+	private void gravar(List<Pedido> lote) throws InterruptedException {
+		List<UsuarioRequestDTO> usuarios = new ArrayList<>(lote.size());
+		for (Pedido pedido : lote) {
+			usuarios.add(pedido.usuario);
+		}
+		List<ResultadoLoteDTO> resultados;
+		try {
+			resultados = this.usuarioLoteService.salvarLote(usuarios);
+		} catch (RuntimeException e) {
+			// Falha do banco, não dos dados: os pedidos voltam para a fila e seguem registrados no journal.
+			LOGGER.warn("Falha ao gravar lote de ingestao com {} pedidos; nova tentativa em 1s", lote.size(), e);
+			this.fila.addAll(lote);
+			TimeUnit.SECONDS.sleep(1);
+			return;
+		}
+
+		List<String> rastreios = new ArrayList<>(lote.size());
+		for (int i = 0; i < lote.size(); i++) {
+			Pedido pedido = lote.get(i);
+			ResultadoLoteDTO resultado = resultados.get(i);
+			this.situacoes.put(pedido.rastreio, resultado.isSucesso()
+					? new IngestaoStatusDTO(pedido.rastreio, IngestaoStatusDTO.Situacao.CONCLUIDO, resultado.getId(), null)
+					: new IngestaoStatusDTO(pedido.rastreio, IngestaoStatusDTO.Situacao.ERRO, null, resultado.getMensagem()));
+			rastreios.add(pedido.rastreio);
+			if (pedido.ocupaVaga) {
+				this.vagas.release();
+			}
+		}
+		try {
+			this.journal.registrarConcluidos(rastreios);
+		} catch (IOException e) {
+			// Sem a marca de conclusão, o próximo início tenta gravar de novo; os índices únicos recusam a repetição.
+			LOGGER.error("Falha ao registrar conclusao no journal de ingestao", e);
+		}
+	}
+
+	private static IngestaoStatusDTO pendente(String rastreio) {
+		return new IngestaoStatusDTO(rastreio, IngestaoStatusDTO.Situacao.PENDENTE, null, null);
+	}
+
+	private static final class Pedido {
+		private final String rastreio;
+		private final UsuarioRequestDTO usuario;
+		// Pedidos reprocessados do journal entram sem consumir vaga.
+		private final boolean ocupaVaga;
+
+		private Pedido(String rastreio, UsuarioRequestDTO usuario, boolean ocupaVaga) {
+			this.rastreio = rastreio;
+			this.usuario = usuario;
+			this.ocupaVaga = ocupaVaga;
+		}
+	}
+}
@@ -0,0 +1,324 @@
+package com.br.tutorial.demo.service;
+
+
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.mapper.UsuarioMapper;
+import com.br.tutorial.demo.repository.UsuarioRepository;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.ResultadoLoteDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Operações em lote: cada bloco de até "usuario.lote.tamanho-bloco" itens roda em uma transação própria,
+// com INSERT/UPDATE em batch JDBC. Se um bloco falhar por violação de unicidade, ele é refeito item a item
+// para que o resultado de cada posição seja informado individualmente.
+@Service
+@Timed("usuario.service")
+@Profile("!shards")
+public class UsuarioLoteService {
+	private static final String NOME_OBRIGATORIO = "nome obrigatorio";
+	private static final String ID_OBRIGATORIO = "id obrigatorio";
+	private static final String NAO_ENCONTRADO = "Usuario não encontrado";
+	private static final String REPETIDO_NO_LOTE = "Usuario repetido no lote";
+	private static final String CONFLITO = "Usuario foi alterado por outra requisicao";
+	private static final String PREFIXO_OBRIGATORIO = "prefixoCodigo obrigatorio";
+
+	private final UsuarioRepository usuarioRepository;
+	private final UsuarioMapper usuarioMapper;
+	private final TransactionTemplate transactionTemplate;
+	private final Cache cacheUsuarios;
+	private final ConsultaCoalescida<Long, UsuarioResponseDTO> consultasPorId;
+	private final ApplicationEventPublisher eventos;
+	private final int tamanhoBloco;
+
+	public UsuarioLoteService(UsuarioRepository usuarioRepository, UsuarioMapper usuarioMapper,
+							  PlatformTransactionManager transactionManager, CacheManager cacheManager,
+							  ConsultaCoalescida<Long, UsuarioResponseDTO> consultasPorId, ApplicationEventPublisher eventos,
+							  @Value("${usuario.lote.tamanho-bloco:500}") int tamanhoBloco) {
+		this.usuarioRepository = usuarioRepository;
+		this.usuarioMapper = usuarioMapper;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.cacheUsuarios = cacheManager.getCache(UsuarioService.CACHE_USUARIOS);
+		this.consultasPorId = consultasPorId;
+		this.eventos = eventos;
+		this.tamanhoBloco = tamanhoBloco;
+	}
+
+	public List<ResultadoLoteDTO> salvarLote(List<UsuarioRequestDTO> usuarioRequestDTOS) {
+		return salvarLote(usuarioRequestDTOS, 0);
+	}
+
+	// Para lotes que são parte de uma sequência maior (importação): os índices do resultado começam em "deslocamento".
+	public List<ResultadoLoteDTO> salvarLote(List<UsuarioRequestDTO> usuarioRequestDTOS, int deslocamento) {
+		List<ResultadoLoteDTO> resultados = new ArrayList<>(usuarioRequestDTOS.size());
+		for (int inicio = 0; inicio < usuarioRequestDTOS.size(); inicio += this.tamanhoBloco) {
+			List<UsuarioRequestDTO> bloco = usuarioRequestDTOS.subList(inicio,
+					Math.min(inicio + this.tamanhoBloco, usuarioRequestDTOS.size()));
+			resultados.addAll(salvarBloco(bloco, deslocamento + inicio));
+		}
+		return resultados;
+	}
+
+	public List<ResultadoLoteDTO> atualizarLote(List<UsuarioRequestDTO> usuarioRequestDTOS) {
+		List<ResultadoLoteDTO> resultados = new ArrayList<>(usuarioRequestDTOS.size());
+		for (int inicio = 0; inicio < usuarioRequestDTOS.size(); inicio += this.tamanhoBloco) {
+			List<UsuarioRequestDTO> bloco = usuarioRequestDTOS.subList(inicio,
+					Math.min(inicio + this.tamanhoBloco, usuarioRequestDTOS.size()));
+			resultados.addAll(atualizarBloco(bloco, inicio));
+		}
+		return resultados;
+	}
+
+	public List<ResultadoLoteDTO> deletarLote(List<Long> ids) {
+		List<ResultadoLoteDTO> resultados = new ArrayList<>(ids.size());
+		for (int inicio = 0; inicio < ids.size(); inicio += this.tamanhoBloco) {
+			List<Long> bloco = ids.subList(inicio, Math.min(inicio + this.tamanhoBloco, ids.size()));
+			resultados.addAll(deletarBloco(bloco, inicio));
+		}
+		return resultados;
+	}
+
+	// Remove todos os usuários cujo codigo começa com o prefixo. Cada bloco é um SELECT limitado dos ids e um
+	// DELETE ... WHERE id IN (...) em transação própria, para não segurar locks sobre a tabela inteira.
+	public long deletarPorPrefixoCodigo(String prefixoCodigo) {
+		if (prefixoCodigo == null || prefixoCodigo.isBlank()) {
+			throw new BadRequestException(PREFIXO_OBRIGATORIO);
+		}
+		String padrao = escaparLike(prefixoCodigo) + "%";
+		Pageable bloco = PageRequest.ofSize(this.tamanhoBloco);
+		long removidos = 0;
+		long aposId = 0;
+		List<Long> ids;
+		do {
+			long cursor = aposId;
+			ids = this.transactionTemplate.execute(status -> {
+				List<Long> encontrados = this.usuarioRepository.buscarIdsPorPadraoCodigo(padrao, cursor, bloco);
+				if (!encontrados.isEmpty()) {
+					this.usuarioRepository.deleteAllByIdInBatch(encontrados);
+				}
+				return encontrados;
+			});
+			for (Long id : ids) {
+				registrarRemocao(id);
+			}
+			removidos += ids.size();
+			if (!ids.isEmpty()) {
+				aposId = ids.get(ids.size() - 1);
+			}
+		} while (ids.size() == this.tamanhoBloco);
+		return removidos;
+	}
+
+	private List<ResultadoLoteDTO> salvarBloco(List<UsuarioRequestDTO> bloco, int deslocamento) {
+		ResultadoLoteDTO[] resultados = new ResultadoLoteDTO[bloco.size()];
+		List<Integer> validos = new ArrayList<>(bloco.size());
+		for (int i = 0; i < bloco.size(); i++) {
+			if (nomeAusente(bloco.get(i))) {
+				resultados[i] = ResultadoLoteDTO.erro(deslocamento + i, null, NOME_OBRIGATORIO);
+			} else {
+				validos.add(i);
+			}
+		}
+
+		try {
+			List<Usuario> salvos = this.transactionTemplate.execute(status -> {
+				List<Usuario> usuarios = new ArrayList<>(validos.size());
+				for (Integer i : validos) {
+					usuarios.add(this.usuarioMapper.paraEntidade(bloco.get(i)));
+				}
+				List<Usuario> persistidos = this.usuarioRepository.saveAll(usuarios);
+				this.usuarioRepository.flush();
+				return persistidos;
+			});
+			for (int j = 0; j < validos.size(); j++) {
+				int i = validos.get(j);
+				resultados[i] = registrarInclusao(salvos.get(j), deslocamento + i);
+			}
+		} catch (DataIntegrityViolationException e) {
+			// Algum item repetiu nome ou codigo: o bloco foi desfeito e cada item é gravado separadamente.
+			for (Integer i : validos) {
+				resultados[i] = salvarItem(bloco.get(i), deslocamento + i);
+			}
+		}
+		return Arrays.asList(resultados);
+	}
+
+	private ResultadoLoteDTO salvarItem(UsuarioRequestDTO usuarioRequestDTO, int indice) {
+		try {
+			Usuario usuario = this.transactionTemplate.execute(status ->
+					this.usuarioRepository.saveAndFlush(this.usuarioMapper.paraEntidade(usuarioRequestDTO)));
+			return registrarInclusao(usuario, indice);
+		} catch (DataIntegrityViolationException e) {
+			return ResultadoLoteDTO.erro(indice, null, mensagemDeViolacao(e));
+		}
+	}
+
+	private List<ResultadoLoteDTO> atualizarBloco(List<UsuarioRequestDTO> bloco, int deslocamento) {
+		ResultadoLoteDTO[] resultados = new ResultadoLoteDTO[bloco.size()];
+		List<Integer> validos = new ArrayList<>(bloco.size());
+		Set<Long> ids = new HashSet<>();
+		for (int i = 0; i < bloco.size(); i++) {
+			UsuarioRequestDTO usuarioRequestDTO = bloco.get(i);
+			if (usuarioRequestDTO.getId() == null) {
+				resultados[i] = ResultadoLoteDTO.erro(deslocamento + i, null, ID_OBRIGATORIO);
+			} else if (nomeAusente(usuarioRequestDTO)) {
+				resultados[i] = ResultadoLoteDTO.erro(deslocamento + i, usuarioRequestDTO.getId(), NOME_OBRIGATORIO);
+			} else if (!ids.add(usuarioRequestDTO.getId())) {
+				resultados[i] = ResultadoLoteDTO.erro(deslocamento + i, usuarioRequestDTO.getId(), REPETIDO_NO_LOTE);
+			} else {
+				validos.add(i);
+			}
+		}
+
+		Set<Integer> conflitos = new HashSet<>();
+		try {
+			List<Usuario> atualizados = this.transactionTemplate.execute(status -> {
+				conflitos.clear();
+				// Uma única consulta carrega o bloco; as alterações saem em UPDATEs agrupados no flush,
+				// cada um condicionado à versão carregada (@Version).
+				Map<Long, Usuario> existentes = this.usuarioRepository.findAllById(ids).stream()
+						.collect(Collectors.toMap(Usuario::getId, Function.identity()));
+				List<Usuario> alterados = new ArrayList<>(validos.size());
+				for (Integer i : validos) {
+					UsuarioRequestDTO usuarioRequestDTO = bloco.get(i);
+					Usuario usuario = existentes.get(usuarioRequestDTO.getId());
+					if (usuario != null && versaoDivergente(usuarioRequestDTO, usuario)) {
+						conflitos.add(i);
+					} else if (usuario != null) {
+						usuario.setNome(usuarioRequestDTO.getNome());
+						usuario.setCodigo(usuarioRequestDTO.getCodigo());
+					}
+					alterados.add(usuario);
+				}
+				this.usuarioRepository.flush();
+				return alterados;
+			});
+			for (int j = 0; j < validos.size(); j++) {
+				int i = validos.get(j);
+				resultados[i] = conflitos.contains(i)
+						? ResultadoLoteDTO.erro(deslocamento + i, bloco.get(i).getId(), CONFLITO)
+						: registrarAtualizacao(atualizados.get(j), bloco.get(i).getId(), deslocamento + i);
+			}
+		} catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+			for (Integer i : validos) {
+				resultados[i] = atualizarItem(bloco.get(i), deslocamento + i);
+			}
+		}
+		return Arrays.asList(resultados);
+	}
+
+	private ResultadoLoteDTO atualizarItem(UsuarioRequestDTO usuarioRequestDTO, int indice) {
+		try {
+			Usuario usuario = this.transactionTemplate.execute(status ->
+					this.usuarioRepository.findById(usuarioRequestDTO.getId()).map(existente -> {
+						if (versaoDivergente(usuarioRequestDTO, existente)) {
+							throw new ObjectOptimisticLockingFailureException(Usuario.class, existente.getId());
+						}
+						existente.setNome(usuarioRequestDTO.getNome());
+						existente.setCodigo(usuarioRequestDTO.getCodigo());
+						return this.usuarioRepository.saveAndFlush(existente);
+					}).orElse(null));
+			return registrarAtualizacao(usuario, usuarioRequestDTO.getId(), indice);
+		} catch (DataIntegrityViolationException e) {
+			return ResultadoLoteDTO.erro(indice, usuarioRequestDTO.getId(), mensagemDeViolacao(e));
+		} catch (OptimisticLockingFailureException e) {
+			return ResultadoLoteDTO.erro(indice, usuarioRequestDTO.getId(), CONFLITO);
+		}
+	}
+
+	private ResultadoLoteDTO registrarAtualizacao(Usuario usuario, Long id, int indice) {
+		if (usuario == null) {
+			return ResultadoLoteDTO.erro(indice, id, NAO_ENCONTRADO);
+		}
+		// Chamado só após o commit do bloco, mantendo o cache de buscarPorId coerente com o banco. Uma busca pelo
+		// mesmo id em andamento leu a versão anterior: descartada, ela não grava o valor antigo no cache.
+		UsuarioResponseDTO usuarioResponseDTO = this.usuarioMapper.paraResponseDTO(usuario);
+		this.consultasPorId.descartar(id);
+		this.cacheUsuarios.put(id, usuarioResponseDTO);
+		this.eventos.publishEvent(UsuarioEvento.atualizado(usuarioResponseDTO));
+		return ResultadoLoteDTO.sucesso(indice, id);
+	}
+
+	private ResultadoLoteDTO registrarInclusao(Usuario usuario, int indice) {
+		this.eventos.publishEvent(UsuarioEvento.salvo(this.usuarioMapper.paraResponseDTO(usuario)));
+		return ResultadoLoteDTO.sucesso(indice, usuario.getId());
+	}
+
+	private void registrarRemocao(Long id) {
+		this.consultasPorId.descartar(id);
+		this.cacheUsuarios.evict(id);
+		this.eventos.publishEvent(UsuarioEvento.removido(id));
+	}
+
+	private List<ResultadoLoteDTO> deletarBloco(List<Long> bloco, int deslocamento) {
+		Set<Long> ids = new HashSet<>(bloco);
+		ids.remove(null);
+		// Um SELECT dos ids existentes e um único DELETE ... WHERE id IN (...) por bloco.
+		Set<Long> removidos = this.transactionTemplate.execute(status -> {
+			List<Long> existentes = this.usuarioRepository.buscarIdsExistentes(ids);
+			this.usuarioRepository.deleteAllByIdInBatch(existentes);
+			return new HashSet<>(existentes);
+		});
+
+		List<ResultadoLoteDTO> resultados = new ArrayList<>(bloco.size());
+		Set<Long> informados = new HashSet<>();
+		for (int i = 0; i < bloco.size(); i++) {
+			Long id = bloco.get(i);
+			if (id == null) {
+				resultados.add(ResultadoLoteDTO.erro(deslocamento + i, null, ID_OBRIGATORIO));
+			} else if (!informados.add(id)) {
+				resultados.add(ResultadoLoteDTO.erro(deslocamento + i, id, REPETIDO_NO_LOTE));
+			} else if (removidos.contains(id)) {
+				registrarRemocao(id);
+				resultados.add(ResultadoLoteDTO.sucesso(deslocamento + i, id));
+			} else {
+				resultados.add(ResultadoLoteDTO.erro(deslocamento + i, id, NAO_ENCONTRADO));
+			}
+		}
+		return resultados;
+	}
+
+	private static boolean versaoDivergente(UsuarioRequestDTO usuarioRequestDTO, Usuario usuario) {
+		return usuarioRequestDTO.getVersao() != null && !usuarioRequestDTO.getVersao().equals(usuario.getVersao());
+	}
+
+	// "%" e "_" no prefixo são literais, não curingas do LIKE.
+	private static String escaparLike(String valor) {
+		return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	private static boolean nomeAusente(UsuarioRequestDTO usuarioRequestDTO) {
+		return usuarioRequestDTO.getNome() == null || usuarioRequestDTO.getNome().isBlank();
+	}
+
+	private static String mensagemDeViolacao(DataIntegrityViolationException e) {
+		RuntimeException traduzida = UsuarioService.traduzirViolacaoDeUnicidade(e);
+		return traduzida == e ? "Violação de integridade dos dados do Usuario" : traduzida.getMessage();
+	}
+
+}
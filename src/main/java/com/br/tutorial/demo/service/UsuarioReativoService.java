@@ -0,0 +1,172 @@
+package com.br.tutorial.demo.service;
+
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import io.r2dbc.spi.Readable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+// Mesmas operações do UsuarioService sobre a mesma tabela, pelo driver R2DBC: nenhuma thread fica parada esperando
+// o banco (com o H2 embutido o comando roda na thread de quem assina; com um banco em rede, o driver só é acordado
+// quando a resposta chega). Cada operação é um único comando (sem transação), com as mesmas regras de unicidade e versão.
+// As gravações não passam pelo Hibernate: o cache de usuários e a consulta coalescida são invalidados aqui,
+// e o UsuarioEvento é publicado como no service bloqueante.
+@Service
+@Profile("!shards")
+public class UsuarioReativoService {
+	private static final String COLUNAS = "select id, nome, codigo, versao, atualizado_em from usuario";
+	private static final String PROXIMO_ID = "select next value for usuario_seq";
+	private static final String INSERIR =
+			"insert into usuario (id, nome, codigo, versao, atualizado_em) values (:id, :nome, :codigo, 0, :atualizadoEm)";
+	private static final String ATUALIZAR_SE_VERSAO =
+			"update usuario set nome = :nome, codigo = :codigo, versao = versao + 1, atualizado_em = :atualizadoEm "
+					+ "where id = :id and versao = :versao";
+
+	private final DatabaseClient databaseClient;
+	private final ApplicationEventPublisher eventos;
+	private final Cache cacheUsuarios;
+	private final ConsultaCoalescida<Long, UsuarioResponseDTO> consultasPorId;
+
+	public UsuarioReativoService(DatabaseClient databaseClient, ApplicationEventPublisher eventos,
+								 CacheManager cacheManager, ConsultaCoalescida<Long, UsuarioResponseDTO> consultasPorId) {
+		this.databaseClient = databaseClient;
+		this.eventos = eventos;
+		this.cacheUsuarios = cacheManager.getCache(UsuarioService.CACHE_USUARIOS);
+		this.consultasPorId = consultasPorId;
+	}
+
+	public Mono<UsuarioResponseDTO> salvar(UsuarioRequestDTO usuarioRequestDTO) {
+		// O valor da sequence é usado como id direto: para o otimizador pooled do Hibernate ele é o topo de um bloco
+		// de 50 ids que nunca será entregue a ele, então não há colisão com os ids gerados pelo JPA.
+		return this.databaseClient.sql(PROXIMO_ID)
+				.map(linha -> linha.get(0, Long.class))
+				.one()
+				.flatMap(id -> {
+					Instant atualizadoEm = agora();
+					return vincular(this.databaseClient.sql(INSERIR).bind("id", id), usuarioRequestDTO)
+							.bind("atualizadoEm", atualizadoEm)
+							.fetch()
+							.rowsUpdated()
+							.thenReturn(new UsuarioResponseDTO(id, usuarioRequestDTO.getNome(), usuarioRequestDTO.getCodigo(),
+									0L, atualizadoEm));
+				})
+				.onErrorMap(DataIntegrityViolationException.class, UsuarioService::traduzirViolacaoDeUnicidade)
+				.doOnNext(usuarioResponseDTO -> {
+					invalidar(usuarioResponseDTO.getId());
+					this.cacheUsuarios.put(usuarioResponseDTO.getId(), usuarioResponseDTO);
+					this.eventos.publishEvent(UsuarioEvento.salvo(usuarioResponseDTO));
+				});
+	}
+
+	// Numa falta a leitura não grava no cache: sem a consulta coalescida, poderia sobrescrever uma alteração mais nova.
+	public Mono<UsuarioResponseDTO> buscarPorId(Long id) {
+		Cache.ValueWrapper emCache = this.cacheUsuarios.get(id);
+		if (emCache != null) {
+			return Mono.just((UsuarioResponseDTO) emCache.get());
+		}
+		return this.databaseClient.sql(COLUNAS + " where id = :id")
+				.bind("id", id)
+				.map(UsuarioReativoService::paraResponseDTO)
+				.one()
+				.switchIfEmpty(Mono.error(UsuarioService.NAO_ENCONTRADO));
+	}
+
+	// As linhas são lidas do driver conforme o assinante pede (backpressure): a lista inteira nunca fica em memória.
+	public Flux<UsuarioResponseDTO> buscarTodos() {
+		return this.databaseClient.sql(COLUNAS + " order by id")
+				.map(UsuarioReativoService::paraResponseDTO)
+				.all();
+	}
+
+	public Mono<UsuarioResponseDTO> atualizar(Long id, UsuarioRequestDTO usuarioRequestDTO) {
+		Mono<Long> versaoEsperada = usuarioRequestDTO.getVersao() != null
+				? Mono.just(usuarioRequestDTO.getVersao())
+				: this.databaseClient.sql("select versao from usuario where id = :id")
+						.bind("id", id)
+						.map(linha -> linha.get("versao", Long.class))
+						.one()
+						.switchIfEmpty(Mono.error(UsuarioService.NAO_ENCONTRADO));
+
+		Instant atualizadoEm = agora();
+		return versaoEsperada.flatMap(versao -> vincular(this.databaseClient.sql(ATUALIZAR_SE_VERSAO), usuarioRequestDTO)
+				.bind("id", id)
+				.bind("versao", versao)
+				.bind("atualizadoEm", atualizadoEm)
+				.fetch()
+				.rowsUpdated()
+				.onErrorMap(DataIntegrityViolationException.class, UsuarioService::traduzirViolacaoDeUnicidade)
+				.flatMap(alterados -> {
+					if (alterados == 0) {
+						return existe(id).flatMap(encontrado -> Mono.<UsuarioResponseDTO>error(
+								encontrado ? UsuarioService.VERSAO_DESATUALIZADA : UsuarioService.NAO_ENCONTRADO));
+					}
+					UsuarioResponseDTO usuarioResponseDTO = new UsuarioResponseDTO(id, usuarioRequestDTO.getNome(),
+							usuarioRequestDTO.getCodigo(), versao + 1, atualizadoEm);
+					invalidar(id);
+					this.cacheUsuarios.put(id, usuarioResponseDTO);
+					this.eventos.publishEvent(UsuarioEvento.atualizado(usuarioResponseDTO));
+					return Mono.just(usuarioResponseDTO);
+				}));
+	}
+
+	public Mono<Void> deletar(Long id) {
+		return this.databaseClient.sql("delete from usuario where id = :id")
+				.bind("id", id)
+				.fetch()
+				.rowsUpdated()
+				.flatMap(removidos -> {
+					if (removidos == 0) {
+						return Mono.error(UsuarioService.NAO_ENCONTRADO);
+					}
+					invalidar(id);
+					this.cacheUsuarios.evict(id);
+					this.eventos.publishEvent(UsuarioEvento.removido(id));
+					return Mono.empty();
+				});
+	}
+
+	private Mono<Boolean> existe(Long id) {
+		return this.databaseClient.sql("select 1 from usuario where id = :id")
+				.bind("id", id)
+				.map(linha -> Boolean.TRUE)
+				.one()
+				.defaultIfEmpty(Boolean.FALSE);
+	}
+
+	// Uma busca pelo id em andamento leu o valor anterior: descartada, ela não grava esse valor no cache.
+	private void invalidar(Long id) {
+		this.consultasPorId.descartar(id);
+	}
+
+	private static DatabaseClient.GenericExecuteSpec vincular(DatabaseClient.GenericExecuteSpec comando,
+															 UsuarioRequestDTO usuarioRequestDTO) {
+		return vincular(vincular(comando, "nome", usuarioRequestDTO.getNome()), "codigo", usuarioRequestDTO.getCodigo());
+	}
+
+	private static DatabaseClient.GenericExecuteSpec vincular(DatabaseClient.GenericExecuteSpec comando, String nome,
+															 String valor) {
+		return valor == null ? comando.bindNull(nome, String.class) : comando.bind(nome, valor);
+	}
+
+	private static UsuarioResponseDTO paraResponseDTO(Readable linha) {
+		return new UsuarioResponseDTO(linha.get("id", Long.class), linha.get("nome", String.class),
+				linha.get("codigo", String.class), linha.get("versao", Long.class), linha.get("atualizado_em", Instant.class));
+	}
+
+	// Mesma precisão da coluna, como no UsuarioService.
+	private static Instant agora() {
+		return Instant.now().truncatedTo(ChronoUnit.MICROS);
+	}
+}
@@ -2,75 +2,237 @@ package com.br.tutorial.demo.service;
 
 
 
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
 import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.evento.UsuarioEvento;
 import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.handler.entidadeHandler.ConflitoException;
+import com.br.tutorial.demo.mapper.UsuarioMapper;
 import com.br.tutorial.demo.repository.UsuarioRepository;
 import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioPaginaResponseDTO;
 import com.br.tutorial.demo.response.UsuarioResponseDTO;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.annotation.Timed;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Service
+@Timed("usuario.service")
 public class UsuarioService {
-	private final UsuarioRepository usuarioRepository;
-	private final ModelMapper modelMapper;
+	public static final String CACHE_USUARIOS = "usuarios";
+	// Erros de negócio mais frequentes (ids inexistentes, duplicados): instâncias únicas, sem stack trace
+	// (compartilhadas com o UsuarioReativoService).
+	static final BadRequestException NAO_ENCONTRADO = BadRequestException.preAlocada("Usuario não encontrado");
+	static final BadRequestException CODIGO_EXISTENTE = BadRequestException.preAlocada("Este codigo para Usuario ja existe");
+	static final BadRequestException NOME_EXISTENTE = BadRequestException.preAlocada("Este nome para Usuario ja existe");
+	static final ConflitoException VERSAO_DESATUALIZADA = ConflitoException.preAlocada("Usuario foi alterado por outra requisicao");
 
-	public UsuarioService(UsuarioRepository usuarioRepository, ModelMapper modelMapper) {
+	private final UsuarioRepository usuarioRepository;
+	private final UsuarioMapper usuarioMapper;
+	private final ApplicationEventPublisher eventos;
+	private final Cache cacheUsuarios;
+	private final ConsultaCoalescida<Long, UsuarioResponseDTO> consultasPorId;
+
+	public UsuarioService(UsuarioRepository usuarioRepository, UsuarioMapper usuarioMapper,
+						  ApplicationEventPublisher eventos, CacheManager cacheManager,
+						  ConsultaCoalescida<Long, UsuarioResponseDTO> consultasPorId) {
 		this.usuarioRepository = usuarioRepository;
-		this.modelMapper = modelMapper;
+		this.usuarioMapper = usuarioMapper;
+		this.eventos = eventos;
+		this.cacheUsuarios = cacheManager.getCache(CACHE_USUARIOS);
+		this.consultasPorId = consultasPorId;
 	}
 
+	@CachePut(cacheNames = CACHE_USUARIOS, key = "#result.id")
 	public UsuarioResponseDTO salvar(UsuarioRequestDTO usuarioRequestDTO)  {
-			if (usuarioRepository.findByNome(usuarioRequestDTO.getNome()).isPresent()) {
-				throw new BadRequestException("Este nome para Usuario ja existe");
+			// A unicidade de nome e codigo é garantida pelos índices únicos: um único INSERT, seguro sob concorrência.
+			Usuario usuario = this.usuarioMapper.paraEntidade(usuarioRequestDTO);
+			usuario = salvarValidandoUnicidade(usuario);
+			UsuarioResponseDTO usuarioResponseDTO = this.usuarioMapper.paraResponseDTO(usuario);
+			this.eventos.publishEvent(UsuarioEvento.salvo(usuarioResponseDTO));
+			return usuarioResponseDTO;
+
+	}
+	// Todos os usuários sem montar a lista: cada iteração percorre a tabela página a página pelo cursor, e quem
+	// serializa o resultado mantém em memória no máximo um lote por vez.
+	public Iterable<UsuarioResponseDTO> buscarTodos(int tamanhoLote) {
+		return () -> new Iterator<>() {
+			private Iterator<UsuarioResponseDTO> lote = Collections.emptyIterator();
+			private Long cursor;
+			private boolean ultimaPagina;
+
+			@Override
+			public boolean hasNext() {
+				while (!this.lote.hasNext() && !this.ultimaPagina) {
+					UsuarioPaginaResponseDTO pagina = buscarPagina(this.cursor, tamanhoLote);
+					this.lote = pagina.getUsuarios().iterator();
+					this.cursor = pagina.getProximoCursor();
+					this.ultimaPagina = this.cursor == null;
+				}
+				return this.lote.hasNext();
 			}
-			Usuario usuario = this.modelMapper.map(usuarioRequestDTO, Usuario.class);
-			usuario = this.usuarioRepository.save(usuario);
-			return this.modelMapper.map(usuario, UsuarioResponseDTO.class);
 
+			@Override
+			public UsuarioResponseDTO next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return this.lote.next();
+			}
+		};
 	}
-	public List<UsuarioResponseDTO> buscarTodos() {
-		return this.usuarioRepository.findAll().stream().map(usuario ->
-				this.modelMapper.map(usuario, UsuarioResponseDTO.class)).collect(Collectors.toList());
+
+	public UsuarioPaginaResponseDTO buscarPagina(Long aposId, int limite) {
+		// Busca um registro a mais para saber se existe próxima página sem precisar de COUNT.
+		List<UsuarioResponseDTO> usuarios = this.usuarioRepository.buscarPaginaProjetada(
+				aposId == null ? 0L : aposId, PageRequest.of(0, limite + 1));
+
+		Long proximoCursor = null;
+		if (usuarios.size() > limite) {
+			usuarios = usuarios.subList(0, limite);
+			proximoCursor = usuarios.get(limite - 1).getId();
+		}
+		return new UsuarioPaginaResponseDTO(usuarios, proximoCursor);
 	}
 
+	public void percorrerTodos(int tamanhoLote, Consumer<UsuarioResponseDTO> consumidor) {
+		buscarTodos(tamanhoLote).forEach(consumidor);
+	}
+
+	// Cache-aside manual em vez de @Cacheable: numa falta, leituras simultâneas do mesmo id (inclusive de ids
+	// inexistentes) compartilham uma consulta. O resultado só entra no cache se nenhum atualizar/deletar do mesmo id
+	// terminou durante a consulta, e com putIfAbsent, para não sobrescrever um @CachePut mais novo.
 	public UsuarioResponseDTO buscarPorId(Long id) {
-			Optional<Usuario> responsavel = this.usuarioRepository.findById(id);
+		Cache.ValueWrapper emCache = this.cacheUsuarios.get(id);
+		if (emCache != null) {
+			return (UsuarioResponseDTO) emCache.get();
+		}
+		return this.consultasPorId.executar(id, () -> {
+			Optional<UsuarioResponseDTO> responsavel = this.usuarioRepository.buscarProjetadoPorId(id);
 			if (responsavel.isEmpty()){
-				throw new BadRequestException("Usuario não encontrado");
+				throw NAO_ENCONTRADO;
 			}
-			return this.modelMapper.map(responsavel.get(), UsuarioResponseDTO.class);
+			return responsavel.get();
+		}, usuarioResponseDTO -> this.cacheUsuarios.putIfAbsent(id, usuarioResponseDTO));
 	}
 
-	public UsuarioResponseDTO atualizar(Long id, UsuarioRequestDTO usuarioRequestDTO) {
-		Optional<Usuario> responsavelOptional = this.usuarioRepository.findById(id);
-
-		if(responsavelOptional.isEmpty()){
-			throw new BadRequestException("Usuario não encontrado");
+	// Versão atual para o GET condicional, sem carregar nem mapear o usuário: do cache, ou um SELECT de uma coluna.
+	public long buscarVersao(Long id) {
+		Cache.ValueWrapper emCache = this.cacheUsuarios.get(id);
+		if (emCache != null) {
+			return ((UsuarioResponseDTO) emCache.get()).getVersao();
 		}
-		Usuario usuario = responsavelOptional.get();
-		usuarioRequestDTO.setId(usuario.getId());
+		return this.usuarioRepository.buscarVersao(id).orElseThrow(() -> NAO_ENCONTRADO);
+	}
 
-		usuario = this.modelMapper.map(usuarioRequestDTO, Usuario.class);
-		usuario = this.usuarioRepository.save(usuario);
+	@CachePut(cacheNames = CACHE_USUARIOS, key = "#id")
+	public UsuarioResponseDTO atualizar(Long id, UsuarioRequestDTO usuarioRequestDTO) {
+		// Sem versão informada pelo cliente, parte da versão atual (SELECT de uma coluna pelo índice da chave).
+		Long versao = usuarioRequestDTO.getVersao();
+		if (versao == null) {
+			versao = this.usuarioRepository.buscarVersao(id)
+					.orElseThrow(() -> NAO_ENCONTRADO);
+		}
 
-		return this.modelMapper.map(usuario, UsuarioResponseDTO.class);
+		// Mesma precisão da coluna (microssegundos): a resposta traz o valor que uma leitura posterior vai encontrar.
+		Instant atualizadoEm = Instant.now().truncatedTo(ChronoUnit.MICROS);
+		int alterados;
+		try {
+			alterados = this.usuarioRepository.atualizarSeVersao(id, usuarioRequestDTO.getNome(),
+					usuarioRequestDTO.getCodigo(), versao, atualizadoEm);
+		} catch (DataIntegrityViolationException e) {
+			throw traduzirViolacaoDeUnicidade(e);
+		}
+		this.consultasPorId.descartar(id);
+		if (alterados == 0) {
+			if (!this.usuarioRepository.existsById(id)) {
+				throw NAO_ENCONTRADO;
+			}
+			throw VERSAO_DESATUALIZADA;
+		}
 
+		// O resultado do UPDATE é conhecido: a resposta é montada sem voltar ao banco.
+		usuarioRequestDTO.setId(id);
+		Usuario usuario = this.usuarioMapper.paraEntidade(usuarioRequestDTO);
+		usuario.setVersao(versao + 1);
+		usuario.setAtualizadoEm(atualizadoEm);
+		UsuarioResponseDTO usuarioResponseDTO = this.usuarioMapper.paraResponseDTO(usuario);
+		this.eventos.publishEvent(UsuarioEvento.atualizado(usuarioResponseDTO));
+		return usuarioResponseDTO;
 	}
 
+	@CacheEvict(cacheNames = CACHE_USUARIOS, key = "#id")
 	public void deletar(Long id) {
-		Optional <Usuario> userOptional = this.usuarioRepository.findById(id);
+		int removidos = this.usuarioRepository.deletarPorId(id);
+		this.consultasPorId.descartar(id);
+		if (removidos == 0) {
+			throw NAO_ENCONTRADO;
+		}
+		this.eventos.publishEvent(UsuarioEvento.removido(id));
+	}
 
-		if(userOptional.isEmpty()){
-			throw new BadRequestException("Usuario não encontrado");
+	private Usuario salvarValidandoUnicidade(Usuario usuario) {
+		try {
+			return this.usuarioRepository.saveAndFlush(usuario);
+		} catch (DataIntegrityViolationException e) {
+			throw traduzirViolacaoDeUnicidade(e);
 		}
+	}
 
-		usuarioRepository.delete(userOptional.get());
+	// Converte a violação dos índices únicos de Usuario na mensagem de negócio; outras violações seguem adiante.
+	// Decide pelo nome da restrição violada, nunca pela mensagem inteira: ela traz os valores rejeitados, que podem
+	// conter o nome da outra restrição.
+	static RuntimeException traduzirViolacaoDeUnicidade(DataIntegrityViolationException e) {
+		String restricao = restricaoViolada(e);
+		if (Usuario.UK_CODIGO.equals(restricao)) {
+			return CODIGO_EXISTENTE;
+		}
+		if (Usuario.UK_NOME.equals(restricao)) {
+			return NOME_EXISTENTE;
+		}
+		return e;
 	}
 
+	private static String restricaoViolada(DataIntegrityViolationException e) {
+		for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+			if (causa instanceof ConstraintViolationException violacao && violacao.getConstraintName() != null) {
+				return nomeDaRestricao(violacao.getConstraintName());
+			}
+		}
+		// Sem o Hibernate (driver R2DBC), o nome vem na mensagem do H2, logo depois de "violation: ".
+		String mensagem = String.valueOf(e.getMostSpecificCause().getMessage());
+		int inicio = mensagem.indexOf("violation: ");
+		return inicio < 0 ? null : nomeDaRestricao(mensagem.substring(inicio + "violation: ".length()));
+	}
+
+	// O H2 identifica a restrição pelo índice que a implementa: "PUBLIC.UK_USUARIO_NOME_INDEX_8 ON PUBLIC.USUARIO(...)
+	// VALUES (...)". Fica só o nome, antes do " ON " e dos valores.
+	private static String nomeDaRestricao(String texto) {
+		String nome = texto.trim().toUpperCase();
+		int fim = nome.indexOf(" ON ");
+		if (fim >= 0) {
+			nome = nome.substring(0, fim);
+		}
+		nome = nome.replace("\"", "");
+		nome = nome.substring(nome.lastIndexOf('.') + 1);
+		int indice = nome.indexOf("_INDEX_");
+		return indice < 0 ? nome : nome.substring(0, indice);
+	}
 
 }
@@ -0,0 +1,243 @@
+package com.br.tutorial.demo.service;
+
+import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.ImportacaoResultadoDTO;
+import com.br.tutorial.demo.response.ResultadoLoteDTO;
+import com.br.tutorial.demo.transferencia.LeitorCsv;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+// Exportação e importação da tabela inteira em CSV ou NDJSON, em memória constante: a exportação escreve cada
+// linha do cursor JDBC direto na resposta, sem montar DTOs nem listas; a importação lê um registro por vez e
+// grava em blocos pelo UsuarioLoteService (mesmas validações e batch JDBC do POST /lote).
+// A importação não é atômica: blocos já gravados permanecem se o arquivo for interrompido ou estiver inválido.
+@Service
+@Timed("usuario.service")
+@Profile("!shards")
+public class UsuarioTransferenciaService {
+	private static final String CONSULTA_EXPORTACAO =
+			"select id, nome, codigo, versao, atualizado_em from usuario order by id";
+	private static final String CABECALHO_CSV = "id,nome,codigo,versao,atualizadoEm";
+	private static final int BUFFER_ESCRITA = 64 * 1024;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final UsuarioLoteService usuarioLoteService;
+	private final ObjectMapper objectMapper;
+	private final ObjectReader leitorNdjson;
+	private final int tamanhoBloco;
+	private final int limiteErros;
+
+	public UsuarioTransferenciaService(DataSource dataSource, UsuarioLoteService usuarioLoteService,
+									   ObjectMapper objectMapper,
+									   @Value("${usuario.transferencia.fetch-size:1000}") int fetchSize,
+									   @Value("${usuario.lote.tamanho-bloco:500}") int tamanhoBloco,
+									   @Value("${usuario.transferencia.limite-erros:100}") int limiteErros) {
+		// JdbcTemplate próprio: o fetch size vale só para as varreduras da exportação.
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.setFetchSize(fetchSize);
+		this.usuarioLoteService = usuarioLoteService;
+		this.objectMapper = objectMapper;
+		// atualizadoEm vem na exportação mas não no UsuarioRequestDTO: o arquivo exportado volta na importação.
+		this.leitorNdjson = objectMapper.readerFor(UsuarioRequestDTO.class)
+				.without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+		this.tamanhoBloco = tamanhoBloco;
+		this.limiteErros = limiteErros;
+	}
+
+	public void exportarCsv(OutputStream saida) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), BUFFER_ESCRITA);
+		writer.write(CABECALHO_CSV);
+		writer.write('\n');
+		this.jdbcTemplate.query(CONSULTA_EXPORTACAO, (ResultSet linha) -> {
+			try {
+				writer.write(Long.toString(linha.getLong(1)));
+				writer.write(',');
+				escreverCampoCsv(writer, linha.getString(2));
+				writer.write(',');
+				escreverCampoCsv(writer, linha.getString(3));
+				writer.write(',');
+				Long versao = linha.getObject(4, Long.class);
+				if (versao != null) {
+					writer.write(versao.toString());
+				}
+				writer.write(',');
+				Instant atualizadoEm = linha.getObject(5, Instant.class);
+				if (atualizadoEm != null) {
+					writer.write(atualizadoEm.toString());
+				}
+				writer.write('\n');
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		writer.flush();
+	}
+
+	// Mesmo formato das linhas de GET / com Accept: application/x-ndjson (os campos do UsuarioResponseDTO, nulos
+	// inclusive); a data passa pelo ObjectMapper, com a mesma configuração do DTO.
+	public void exportarNdjson(OutputStream saida) throws IOException {
+		JsonGenerator gerador = this.objectMapper.getFactory().createGenerator(saida)
+				.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		// Sem o espaço que o Jackson põe entre valores da raiz: cada linha começa no próprio objeto.
+		gerador.setRootValueSeparator(null);
+		this.jdbcTemplate.query(CONSULTA_EXPORTACAO, (ResultSet linha) -> {
+			try {
+				gerador.writeStartObject();
+				gerador.writeNumberField("id", linha.getLong(1));
+				gerador.writeStringField("nome", linha.getString(2));
+				gerador.writeStringField("codigo", linha.getString(3));
+				Long versao = linha.getObject(4, Long.class);
+				if (versao == null) {
+					gerador.writeNullField("versao");
+				} else {
+					gerador.writeNumberField("versao", versao);
+				}
+				gerador.writeObjectField("atualizadoEm", linha.getObject(5, Instant.class));
+				gerador.writeEndObject();
+				gerador.writeRaw('\n');
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		gerador.close();
+	}
+
+	// Primeira linha é o cabeçalho; usa as colunas nome e codigo, em qualquer ordem. id, versao e atualizadoEm são ignorados:
+	// os usuários importados recebem ids novos da sequência.
+	public ImportacaoResultadoDTO importarCsv(InputStream entrada) throws IOException {
+		LeitorCsv leitor = new LeitorCsv(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+		List<String> cabecalho = leitor.proximo();
+		int colunaNome = cabecalho == null ? -1 : cabecalho.indexOf("nome");
+		int colunaCodigo = cabecalho == null ? -1 : cabecalho.indexOf("codigo");
+		if (colunaNome < 0) {
+			throw new BadRequestException("Cabecalho CSV sem a coluna nome");
+		}
+
+		Importacao importacao = new Importacao();
+		try {
+			List<String> campos;
+			while ((campos = leitor.proximo()) != null) {
+				UsuarioRequestDTO usuarioRequestDTO = new UsuarioRequestDTO();
+				usuarioRequestDTO.setNome(campo(campos, colunaNome));
+				usuarioRequestDTO.setCodigo(campo(campos, colunaCodigo));
+				importacao.adicionar(usuarioRequestDTO);
+			}
+		} catch (IOException e) {
+			throw importacao.interromper("CSV invalido: " + e.getMessage());
+		}
+		return importacao.concluir();
+	}
+
+	public ImportacaoResultadoDTO importarNdjson(InputStream entrada) throws IOException {
+		Importacao importacao = new Importacao();
+		try (MappingIterator<UsuarioRequestDTO> registros = this.leitorNdjson.readValues(entrada)) {
+			while (registros.hasNextValue()) {
+				UsuarioRequestDTO usuarioRequestDTO = registros.nextValue();
+				usuarioRequestDTO.setId(null);
+				usuarioRequestDTO.setVersao(null);
+				importacao.adicionar(usuarioRequestDTO);
+			}
+		} catch (JsonProcessingException e) {
+			throw importacao.interromper("NDJSON invalido: " + e.getOriginalMessage());
+		}
+		return importacao.concluir();
+	}
+
+	private static String campo(List<String> campos, int coluna) {
+		if (coluna < 0 || coluna >= campos.size() || campos.get(coluna).isEmpty()) {
+			return null;
+		}
+		return campos.get(coluna);
+	}
+
+	// Campos com vírgula, aspas ou quebra de linha vão entre aspas, com as aspas internas duplicadas. Nulo vira vazio.
+	private static void escreverCampoCsv(Writer writer, String valor) throws IOException {
+		if (valor == null) {
+			return;
+		}
+		boolean aspas = false;
+		for (int i = 0; i < valor.length() && !aspas; i++) {
+			char c = valor.charAt(i);
+			aspas = c == ',' || c == '"' || c == '\n' || c == '\r';
+		}
+		if (!aspas) {
+			writer.write(valor);
+			return;
+		}
+		writer.write('"');
+		writer.write(valor.replace("\"", "\"\""));
+		writer.write('"');
+	}
+
+	// Acumula os registros lidos em blocos de "usuario.lote.tamanho-bloco" e guarda só a contagem e os primeiros erros.
+	private final class Importacao {
+		private final List<UsuarioRequestDTO> bloco = new ArrayList<>(tamanhoBloco);
+		private final List<ResultadoLoteDTO> erros = new ArrayList<>();
+		private long lidos;
+		private long gravados;
+		private long recusados;
+
+		private void adicionar(UsuarioRequestDTO usuarioRequestDTO) {
+			this.bloco.add(usuarioRequestDTO);
+			this.lidos++;
+			if (this.bloco.size() == tamanhoBloco) {
+				gravar();
+			}
+		}
+
+		private void gravar() {
+			if (this.bloco.isEmpty()) {
+				return;
+			}
+			int deslocamento = Math.toIntExact(this.lidos - this.bloco.size());
+			for (ResultadoLoteDTO resultado : usuarioLoteService.salvarLote(this.bloco, deslocamento)) {
+				if (resultado.isSucesso()) {
+					this.gravados++;
+				} else {
+					this.recusados++;
+					if (this.erros.size() < limiteErros) {
+						this.erros.add(resultado);
+					}
+				}
+			}
+			this.bloco.clear();
+		}
+
+		// Os registros válidos lidos antes do erro são gravados; a mensagem informa quantos já estão no banco.
+		private BadRequestException interromper(String motivo) {
+			gravar();
+			return new BadRequestException(motivo + " (registro " + (this.lidos + 1) + "; " + this.gravados
+					+ " usuarios ja gravados)");
+		}
+
+		private ImportacaoResultadoDTO concluir() {
+			gravar();
+			return new ImportacaoResultadoDTO(this.lidos, this.gravados, this.recusados, this.erros);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.br.tutorial.demo.shard;
+
+// Shard da operação em andamento na thread atual: lido pelo RoteamentoDataSource ao obter uma conexão e pelo
+// GeradorIdUsuario ao gerar o id de um usuário novo. Sem shard definido vale o banco único (modo sem shards).
+public final class ContextoShard {
+    private static final ThreadLocal<Integer> ATUAL = new ThreadLocal<>();
+
+    private ContextoShard() {
+    }
+
+    public static Integer atual() {
+        return ATUAL.get();
+    }
+
+    public static <T> T executar(int shard, Operacao<T> operacao) throws Throwable {
+        Integer anterior = ATUAL.get();
+        ATUAL.set(shard);
+        try {
+            return operacao.executar();
+        } finally {
+            if (anterior == null) {
+                ATUAL.remove();
+            } else {
+                ATUAL.set(anterior);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Operacao<T> {
+        T executar() throws Throwable;
+    }
+}
@@ -0,0 +1,61 @@
+package com.br.tutorial.demo.shard;
+
+import org.hibernate.boot.model.relational.Database;
+import org.hibernate.boot.model.relational.SqlStringGenerationContext;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+// Ids globalmente únicos sem coluna IDENTITY nem coordenação entre bancos: id = valorLocal * shards + shard, onde
+// valorLocal vem da sequence do próprio shard (alocação pooled, como antes). O shard sai do id por id % shards.
+// Cada shard tem seu próprio otimizador, para que um valor da sequence de um shard nunca seja usado em outro.
+// Com um único banco (shards = 1) o id é o próprio valor da sequence.
+public class GeradorIdUsuario implements IdentifierGenerator {
+    // Definida pelo ShardsConfig nas propriedades do Hibernate; ausente no modo sem shards.
+    public static final String PROPRIEDADE_SHARDS = "usuario.shards.quantidade";
+
+    private SequenceStyleGenerator[] porShard;
+
+    @Override
+    public void configure(Type type, Properties parametros, ServiceRegistry serviceRegistry) {
+        int quantidade = ConfigurationHelper.getInt(PROPRIEDADE_SHARDS,
+                serviceRegistry.requireService(ConfigurationService.class).getSettings(), 1);
+        this.porShard = new SequenceStyleGenerator[quantidade];
+        for (int shard = 0; shard < quantidade; shard++) {
+            this.porShard[shard] = new SequenceStyleGenerator();
+            this.porShard[shard].configure(type, parametros, serviceRegistry);
+        }
+    }
+
+    @Override
+    public void registerExportables(Database database) {
+        for (SequenceStyleGenerator gerador : this.porShard) {
+            gerador.registerExportables(database);
+        }
+    }
+
+    @Override
+    public void initialize(SqlStringGenerationContext context) {
+        for (SequenceStyleGenerator gerador : this.porShard) {
+            gerador.initialize(context);
+        }
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object objeto) {
+        Integer atual = ContextoShard.atual();
+        int shard = atual == null ? 0 : atual;
+        long valorLocal = ((Number) this.porShard[shard].generate(session, objeto)).longValue();
+        return valorLocal * this.porShard.length + shard;
+    }
+
+    public static int shardDoId(long id, int quantidade) {
+        return (int) Math.floorMod(id, (long) quantidade);
+    }
+}
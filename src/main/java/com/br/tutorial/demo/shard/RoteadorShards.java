@@ -0,0 +1,191 @@
+package com.br.tutorial.demo.shard;
+
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Roteamento das chamadas ao UsuarioRepository entre os shards:
+// - pelo id (id % shards): findById, existsById, buscarProjetadoPorId, buscarVersao, atualizarSeVersao, deletarPorId;
+// - save/saveAndFlush de usuário novo: shard pelo hash do nome;
+// - em todos os shards, em paralelo: findByNome (primeiro encontrado) e buscarPaginaProjetada (intercalada por id;
+//   a página é cortada no tamanho pedido, mantendo a paginação por cursor).
+// Os índices únicos de cada shard só enxergam o próprio shard: save/saveAndFlush e atualizarSeVersao consultam antes
+// todos os shards pelo nome e pelo codigo gravados.
+// Cada chamada abre a própria transação no shard escolhido; por isso o repositório não pode ser usado dentro de uma
+// transação já aberta (operações em lote, importação e ingestão, desligadas com o profile) nem por métodos sem regra aqui.
+@Aspect
+public class RoteadorShards {
+    private static final Comparator<UsuarioResponseDTO> POR_ID = Comparator.comparing(UsuarioResponseDTO::getId);
+    private static final String MESMO_NOME_OU_CODIGO = "select id, nome from usuario where nome = ? or codigo = ?";
+    private static final int TRAVAS = 64;
+
+    private final int quantidade;
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService consultas;
+    // Gravações do mesmo nome ou codigo passam uma de cada vez pela verificação e pela gravação. Basta uma trava
+    // local: os shards são arquivos H2 abertos por uma única instância da aplicação.
+    private final ReentrantLock[] travas = new ReentrantLock[TRAVAS];
+
+    public RoteadorShards(int quantidade, DataSource dataSource) {
+        this.quantidade = quantidade;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int i = 0; i < TRAVAS; i++) {
+            this.travas[i] = new ReentrantLock();
+        }
+        this.consultas = Executors.newFixedThreadPool(quantidade * 2, tarefa -> {
+            Thread thread = new Thread(tarefa, "shard-consulta");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Around("this(com.br.tutorial.demo.repository.UsuarioRepository)")
+    public Object rotear(ProceedingJoinPoint chamada) throws Throwable {
+        String metodo = chamada.getSignature().getName();
+        Object[] argumentos = chamada.getArgs();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("UsuarioRepository." + metodo
+                    + " chamado dentro de uma transação: com shards cada chamada usa a transação do próprio shard");
+        }
+        switch (metodo) {
+            case "findById", "existsById", "buscarProjetadoPorId", "buscarVersao", "deletarPorId":
+                return ContextoShard.executar(shardDoId((Long) argumentos[0]), chamada::proceed);
+            case "save", "saveAndFlush": {
+                Usuario usuario = (Usuario) argumentos[0];
+                return gravarComUnicidade(usuario.getId(), usuario.getNome(), usuario.getCodigo(),
+                        () -> ContextoShard.executar(shardDoUsuario(usuario), chamada::proceed));
+            }
+            case "atualizarSeVersao": {
+                Long id = (Long) argumentos[0];
+                return gravarComUnicidade(id, (String) argumentos[1], (String) argumentos[2],
+                        () -> ContextoShard.executar(shardDoId(id), chamada::proceed));
+            }
+            case "findByNome":
+                return todosOsShards(chamada).stream()
+                        .map(resultado -> (Optional<?>) resultado)
+                        .filter(Optional::isPresent)
+                        .findFirst()
+                        .orElse(Optional.empty());
+            case "buscarPaginaProjetada":
+                return intercalarPorId(todosOsShards(chamada), ((Pageable) argumentos[1]).getPageSize());
+            default:
+                throw new UnsupportedOperationException("UsuarioRepository." + metodo + " não tem roteamento por shard");
+        }
+    }
+
+    public void encerrar() {
+        this.consultas.shutdownNow();
+    }
+
+    private int shardDoId(Long id) {
+        return GeradorIdUsuario.shardDoId(id, this.quantidade);
+    }
+
+    private int shardDoUsuario(Usuario usuario) {
+        if (usuario.getId() != null) {
+            return shardDoId(usuario.getId());
+        }
+        return usuario.getNome() == null ? 0 : Math.floorMod(usuario.getNome().hashCode(), this.quantidade);
+    }
+
+    // Trava o nome e o codigo (sempre na mesma ordem, para duas gravações não esperarem uma pela outra), recusa
+    // valores já usados por outro usuário em qualquer shard e só então grava.
+    private Object gravarComUnicidade(Long id, String nome, String codigo, ContextoShard.Operacao<Object> gravacao)
+            throws Throwable {
+        int primeira = Math.floorMod(String.valueOf(nome).hashCode(), TRAVAS);
+        int segunda = Math.floorMod(String.valueOf(codigo).hashCode(), TRAVAS);
+        ReentrantLock menor = this.travas[Math.min(primeira, segunda)];
+        ReentrantLock maior = this.travas[Math.max(primeira, segunda)];
+        menor.lock();
+        maior.lock();
+        try {
+            verificarUnicidade(id, nome, codigo);
+            return gravacao.executar();
+        } finally {
+            maior.unlock();
+            menor.unlock();
+        }
+    }
+
+    // Mesma exceção de um índice único do próprio shard, para o service traduzir na mensagem de negócio.
+    private void verificarUnicidade(Long id, String nome, String codigo) throws Throwable {
+        if (nome == null && codigo == null) {
+            return;
+        }
+        for (List<Map<String, Object>> encontrados : emTodosOsShards(
+                () -> this.jdbcTemplate.queryForList(MESMO_NOME_OU_CODIGO, nome, codigo))) {
+            for (Map<String, Object> linha : encontrados) {
+                if (id != null && id == ((Number) linha.get("id")).longValue()) {
+                    continue;
+                }
+                throw violacao(nome != null && nome.equals(linha.get("nome")) ? Usuario.UK_NOME : Usuario.UK_CODIGO);
+            }
+        }
+    }
+
+    private static DataIntegrityViolationException violacao(String restricao) {
+        SQLException causa = new SQLException("Unique index or primary key violation: " + restricao
+                + " (valor gravado em outro shard)", "23505");
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException(causa.getMessage(), causa, restricao));
+    }
+
+    private List<Object> todosOsShards(ProceedingJoinPoint chamada) throws Throwable {
+        return emTodosOsShards(chamada::proceed);
+    }
+
+    // Executa a mesma operação em cada shard, em paralelo, e devolve os resultados na ordem dos shards.
+    private <T> List<T> emTodosOsShards(ContextoShard.Operacao<T> operacao) throws Throwable {
+        List<CompletableFuture<T>> execucoes = new ArrayList<>(this.quantidade);
+        for (int shard = 0; shard < this.quantidade; shard++) {
+            int destino = shard;
+            execucoes.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return ContextoShard.executar(destino, operacao);
+                } catch (Throwable e) {
+                    throw new CompletionException(e);
+                }
+            }, this.consultas));
+        }
+        List<T> resultados = new ArrayList<>(this.quantidade);
+        try {
+            for (CompletableFuture<T> execucao : execucoes) {
+                resultados.add(execucao.join());
+            }
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+        return resultados;
+    }
+
+    // Cada shard devolve a lista já ordenada por id; a ordenação aproveita essas sequências (TimSort).
+    @SuppressWarnings("unchecked")
+    private static List<UsuarioResponseDTO> intercalarPorId(List<Object> porShard, int limite) {
+        List<UsuarioResponseDTO> todos = new ArrayList<>();
+        for (Object resultado : porShard) {
+            todos.addAll((List<UsuarioResponseDTO>) resultado);
+        }
+        todos.sort(POR_ID);
+        return todos.size() > limite ? new ArrayList<>(todos.subList(0, limite)) : todos;
+    }
+}
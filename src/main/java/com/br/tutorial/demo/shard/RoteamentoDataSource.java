@@ -0,0 +1,13 @@
+package com.br.tutorial.demo.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Entrega a conexão do shard definido em ContextoShard. Sem DataSource padrão: uma conexão pedida fora de uma
+// operação roteada falha, em vez de cair silenciosamente no primeiro shard.
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ContextoShard.atual();
+    }
+}
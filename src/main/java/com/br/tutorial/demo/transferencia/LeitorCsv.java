@@ -0,0 +1,82 @@
+package com.br.tutorial.demo.transferencia;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Leitura incremental de CSV (RFC 4180): um registro por chamada, sem carregar o arquivo. Campos entre aspas
+// podem conter vírgula, quebra de linha e aspas duplicadas (""). Aceita fim de linha \n ou \r\n.
+public class LeitorCsv {
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder campo = new StringBuilder();
+    private int posicao;
+    private int limite;
+    private long registro;
+
+    public LeitorCsv(Reader reader) {
+        this.reader = reader;
+    }
+
+    // Próximo registro, ou null no fim do arquivo. Linhas vazias são ignoradas.
+    public List<String> proximo() throws IOException {
+        List<String> campos = new ArrayList<>();
+        int c = ler();
+        while (c == '\r' || c == '\n') {
+            c = ler();
+        }
+        if (c < 0) {
+            return null;
+        }
+        this.registro++;
+        while (true) {
+            this.campo.setLength(0);
+            if (c == '"') {
+                c = lerEntreAspas();
+            } else {
+                while (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+                    this.campo.append((char) c);
+                    c = ler();
+                }
+            }
+            campos.add(this.campo.toString());
+            if (c == ',') {
+                c = ler();
+            } else {
+                return campos;
+            }
+        }
+    }
+
+    private int lerEntreAspas() throws IOException {
+        while (true) {
+            int c = ler();
+            if (c < 0) {
+                throw new IOException("Aspas não fechadas no registro " + this.registro);
+            }
+            if (c == '"') {
+                c = ler();
+                if (c != '"') {
+                    if (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+                        throw new IOException("Caractere inesperado após aspas no registro " + this.registro);
+                    }
+                    return c;
+                }
+            }
+            this.campo.append((char) c);
+        }
+    }
+
+    private int ler() throws IOException {
+        if (this.posicao == this.limite) {
+            this.limite = this.reader.read(this.buffer);
+            this.posicao = 0;
+            if (this.limite <= 0) {
+                this.limite = 0;
+                return -1;
+            }
+        }
+        return this.buffer[this.posicao++];
+    }
+}
@@ -0,0 +1,31 @@
+package com.br.tutorial.demo.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+
+// Requisições do Tomcat e tarefas assíncronas do MVC (ex.: StreamingResponseBody) em threads virtuais.
+// As chamadas bloqueantes do JPA passam a estacionar a thread virtual em vez de ocupar uma thread do pool;
+// o limite real de concorrência no banco fica com o pool do Hikari (application-threads-virtuais.properties).
+@Configuration
+@Profile("threads-virtuais")
+public class ThreadsVirtuaisConfig {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> executorDeThreadsVirtuais() {
+		return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+	}
+
+}
@@ -0,0 +1,13 @@
+-- Esquema de cada shard (profile "shards"); equivalente ao gerado pelo Hibernate para a entidade Usuario.
+create sequence if not exists usuario_seq start with 1 increment by 50;
+
+create table if not exists usuario (
+    id bigint not null,
+    nome varchar(255),
+    codigo varchar(255),
+    versao bigint,
+    atualizado_em timestamp(6) with time zone,
+    primary key (id),
+    constraint uk_usuario_nome unique (nome),
+    constraint uk_usuario_codigo unique (codigo)
+);
@@ -0,0 +1,57 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.controller.UserController;
+import com.br.tutorial.demo.handler.AppExceptionHandler;
+import com.br.tutorial.demo.handler.entidadeHandler.LimiteExcedidoException;
+import com.br.tutorial.demo.handler.message.ErrorMessage;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AppExceptionHandlerTest {
+    private final AppExceptionHandler appExceptionHandler = new AppExceptionHandler();
+
+    @Test
+    @DisplayName("Teste para devolver um erro por campo rejeitado em vez da mensagem completa da validação")
+    void testErrosDeValidacaoPorCampo() throws NoSuchMethodException {
+        // Simulando a validação de um POST / com nome em branco e codigo rejeitado.
+        BeanPropertyBindingResult resultado = new BeanPropertyBindingResult(new UsuarioRequestDTO(), "usuarioRequestDTO");
+        resultado.rejectValue("nome", "NotBlank", "nome obrigatorio");
+        resultado.rejectValue("codigo", "Size", "codigo muito longo");
+        MethodParameter parametro = new MethodParameter(UserController.class.getMethod("salvar", UsuarioRequestDTO.class), 0);
+
+        ResponseEntity<ErrorMessage> resposta =
+                appExceptionHandler.handleValidationException(new MethodArgumentNotValidException(parametro, resultado), null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, resposta.getStatusCode());
+        ErrorMessage errorMessage = resposta.getBody();
+        assertNotNull(errorMessage.getCurrentDate());
+        assertEquals("Dados invalidos", errorMessage.getMessage());
+
+        // Verificando se cada campo aparece com a sua mensagem, na ordem em que foi rejeitado.
+        assertEquals(2, errorMessage.getErros().size());
+        assertEquals("nome", errorMessage.getErros().get(0).getCampo());
+        assertEquals("nome obrigatorio", errorMessage.getErros().get(0).getMensagem());
+        assertEquals("codigo", errorMessage.getErros().get(1).getCampo());
+        assertEquals("codigo muito longo", errorMessage.getErros().get(1).getMensagem());
+    }
+
+    @Test
+    @DisplayName("Teste para responder 429 com o Retry-After do limite excedido")
+    void testLimiteExcedido() {
+        ResponseEntity<ErrorMessage> resposta = appExceptionHandler.handleLimiteExcedidoException(
+                new LimiteExcedidoException("Limite de requisicoes excedido, tente novamente", 3), null);
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, resposta.getStatusCode());
+        assertEquals("3", resposta.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Limite de requisicoes excedido, tente novamente", resposta.getBody().getMessage());
+    }
+}
@@ -0,0 +1,59 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.config.CborConfig;
+import com.br.tutorial.demo.handler.message.ErrorMessage;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CborConfigTest {
+    // Builder com o que o Spring Boot configura por padrão (datas em ISO-8601, não timestamp).
+    private final ObjectMapper cbor = new CborConfig().conversorCbor(Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)).getObjectMapper();
+
+    @Test
+    @DisplayName("Teste para ler de volta uma sequência CBOR de usuários, menor que o mesmo conteúdo em JSON")
+    void testSequenciaCbor() throws IOException {
+        List<UsuarioResponseDTO> usuarios = List.of(
+                new UsuarioResponseDTO(1L, "Ana", "A-1", 0L),
+                new UsuarioResponseDTO(51L, "Bia", "B-1", 2L));
+
+        // O que o UserController escreve para application/cbor-seq: itens consecutivos num único gerador.
+        ByteArrayOutputStream corpo = new ByteArrayOutputStream();
+        try (SequenceWriter sequencia = cbor.writerFor(UsuarioResponseDTO.class).writeValues(corpo)) {
+            for (UsuarioResponseDTO usuario : usuarios) {
+                sequencia.write(usuario);
+            }
+        }
+
+        try (MappingIterator<UsuarioResponseDTO> lidos = cbor.readerFor(UsuarioResponseDTO.class).readValues(corpo.toByteArray())) {
+            List<UsuarioResponseDTO> recebidos = lidos.readAll();
+            assertEquals(2, recebidos.size());
+            assertEquals("Bia", recebidos.get(1).getNome());
+            assertEquals(2L, recebidos.get(1).getVersao());
+        }
+        assertTrue(corpo.size() < Jackson2ObjectMapperBuilder.json().build().writeValueAsBytes(usuarios).length);
+    }
+
+    @Test
+    @DisplayName("Teste para manter as datas do corpo de erro no formato ISO-8601 também em CBOR")
+    void testErroEmCbor() throws IOException {
+        ErrorMessage erro = new ErrorMessage(Instant.parse("2024-01-01T00:00:00Z"), "Usuario não encontrado");
+
+        byte[] corpo = cbor.writeValueAsBytes(erro);
+
+        assertEquals("2024-01-01T00:00:00Z", cbor.readTree(corpo).get("currentDate").asText());
+    }
+}
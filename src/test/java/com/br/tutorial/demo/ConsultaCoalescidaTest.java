@@ -0,0 +1,114 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
+import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.handler.entidadeHandler.ServicoIndisponivelException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsultaCoalescidaTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Teste para compartilhar uma única consulta, e a mesma exceção, entre chamadas simultâneas")
+    void testCompartilharConsulta() throws Exception {
+        ConsultaCoalescida<Long, String> consultas = new ConsultaCoalescida<>(meterRegistry, "teste", Duration.ofSeconds(5));
+        AtomicInteger execucoes = new AtomicInteger();
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<String> concluidos = new ArrayList<>();
+
+        ExecutorService threads = Executors.newFixedThreadPool(5);
+        try {
+            // A primeira chamada fica presa na consulta até as outras quatro chegarem.
+            Future<String> lider = threads.submit(() -> consultas.executar(1L, () -> {
+                execucoes.incrementAndGet();
+                iniciada.countDown();
+                aguardar(liberar);
+                return "usuario-1";
+            }, concluidos::add));
+            assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+            List<Future<String>> seguidores = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                seguidores.add(threads.submit(() -> consultas.executar(1L, () -> {
+                    execucoes.incrementAndGet();
+                    return "outra consulta";
+                }, concluidos::add)));
+            }
+            while (meterRegistry.counter("teste", "resultado", "compartilhada").count() < 4) {
+                Thread.onSpinWait();
+            }
+            liberar.countDown();
+
+            assertEquals("usuario-1", lider.get(5, TimeUnit.SECONDS));
+            for (Future<String> seguidor : seguidores) {
+                assertEquals("usuario-1", seguidor.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+        // Uma execução e um único aoConcluir para as cinco chamadas.
+        assertEquals(1, execucoes.get());
+        assertEquals(List.of("usuario-1"), concluidos);
+        assertEquals(1.0, meterRegistry.counter("teste", "resultado", "executada").count());
+
+        // Terminada a consulta, uma chamada nova executa de novo; exceções chegam a quem chamou sem aoConcluir.
+        BadRequestException erro = new BadRequestException("Usuario não encontrado");
+        assertSame(erro, assertThrows(BadRequestException.class,
+                () -> consultas.executar(1L, () -> { throw erro; }, concluidos::add)));
+        assertEquals(1, concluidos.size());
+    }
+
+    @Test
+    @DisplayName("Teste para desistir após o tempo de espera e não concluir uma consulta descartada")
+    void testEsperaEDescarte() throws Exception {
+        ConsultaCoalescida<Long, String> consultas = new ConsultaCoalescida<>(meterRegistry, "teste", Duration.ofMillis(50));
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        List<String> concluidos = new ArrayList<>();
+
+        ExecutorService threads = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> lider = threads.submit(() -> consultas.executar(1L, () -> {
+                iniciada.countDown();
+                aguardar(liberar);
+                return "versao antiga";
+            }, concluidos::add));
+            assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+
+            // Quem chega durante a consulta lenta desiste com 503 depois da espera configurada.
+            assertThrows(ServicoIndisponivelException.class, () -> consultas.executar(1L, () -> "nunca", concluidos::add));
+            assertEquals(1.0, meterRegistry.counter("teste", "resultado", "tempo-esgotado").count());
+
+            // Uma alteração descarta a consulta em andamento: ela termina, mas o resultado antigo não é concluído.
+            consultas.descartar(1L);
+            assertEquals("versao nova", consultas.executar(1L, () -> "versao nova", concluidos::add));
+            liberar.countDown();
+            assertEquals("versao antiga", lider.get(5, TimeUnit.SECONDS));
+        } finally {
+            threads.shutdownNow();
+        }
+        assertEquals(List.of("versao nova"), concluidos);
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.config.CborConfig;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioReativoService;
+import com.br.tutorial.demo.service.UsuarioService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Sobe a aplicação inteira: a ConnectionFactory do R2DBC desliga a auto-configuração do DataSource JDBC, então só um
+// contexto completo mostra se o JPA e a API reativa continuam juntos no mesmo banco.
+@SpringBootTest(properties = "usuario.paginacao.lote-stream=2")
+@AutoConfigureMockMvc
+class DemoApplicationTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UsuarioService usuarioService;
+    @Autowired
+    private UsuarioReativoService usuarioReativoService;
+
+    @Test
+    @DisplayName("Teste para subir a aplicação com o JPA e a API reativa no mesmo banco em memória")
+    void testContextoPadrao() {
+        assertGravacaoVisivelNosDoisAcessos("Ana Contexto", "CTX-1");
+    }
+
+    @Test
+    @DisplayName("Teste para responder GET / em JSON sem Accept ou com curinga, e em stream só quando pedido")
+    void testNegociacaoDaListagem() throws Exception {
+        mockMvc.perform(get("/")).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/").header(HttpHeaders.ACCEPT, "*/*")).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/").header(HttpHeaders.ACCEPT, "application/*")).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/").accept(MediaType.APPLICATION_CBOR)).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+
+        mockMvc.perform(get("/").accept(MediaType.APPLICATION_NDJSON)).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+        mockMvc.perform(get("/").header(HttpHeaders.ACCEPT, "application/cbor-seq, */*;q=0.1")).andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(CborConfig.APPLICATION_CBOR_SEQ));
+    }
+
+    @Test
+    @DisplayName("Teste para listar em GET / todos os usuários num único array, lido em vários lotes")
+    void testListagemEmLotes() throws Exception {
+        // Mais usuários que o lote do stream (usuario.paginacao.lote-stream=2 neste contexto).
+        for (int i = 0; i < 5; i++) {
+            UsuarioRequestDTO request = new UsuarioRequestDTO();
+            request.setNome("Lote " + i);
+            request.setCodigo("LOTE-" + i);
+            usuarioService.salvar(request);
+        }
+
+        mockMvc.perform(get("/")).andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.codigo =~ /LOTE-.*/)].nome",
+                        contains("Lote 0", "Lote 1", "Lote 2", "Lote 3", "Lote 4")));
+    }
+
+    @Nested
+    @ActiveProfiles("banco-arquivo")
+    @TestPropertySource(properties = "usuario.banco.arquivo=./target/teste-contexto/usuarios")
+    class BancoEmArquivo {
+        @Test
+        @DisplayName("Teste para subir a aplicação com o banco em arquivo")
+        void testContextoBancoEmArquivo() {
+            assertGravacaoVisivelNosDoisAcessos("Bia Contexto " + System.nanoTime(), "CTX-" + System.nanoTime());
+        }
+    }
+
+    // Sem API reativa com shards: a gravação passa pelo Hibernate (sequence do shard e GeradorIdUsuario) e a leitura
+    // volta pelo roteamento do id.
+    @Nested
+    @ActiveProfiles("shards")
+    @TestPropertySource(properties = {"usuario.shards.quantidade=3",
+            "usuario.shards.url=jdbc:h2:mem:teste-contexto-shard-{shard};DB_CLOSE_DELAY=-1",
+            "usuario.alteracoes.arquivo=target/teste-contexto/alteracoes-shards.log"})
+    class Shards {
+        @Autowired
+        private UsuarioService usuarioServiceShards;
+
+        @Test
+        @DisplayName("Teste para gravar pelo Hibernate em cada shard e ler de volta pelo id")
+        void testContextoShards() {
+            for (int i = 0; i < 6; i++) {
+                UsuarioRequestDTO request = new UsuarioRequestDTO();
+                request.setNome("Shard " + i);
+                request.setCodigo("SH-" + i);
+                UsuarioResponseDTO salvo = usuarioServiceShards.salvar(request);
+
+                usuarioServiceShards.atualizar(salvo.getId(), request);
+                assertEquals("Shard " + i, usuarioServiceShards.buscarPorId(salvo.getId()).getNome());
+            }
+        }
+    }
+
+    // Gravado pelo JPA, lido pelo driver R2DBC sem passar pelo cache.
+    private void assertGravacaoVisivelNosDoisAcessos(String nome, String codigo) {
+        UsuarioRequestDTO request = new UsuarioRequestDTO();
+        request.setNome(nome);
+        request.setCodigo(codigo);
+        UsuarioResponseDTO salvo = usuarioService.salvar(request);
+
+        assertEquals(nome, usuarioService.buscarPorId(salvo.getId()).getNome());
+        assertEquals(1L, usuarioReativoService.buscarTodos()
+                .filter(usuario -> usuario.getId().equals(salvo.getId())).count().block());
+    }
+}
@@ -0,0 +1,59 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.controller.EtagUsuarios;
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.evento.VersaoColecaoUsuarios;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EtagUsuariosTest {
+
+    @Test
+    @DisplayName("Teste para diferenciar a ETag por formato e comparar o If-None-Match de forma fraca")
+    void testEtagPorFormato() {
+        String json = EtagUsuarios.doUsuario("k1", 3L, EtagUsuarios.formato(MediaType.parseMediaTypes("*/*")));
+        String cbor = EtagUsuarios.doUsuario("k1", 3L, EtagUsuarios.formato(
+                MediaType.parseMediaTypes("application/cbor, application/json;q=0.5")));
+        assertEquals("\"k1-3\"", json);
+        assertEquals("\"k1-3-cbor\"", cbor);
+        assertEquals(EtagUsuarios.FORMATO_JSON, EtagUsuarios.formato(List.of()));
+
+        // A versão que o cliente já tem corresponde mesmo marcada como fraca; outra versão ou outro formato, não.
+        assertTrue(EtagUsuarios.corresponde(List.of("\"k1-2\"", "W/\"k1-3\""), json));
+        assertFalse(EtagUsuarios.corresponde(List.of("\"k1-2\""), json));
+        assertFalse(EtagUsuarios.corresponde(List.of(cbor), json));
+        assertTrue(EtagUsuarios.corresponde(List.of("*"), json));
+        assertFalse(EtagUsuarios.corresponde(List.of(), json));
+    }
+
+    @Test
+    @DisplayName("Teste para não repetir a ETag de um usuário depois de um reinício")
+    void testEtagDoUsuarioEntreExecucoes() throws InterruptedException {
+        String anterior = EtagUsuarios.doUsuario(new VersaoColecaoUsuarios().execucao(), 0L, EtagUsuarios.FORMATO_JSON);
+        Thread.sleep(2);
+
+        // Banco em memória recriado: o id 1 na versão 0 é outro usuário e não pode receber 304.
+        String atual = EtagUsuarios.doUsuario(new VersaoColecaoUsuarios().execucao(), 0L, EtagUsuarios.FORMATO_JSON);
+        assertFalse(EtagUsuarios.corresponde(List.of(anterior), atual));
+    }
+
+    @Test
+    @DisplayName("Teste para mudar a ETag da coleção a cada alteração de usuário")
+    void testEtagDaColecao() {
+        VersaoColecaoUsuarios versaoColecao = new VersaoColecaoUsuarios();
+        String antes = EtagUsuarios.daColecao(versaoColecao.atual(), EtagUsuarios.FORMATO_JSON);
+        assertTrue(antes.startsWith("W/\""));
+        assertEquals(antes, EtagUsuarios.daColecao(versaoColecao.atual(), EtagUsuarios.FORMATO_JSON));
+
+        versaoColecao.aoAlterarUsuario(UsuarioEvento.removido(1L));
+
+        String depois = EtagUsuarios.daColecao(versaoColecao.atual(), EtagUsuarios.FORMATO_JSON);
+        assertNotEquals(antes, depois);
+        assertFalse(EtagUsuarios.corresponde(List.of(antes), depois));
+    }
+}
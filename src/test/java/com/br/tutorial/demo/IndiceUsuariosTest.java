@@ -0,0 +1,95 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.busca.IndiceUsuarios;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndiceUsuariosTest {
+    private IndiceUsuarios indice;
+
+    @BeforeEach // Método executado antes de cada teste dentro da classe de testes.
+    public void setup() {
+        // Cada teste começa com um índice contendo os mesmos três usuários.
+        indice = new IndiceUsuarios();
+        indice.indexar(usuario(1L, "Maria da Silva", "AB-100", 0L));
+        indice.indexar(usuario(2L, "Mário Souza", "AB-200", 0L));
+        indice.indexar(usuario(3L, "João Silva", "CD-300", 0L));
+    }
+
+    private static UsuarioResponseDTO usuario(Long id, String nome, String codigo, Long versao) {
+        UsuarioResponseDTO usuarioResponseDTO = new UsuarioResponseDTO();
+        usuarioResponseDTO.setId(id);
+        usuarioResponseDTO.setNome(nome);
+        usuarioResponseDTO.setCodigo(codigo);
+        usuarioResponseDTO.setVersao(versao);
+        return usuarioResponseDTO;
+    }
+
+    // Prazo folgado para os testes que não tratam do orçamento de tempo.
+    private static long prazo() {
+        return System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private static List<Long> ids(IndiceUsuarios.Resultado resultado) {
+        return resultado.getUsuarios().stream().map(UsuarioResponseDTO::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Teste para buscar por prefixo ignorando acentos e maiúsculas, com o termo idêntico primeiro")
+    void testBuscarPorPrefixo() {
+        // "mar" é prefixo de "maria" e de "mario" (sem acento); no empate, o nome mais curto vem primeiro.
+        assertEquals(List.of(2L, 1L), ids(indice.buscar("MAR", 10, prazo())));
+        // "maria" casa exatamente com o usuário 1.
+        assertEquals(List.of(1L), ids(indice.buscar("maria", 10, prazo())));
+
+        // Todos os termos da consulta precisam casar: "silva jo" só encontra o João.
+        assertEquals(List.of(3L), ids(indice.buscar("silva jo", 10, prazo())));
+
+        // O codigo é encontrado inteiro ou por partes.
+        assertEquals(List.of(2L), ids(indice.buscar("ab-200", 10, prazo())));
+        assertEquals(List.of(2L, 1L), ids(indice.buscar("ab", 10, prazo())));
+    }
+
+    @Test
+    @DisplayName("Teste para manter o índice atualizado em alterações e remoções")
+    void testAtualizarERemover() {
+        // Alterando o nome do usuário 1: o termo antigo deixa de encontrá-lo.
+        indice.indexar(usuario(1L, "Ana Lima", "AB-100", 1L));
+        assertEquals(List.of(), ids(indice.buscar("maria", 10, prazo())));
+        assertEquals(List.of(1L), ids(indice.buscar("ana", 10, prazo())));
+
+        // Uma versão mais antiga (como a lida pela carga inicial) não sobrescreve a atual.
+        indice.indexar(usuario(1L, "Maria da Silva", "AB-100", 0L));
+        assertEquals(List.of(1L), ids(indice.buscar("ana", 10, prazo())));
+
+        // Removendo o usuário 3: nenhum dos seus termos o encontra mais.
+        indice.remover(3L);
+        assertEquals(List.of(), ids(indice.buscar("joao", 10, prazo())));
+        assertEquals(List.of(), ids(indice.buscar("cd-300", 10, prazo())));
+        assertEquals(2, indice.tamanho());
+    }
+
+    @Test
+    @DisplayName("Teste para devolver resultado parcial quando o prazo da busca já passou")
+    void testBuscarComPrazoEsgotado() {
+        for (long id = 10; id < 2010; id++) {
+            indice.indexar(usuario(id, "Usuario " + id, "X-" + id, 0L));
+        }
+
+        // Com o prazo vencido, a busca para na primeira verificação e informa que o resultado está incompleto.
+        IndiceUsuarios.Resultado resultado = indice.buscar("usuario", 10, System.nanoTime() - 1);
+        assertFalse(resultado.isCompleto());
+
+        // Com prazo folgado, a mesma busca é completa e respeita o limite.
+        resultado = indice.buscar("usuario", 10, prazo());
+        assertTrue(resultado.isCompleto());
+        assertEquals(10, resultado.getUsuarios().size());
+    }
+}
@@ -0,0 +1,65 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.ingestao.JournalIngestao;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JournalIngestaoTest {
+    @TempDir // Diretório temporário criado pelo JUnit e apagado ao final de cada teste.
+    Path diretorio;
+
+    @Test
+    @DisplayName("Teste para reprocessar apenas os pedidos aceitos e não concluídos após uma queda")
+    void testRecuperarPendentes() throws IOException {
+        Path arquivo = diretorio.resolve("ingestao.journal");
+
+        // Primeira execução: três pedidos aceitos, um concluído, e a aplicação "cai" sem fechar o journal.
+        JournalIngestao journal = new JournalIngestao(arquivo, Long.MAX_VALUE);
+        assertTrue(journal.abrir().isEmpty());
+        journal.registrarAceito("r1", "{\"nome\":\"a\"}");
+        journal.registrarAceito("r2", "{\"nome\":\"b\"}");
+        journal.registrarAceito("r3", "{\"nome\":\"c\"}");
+        journal.registrarConcluidos(List.of("r2"));
+
+        // Simulando uma escrita interrompida no meio da linha.
+        Files.writeString(arquivo, "A\tr4\t{\"no", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // Segunda execução: voltam os pendentes, na ordem de aceite, sem a linha incompleta.
+        List<JournalIngestao.Registro> pendentes = new JournalIngestao(arquivo, Long.MAX_VALUE).abrir();
+        assertEquals(List.of("r1", "r3"), pendentes.stream().map(JournalIngestao.Registro::getRastreio).toList());
+        assertEquals("{\"nome\":\"c\"}", pendentes.get(1).getConteudo());
+
+        // Verificando se o arquivo foi compactado para conter só os pendentes.
+        assertEquals(2, Files.readAllLines(arquivo).size());
+    }
+
+    @Test
+    @DisplayName("Teste para zerar o journal quando não há pedidos pendentes e o limite foi ultrapassado")
+    void testTruncarSemPendentes() throws IOException {
+        Path arquivo = diretorio.resolve("ingestao.journal");
+
+        try (JournalIngestao journal = new JournalIngestao(arquivo, 10)) {
+            journal.abrir();
+            journal.registrarAceito("r1", "{\"nome\":\"a\"}");
+            journal.registrarAceito("r2", "{\"nome\":\"b\"}");
+
+            // Com um pedido ainda pendente, o arquivo não pode ser zerado.
+            journal.registrarConcluidos(List.of("r1"));
+            assertTrue(Files.size(arquivo) > 0);
+
+            // Concluído o último pedido, o arquivo volta a ficar vazio.
+            journal.registrarConcluidos(List.of("r2"));
+            assertEquals(0, Files.size(arquivo));
+        }
+    }
+}
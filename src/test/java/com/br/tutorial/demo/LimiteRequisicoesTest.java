@@ -0,0 +1,138 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.handler.entidadeHandler.LimiteExcedidoException;
+import com.br.tutorial.demo.handler.entidadeHandler.ServicoIndisponivelException;
+import com.br.tutorial.demo.limite.LimitadorTaxa;
+import com.br.tutorial.demo.limite.LimiteConcorrenciaAdaptativo;
+import com.br.tutorial.demo.limite.LimiteConcorrenciaInterceptor;
+import com.br.tutorial.demo.limite.LimiteTaxaInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LimiteRequisicoesTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong relogio = new AtomicLong();
+
+    @Test
+    @DisplayName("Teste para limitar a taxa por cliente e por regra, liberando de novo quando o balde enche")
+    void testLimiteDeTaxaPorCliente() {
+        LimitadorTaxa limitadorTaxa = new LimitadorTaxa(meterRegistry,
+                List.of("POST /lote=2/3", "* /**=1000/1000"), 1000, relogio::get);
+
+        // Rajada de 3 e depois um token a cada meio segundo.
+        for (int i = 0; i < 3; i++) {
+            limitadorTaxa.verificar("POST", "/lote", "ip:10.0.0.1");
+        }
+        LimiteExcedidoException erro = assertThrows(LimiteExcedidoException.class,
+                () -> limitadorTaxa.verificar("POST", "/lote", "ip:10.0.0.1"));
+        assertEquals(1L, erro.getEsperaSegundos());
+        assertEquals(1.0, meterRegistry.counter("usuario.limite.recusadas", "motivo", "taxa").count());
+
+        // Outro cliente e outra rota têm os próprios baldes.
+        limitadorTaxa.verificar("POST", "/lote", "ip:10.0.0.2");
+        limitadorTaxa.verificar("GET", "/{id}", "ip:10.0.0.1");
+
+        relogio.addAndGet(Duration.ofMillis(500).toNanos());
+        limitadorTaxa.verificar("POST", "/lote", "ip:10.0.0.1");
+        assertThrows(LimiteExcedidoException.class, () -> limitadorTaxa.verificar("POST", "/lote", "ip:10.0.0.1"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new LimitadorTaxa(meterRegistry, List.of("POST /lote"), 1000, relogio::get));
+    }
+
+    @Test
+    @DisplayName("Teste para reduzir o limite de concorrencia com p99 acima do alvo e aumentar quando volta abaixo")
+    void testLimiteDeConcorrenciaAdaptativo() {
+        LimiteConcorrenciaAdaptativo limite = new LimiteConcorrenciaAdaptativo(meterRegistry, 2, 1, 3,
+                Duration.ofMillis(100), Duration.ofSeconds(1), 1, 1, Duration.ZERO, relogio::get);
+
+        long primeira = limite.entrar();
+        relogio.set(Duration.ofMillis(950).toNanos());
+        long segunda = limite.entrar();
+        // Sem vaga: passa pela fila e, sem tempo de espera, é recusada.
+        assertThrows(ServicoIndisponivelException.class, limite::entrar);
+        assertEquals(1.0, meterRegistry.counter("usuario.limite.enfileiradas").count());
+        assertEquals(1.0, meterRegistry.counter("usuario.limite.recusadas", "motivo", "concorrencia").count());
+
+        // Atendimento de 1s, acima do alvo, fechando a janela: o limite cai (a segunda, rápida, conta na próxima).
+        relogio.set(Duration.ofSeconds(1).toNanos());
+        limite.sair(primeira);
+        limite.sair(segunda);
+        assertEquals(1, limite.getLimite());
+
+        relogio.set(Duration.ofMillis(1950).toNanos());
+        long terceira = limite.entrar();
+        assertThrows(ServicoIndisponivelException.class, limite::entrar);
+
+        // Rápida, com o limite todo em uso: sobe de novo.
+        relogio.set(Duration.ofSeconds(2).toNanos());
+        limite.sair(terceira);
+        assertEquals(2, limite.getLimite());
+        limite.entrar();
+        limite.entrar();
+        assertEquals(2.0, meterRegistry.get("usuario.limite.concorrencia.em-andamento").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Teste para contar chaves de API desconhecidas pelo IP, sem escapar do limite trocando de chave")
+    void testChaveDesconhecidaUsaOIp() {
+        LimiteTaxaInterceptor interceptor = new LimiteTaxaInterceptor(new LimitadorTaxa(meterRegistry,
+                List.of("POST /lote=1/2"), 1000, relogio::get), Set.of("chave-do-parceiro"));
+
+        // Duas chaves inventadas gastam o balde do mesmo IP; a terceira já é recusada.
+        interceptor.preHandle(requisicao("POST", "/lote", "inventada-1"), new MockHttpServletResponse(), null);
+        interceptor.preHandle(requisicao("POST", "/lote", "inventada-2"), new MockHttpServletResponse(), null);
+        assertThrows(LimiteExcedidoException.class, () ->
+                interceptor.preHandle(requisicao("POST", "/lote", "inventada-3"), new MockHttpServletResponse(), null));
+
+        // A chave configurada tem o próprio balde, mesmo vindo do mesmo IP.
+        assertTrue(interceptor.preHandle(requisicao("POST", "/lote", "chave-do-parceiro"), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    @DisplayName("Teste para não ocupar vaga de concorrencia com o stream NDJSON ou CBOR de GET /")
+    void testStreamForaDoLimiteDeConcorrencia() {
+        LimiteConcorrenciaAdaptativo limite = new LimiteConcorrenciaAdaptativo(meterRegistry, 1, 1, 1,
+                Duration.ofMillis(100), Duration.ofSeconds(1), 1, 0, Duration.ZERO, relogio::get);
+        LimiteConcorrenciaInterceptor interceptor = new LimiteConcorrenciaInterceptor(limite,
+                Set.of(MediaType.APPLICATION_NDJSON, MediaType.parseMediaType("application/cbor-seq")));
+
+        // A listagem em JSON ocupa a única vaga.
+        interceptor.preHandle(produzindo(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR),
+                new MockHttpServletResponse(), null);
+
+        // Os streams na mesma rota passam sem vaga; outra listagem em JSON é recusada.
+        assertTrue(interceptor.preHandle(produzindo(MediaType.APPLICATION_NDJSON), new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(produzindo(MediaType.parseMediaType("application/cbor-seq")),
+                new MockHttpServletResponse(), null));
+        assertThrows(ServicoIndisponivelException.class, () -> interceptor.preHandle(
+                produzindo(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR), new MockHttpServletResponse(), null));
+    }
+
+    private static MockHttpServletRequest requisicao(String metodo, String rota, String chave) {
+        MockHttpServletRequest request = new MockHttpServletRequest(metodo, rota);
+        request.setRemoteAddr("10.0.0.1");
+        request.addHeader(LimiteTaxaInterceptor.CABECALHO_CHAVE, chave);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, rota);
+        return request;
+    }
+
+    // Como o mapeamento expõe o "produces" do handler escolhido para GET /.
+    private static MockHttpServletRequest produzindo(MediaType... tipos) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.setAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE, Set.of(tipos));
+        return request;
+    }
+}
@@ -0,0 +1,141 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.alteracoes.LogAlteracoes;
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.response.AlteracaoDTO;
+import com.br.tutorial.demo.response.AlteracoesDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogAlteracoesTest {
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @TempDir
+    Path pasta;
+
+    @Test
+    @DisplayName("Teste para registrar alteracoes em ordem e manter so a ultima de cada usuario")
+    void testRegistrarECompactarPorUsuario() throws IOException {
+        try (LogAlteracoes log = abrir(Duration.ofDays(7))) {
+            Instant agora = Instant.now();
+            log.registrar(UsuarioEvento.salvo(usuario(1L, "Ana", 0L)), agora);
+            log.registrar(UsuarioEvento.salvo(usuario(2L, "Bia", 0L)), agora);
+            log.registrar(UsuarioEvento.atualizado(usuario(1L, "Ana Maria", 1L)), agora);
+
+            // Quem lê do início recebe o estado atual de cada usuário, na ordem dos offsets.
+            AlteracoesDTO tudo = log.ler(0, 10);
+            assertEquals(List.of(2L, 3L), offsets(tudo));
+            assertEquals("Ana Maria", tudo.getAlteracoes().get(1).getUsuario().getNome());
+            assertEquals(4L, tudo.getProximoOffset());
+
+            // Evento atrasado, com versão já superada, não entra; depois da remoção, nada mais do mesmo id.
+            assertNull(log.registrar(UsuarioEvento.atualizado(usuario(1L, "Ana", 0L)), agora));
+            assertNotNull(log.registrar(UsuarioEvento.removido(1L), agora));
+            assertNull(log.registrar(UsuarioEvento.atualizado(usuario(1L, "Ana", 2L)), agora));
+
+            AlteracoesDTO novas = log.ler(3, 1);
+            assertEquals(List.of(4L), offsets(novas));
+            assertEquals(UsuarioEvento.Tipo.REMOVIDO, novas.getAlteracoes().get(0).getTipo());
+            assertNull(novas.getAlteracoes().get(0).getUsuario());
+            assertEquals(5L, novas.getProximoOffset());
+            assertTrue(log.ler(5, 10).getAlteracoes().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Teste para reabrir o log do arquivo compactado, descartando a linha incompleta")
+    void testReabrirDoArquivo() throws IOException {
+        try (LogAlteracoes log = abrir(Duration.ofDays(7))) {
+            log.registrar(UsuarioEvento.salvo(usuario(1L, "Ana", 0L)), Instant.now());
+            log.registrar(UsuarioEvento.atualizado(usuario(1L, "Ana Maria", 1L)), Instant.now());
+            log.registrar(UsuarioEvento.salvo(usuario(2L, "Bia", 0L)), Instant.now());
+        }
+        Files.writeString(pasta.resolve("alteracoes.log"), "{\"offset\":9", StandardOpenOption.APPEND);
+
+        try (LogAlteracoes log = abrir(Duration.ofDays(7))) {
+            assertEquals(List.of(2L, 3L), offsets(log.ler(0, 10)));
+            assertEquals(4L, log.getProximoOffset());
+            // Cabeçalho e uma linha por usuário.
+            assertEquals(3, Files.readAllLines(pasta.resolve("alteracoes.log")).size());
+            AlteracaoDTO nova = log.registrar(UsuarioEvento.removido(2L), Instant.now());
+            assertEquals(4L, nova.getOffset());
+        }
+    }
+
+    @Test
+    @DisplayName("Teste para expirar remocoes na compactacao e avancar o inicio do log")
+    void testExpirarRemocoes() throws IOException {
+        try (LogAlteracoes log = abrir(Duration.ofHours(1))) {
+            Instant agora = Instant.now();
+            log.registrar(UsuarioEvento.salvo(usuario(1L, "Ana", 0L)), agora);
+            log.registrar(UsuarioEvento.salvo(usuario(2L, "Bia", 0L)), agora);
+            log.registrar(UsuarioEvento.removido(1L), agora);
+            assertEquals(0L, log.getInicio());
+
+            log.compactar(agora.plus(Duration.ofHours(2)));
+
+            assertEquals(List.of(2L), offsets(log.ler(0, 10)));
+            assertEquals(4L, log.getInicio());
+            assertEquals(4L, log.getProximoOffset());
+        }
+        // Início e próximo offset sobrevivem à reabertura, mesmo sem a remoção no arquivo.
+        try (LogAlteracoes log = abrir(Duration.ofHours(1))) {
+            assertEquals(4L, log.getInicio());
+            assertEquals(4L, log.getProximoOffset());
+        }
+    }
+
+    @Test
+    @DisplayName("Teste para manter o log so em memoria com o banco em memoria, sem repetir offsets de outra execucao")
+    void testLogEmMemoria() throws IOException, InterruptedException {
+        long proximoAnterior;
+        try (LogAlteracoes log = new LogAlteracoes(null, objectMapper, Duration.ofDays(7), 1000)) {
+            log.abrir();
+            log.registrar(UsuarioEvento.salvo(usuario(1L, "Ana", 0L)), Instant.now());
+            log.registrar(UsuarioEvento.removido(1L), Instant.now());
+            proximoAnterior = log.getProximoOffset();
+        }
+        Thread.sleep(2);
+
+        // Reinício com um banco novo: o id 1 volta a ser usado e o SALVO entra no log; o offset antigo fica antes do início.
+        try (LogAlteracoes log = new LogAlteracoes(null, objectMapper, Duration.ofDays(7), 1000)) {
+            log.abrir();
+            assertTrue(log.getInicio() > proximoAnterior);
+            AlteracaoDTO nova = log.registrar(UsuarioEvento.salvo(usuario(1L, "Bia", 0L)), Instant.now());
+            assertNotNull(nova);
+            assertEquals(List.of(nova.getOffset()), offsets(log.ler(log.getInicio(), 10)));
+        }
+        try (Stream<Path> arquivos = Files.list(pasta)) {
+            assertEquals(0, arquivos.count());
+        }
+    }
+
+    private LogAlteracoes abrir(Duration retencaoRemocoes) throws IOException {
+        LogAlteracoes log = new LogAlteracoes(pasta.resolve("alteracoes.log"), objectMapper, retencaoRemocoes, 1000);
+        log.abrir();
+        return log;
+    }
+
+    private static List<Long> offsets(AlteracoesDTO pagina) {
+        return pagina.getAlteracoes().stream().map(AlteracaoDTO::getOffset).toList();
+    }
+
+    private static UsuarioResponseDTO usuario(Long id, String nome, Long versao) {
+        return new UsuarioResponseDTO(id, nome, "C-" + id, versao);
+    }
+}
@@ -0,0 +1,146 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.shard.ContextoShard;
+import com.br.tutorial.demo.shard.RoteadorShards;
+import com.br.tutorial.demo.shard.RoteamentoDataSource;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RoteadorShardsTest {
+    // Três shards H2 em memória com o esquema de schema-shards.sql, esvaziados a cada teste.
+    private final RoteamentoDataSource dataSource = shards(3);
+    private final RoteadorShards roteadorShards = new RoteadorShards(3, dataSource);
+
+    @AfterEach
+    public void encerrar() {
+        roteadorShards.encerrar();
+    }
+
+    @Test
+    @DisplayName("Teste para rotear operações por id e usuários novos para um único shard")
+    void testRotearParaUmShard() throws Throwable {
+        // O "repositório" simulado devolve o shard em que foi executado.
+        ProceedingJoinPoint porId = chamada("buscarProjetadoPorId", 7L);
+        when(porId.proceed()).thenAnswer(invocacao -> ContextoShard.atual());
+
+        // 7 % 3 = 1
+        assertEquals(1, roteadorShards.rotear(porId));
+        assertNull(ContextoShard.atual());
+
+        // Usuários novos com o mesmo nome vão sempre para o mesmo shard (o índice único do shard recusa o segundo).
+        Usuario usuario = new Usuario();
+        usuario.setNome("Ana");
+        ProceedingJoinPoint salvar = chamada("saveAndFlush", usuario);
+        when(salvar.proceed()).thenAnswer(invocacao -> ContextoShard.atual());
+        assertEquals(Math.floorMod("Ana".hashCode(), 3), roteadorShards.rotear(salvar));
+        assertEquals(roteadorShards.rotear(salvar), roteadorShards.rotear(salvar));
+
+        // Métodos sem regra de roteamento são recusados.
+        assertThrows(UnsupportedOperationException.class, () -> roteadorShards.rotear(chamada("findAll")));
+    }
+
+    @Test
+    @DisplayName("Teste para consultar todos os shards e intercalar a página por id")
+    void testConsultarTodosOsShards() throws Throwable {
+        // Cada shard tem os ids com id % 3 igual ao seu número, em ordem.
+        ProceedingJoinPoint pagina = chamada("buscarPaginaProjetada", 0L, PageRequest.of(0, 4));
+        when(pagina.proceed()).thenAnswer(invocacao -> {
+            int shard = ContextoShard.atual();
+            return List.of(usuario(shard + 3L), usuario(shard + 6L), usuario(shard + 9L));
+        });
+
+        @SuppressWarnings("unchecked")
+        List<UsuarioResponseDTO> usuarios = (List<UsuarioResponseDTO>) roteadorShards.rotear(pagina);
+
+        // Os menores ids entre os três shards, cortados no tamanho da página.
+        assertEquals(List.of(3L, 4L, 5L, 6L), usuarios.stream().map(UsuarioResponseDTO::getId).toList());
+        verify(pagina, times(3)).proceed();
+
+        // findByNome devolve o usuário do shard em que ele existe.
+        ProceedingJoinPoint porNome = chamada("findByNome", "Ana");
+        Usuario ana = new Usuario();
+        when(porNome.proceed()).thenAnswer(invocacao -> ContextoShard.atual() == 2 ? Optional.of(ana) : Optional.empty());
+        assertEquals(Optional.of(ana), roteadorShards.rotear(porNome));
+    }
+
+    @Test
+    @DisplayName("Teste para recusar nome ou codigo já gravado em outro shard, antes de gravar")
+    void testUnicidadeEntreShards() throws Throwable {
+        // A Ana (id 4) está no shard 1.
+        ContextoShard.executar(1, () -> new JdbcTemplate(dataSource)
+                .update("insert into usuario (id, nome, codigo, versao) values (4, 'Ana', 'A-1', 0)"));
+
+        // Usuário novo com o nome da Ana: recusado com a restrição do nome, sem chegar ao banco.
+        Usuario repetido = new Usuario();
+        repetido.setNome("Ana");
+        repetido.setCodigo("X-1");
+        ProceedingJoinPoint salvar = chamada("saveAndFlush", repetido);
+        DataIntegrityViolationException erro = assertThrows(DataIntegrityViolationException.class,
+                () -> roteadorShards.rotear(salvar));
+        assertEquals(Usuario.UK_NOME, ((ConstraintViolationException) erro.getCause()).getConstraintName());
+        verify(salvar, never()).proceed();
+
+        // Outro usuário (id 8, shard 2) alterado para o codigo da Ana: recusado com a restrição do codigo.
+        ProceedingJoinPoint renomear = chamada("atualizarSeVersao", 8L, "Bia", "A-1", 0L, Instant.now());
+        erro = assertThrows(DataIntegrityViolationException.class, () -> roteadorShards.rotear(renomear));
+        assertEquals(Usuario.UK_CODIGO, ((ConstraintViolationException) erro.getCause()).getConstraintName());
+        verify(renomear, never()).proceed();
+
+        // A própria Ana mantém os seus valores: a atualização segue para o shard do id.
+        ProceedingJoinPoint atualizar = chamada("atualizarSeVersao", 4L, "Ana", "A-1", 0L, Instant.now());
+        when(atualizar.proceed()).thenAnswer(invocacao -> ContextoShard.atual());
+        assertEquals(1, roteadorShards.rotear(atualizar));
+    }
+
+    private static RoteamentoDataSource shards(int quantidade) {
+        ResourceDatabasePopulator esquema = new ResourceDatabasePopulator(new ClassPathResource("schema-shards.sql"));
+        Map<Object, Object> shards = new HashMap<>();
+        for (int shard = 0; shard < quantidade; shard++) {
+            DriverManagerDataSource banco = new DriverManagerDataSource(
+                    "jdbc:h2:mem:roteador-shard-" + shard + ";DB_CLOSE_DELAY=-1");
+            esquema.execute(banco);
+            new JdbcTemplate(banco).update("delete from usuario");
+            shards.put(shard, banco);
+        }
+        RoteamentoDataSource roteamento = new RoteamentoDataSource();
+        roteamento.setTargetDataSources(shards);
+        roteamento.afterPropertiesSet();
+        return roteamento;
+    }
+
+    private static ProceedingJoinPoint chamada(String metodo, Object... argumentos) {
+        ProceedingJoinPoint chamada = mock(ProceedingJoinPoint.class);
+        Signature assinatura = mock(Signature.class);
+        when(assinatura.getName()).thenReturn(metodo);
+        when(chamada.getSignature()).thenReturn(assinatura);
+        when(chamada.getArgs()).thenReturn(argumentos);
+        return chamada;
+    }
+
+    private static UsuarioResponseDTO usuario(long id) {
+        UsuarioResponseDTO usuarioResponseDTO = new UsuarioResponseDTO();
+        usuarioResponseDTO.setId(id);
+        return usuarioResponseDTO;
+    }
+}
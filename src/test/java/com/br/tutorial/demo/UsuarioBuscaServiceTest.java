@@ -0,0 +1,79 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.repository.UsuarioRepository;
+import com.br.tutorial.demo.response.UsuarioBuscaResponseDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioBuscaService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UsuarioBuscaServiceTest {
+    @Mock // Indica que esta classe será uma instância simulada.
+    private UsuarioRepository usuarioRepository;
+
+    @BeforeEach // Método executado antes de cada teste dentro da classe de testes.
+    public void setup() {
+        MockitoAnnotations.openMocks(this); // Inicializar mocks criados com @Mock.
+    }
+
+    // Sem espera entre tentativas, para o teste não depender do relógio.
+    private UsuarioBuscaService servico(int tentativas) {
+        return new UsuarioBuscaService(usuarioRepository, Duration.ofSeconds(1), 50, 10, tentativas, Duration.ZERO);
+    }
+
+    @Test
+    @DisplayName("Teste para refazer a carga do índice quando a primeira leitura do banco falha")
+    void testCarregarComRetentativa() throws Exception {
+        // Configurando o mock usuarioRepository para falhar na primeira página e responder na segunda tentativa.
+        when(usuarioRepository.buscarPaginaProjetada(anyLong(), any()))
+                .thenThrow(new DataAccessResourceFailureException("banco indisponivel"))
+                .thenReturn(List.of(new UsuarioResponseDTO(1L, "Maria da Silva", "AB-100", 0L)));
+        UsuarioBuscaService servico = servico(3);
+
+        servico.carregarAoIniciar();
+
+        // Verificando se a segunda tentativa carregou o índice e a busca passou a ser completa.
+        UsuarioBuscaResponseDTO resposta = aguardarCarga(servico);
+        assertTrue(resposta.isCompleto());
+        assertEquals(1L, resposta.getUsuarios().get(0).getId());
+        verify(usuarioRepository, times(2)).buscarPaginaProjetada(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Teste para desistir da carga após as tentativas, mantendo a busca respondendo como incompleta")
+    void testCarregarEsgotandoTentativas() throws Exception {
+        when(usuarioRepository.buscarPaginaProjetada(anyLong(), any()))
+                .thenThrow(new DataAccessResourceFailureException("banco indisponivel"));
+        UsuarioBuscaService servico = servico(2);
+
+        servico.carregarAoIniciar();
+        verify(usuarioRepository, timeout(5000).times(2)).buscarPaginaProjetada(anyLong(), any());
+
+        // Verificando se não houve tentativa além do limite e se a busca não se declara completa.
+        Thread.sleep(100);
+        verify(usuarioRepository, times(2)).buscarPaginaProjetada(anyLong(), any());
+        assertFalse(servico.buscar("maria", 10).isCompleto());
+    }
+
+    // A carga roda em outra thread: espera até a busca se declarar completa, por no máximo cinco segundos.
+    private static UsuarioBuscaResponseDTO aguardarCarga(UsuarioBuscaService servico) throws InterruptedException {
+        long limite = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        UsuarioBuscaResponseDTO resposta = servico.buscar("maria", 10);
+        while (!resposta.isCompleto() && System.nanoTime() - limite < 0) {
+            Thread.sleep(10);
+            resposta = servico.buscar("maria", 10);
+        }
+        return resposta;
+    }
+}
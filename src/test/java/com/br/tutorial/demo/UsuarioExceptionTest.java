@@ -1,10 +1,16 @@
 package com.br.tutorial.demo;
 
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
 import com.br.tutorial.demo.entity.Usuario;
 import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.handler.entidadeHandler.ConflitoException;
+import com.br.tutorial.demo.mapper.UsuarioMapper;
 import com.br.tutorial.demo.repository.UsuarioRepository;
 import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
 import com.br.tutorial.demo.service.UsuarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,7 +19,15 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -27,6 +41,15 @@ public class UsuarioExceptionTest {
     private Usuario usuario;
     @Mock
     private UsuarioRequestDTO usuarioRequestDTO;
+    @Mock
+    private UsuarioMapper usuarioMapper;
+    @Mock
+    private ApplicationEventPublisher eventos;
+    @Spy // Objetos reais: o cache e a coalescência de consultas não dependem do banco.
+    private CacheManager cacheManager = new ConcurrentMapCacheManager();
+    @Spy
+    private ConsultaCoalescida<Long, UsuarioResponseDTO> consultasPorId =
+            new ConsultaCoalescida<>(new SimpleMeterRegistry(), "usuario.coalescencia", Duration.ofSeconds(1));
     @InjectMocks // Injeta automaticamente objetos simulados, permitindo o uso de dependências simuladas.
     private UsuarioService usuarioService;
 
@@ -43,9 +66,12 @@ public class UsuarioExceptionTest {
     @Test
     @DisplayName("Teste para verificar o lançamento de exceção ao salvar um Usuario com nome existente")
     void testSalvarUsuarioLancarBadRequest() {
-        // Configurando o comportamento do mock usuarioRepository para retornar um Optional contendo o objeto usuario simulado
-        // quando o método findByNome é chamado com o nome de usuário fornecido no objeto usuarioRequestDTO.
-        when(usuarioRepository.findByNome(usuarioRequestDTO.getNome())).thenReturn(Optional.of(usuario));
+        // Configurando o mock usuarioMapper para devolver o objeto usuario simulado a partir do usuarioRequestDTO.
+        when(usuarioMapper.paraEntidade(usuarioRequestDTO)).thenReturn(usuario);
+
+        // Configurando o comportamento do mock usuarioRepository para lançar a violação do índice único de nome
+        // quando o método saveAndFlush é chamado, simulando o que o banco faz com um nome repetido.
+        when(usuarioRepository.saveAndFlush(usuario)).thenThrow(violacaoDeIndiceUnico(Usuario.UK_NOME));
 
         // Verificando se a exceção BadRequestException é lançada quando o método salvar é chamado no usuarioService.
         BadRequestException badRequestException = assertThrows(BadRequestException.class, () -> usuarioService.salvar(usuarioRequestDTO));
@@ -53,20 +79,70 @@ public class UsuarioExceptionTest {
         // Verificando se a mensagem da exceção lançada é a esperada.
         assertEquals(badRequestException.getMessage(), "Este nome para Usuario ja existe");
 
-        // Verificando se o método findByNome do mock usuarioRepository foi chamado exatamente uma vez com o nome de usuário fornecido.
-        verify(usuarioRepository, times(1)).findByNome(usuarioRequestDTO.getNome());
+        // Verificando se o método saveAndFlush do mock usuarioRepository foi chamado exatamente uma vez.
+        verify(usuarioRepository, times(1)).saveAndFlush(usuario);
+
+        // Verificando se a consulta prévia por nome não é mais feita: a unicidade fica a cargo do banco.
+        verify(usuarioRepository, never()).findByNome(any());
+    }
+
+    @Test
+    @DisplayName("Teste para verificar o lançamento de exceção ao salvar um Usuario com codigo existente")
+    void testSalvarUsuarioCodigoExistenteLancarBadRequest() {
+        // Configurando o mock usuarioMapper para devolver o objeto usuario simulado a partir do usuarioRequestDTO.
+        when(usuarioMapper.paraEntidade(usuarioRequestDTO)).thenReturn(usuario);
+
+        // Configurando o comportamento do mock usuarioRepository para lançar a violação do índice único de codigo.
+        when(usuarioRepository.saveAndFlush(usuario)).thenThrow(violacaoDeIndiceUnico(Usuario.UK_CODIGO));
+
+        // Verificando se a exceção BadRequestException é lançada com a mensagem referente ao codigo.
+        BadRequestException badRequestException = assertThrows(BadRequestException.class, () -> usuarioService.salvar(usuarioRequestDTO));
+        assertEquals(badRequestException.getMessage(), "Este codigo para Usuario ja existe");
+    }
+
+    @Test
+    @DisplayName("Teste para identificar a restrição violada pelo nome, mesmo com valores que contêm o nome da outra")
+    void testSalvarUsuarioComValorParecidoComRestricao() {
+        when(usuarioMapper.paraEntidade(usuarioRequestDTO)).thenReturn(usuario);
+
+        // Nome repetido cujo valor é o nome da restrição de codigo: a mensagem do H2 contém os dois.
+        when(usuarioRepository.saveAndFlush(usuario)).thenThrow(violacaoDeIndiceUnico(Usuario.UK_NOME, Usuario.UK_CODIGO));
+        BadRequestException badRequestException = assertThrows(BadRequestException.class, () -> usuarioService.salvar(usuarioRequestDTO));
+        assertEquals("Este nome para Usuario ja existe", badRequestException.getMessage());
+
+        // O mesmo sem o Hibernate na cadeia (driver R2DBC): o nome é lido da mensagem do H2, antes dos valores.
+        reset(usuarioRepository);
+        when(usuarioRepository.saveAndFlush(usuario)).thenThrow(new DataIntegrityViolationException("duplicado",
+                violacaoH2(Usuario.UK_CODIGO, Usuario.UK_NOME)));
+        badRequestException = assertThrows(BadRequestException.class, () -> usuarioService.salvar(usuarioRequestDTO));
+        assertEquals("Este codigo para Usuario ja existe", badRequestException.getMessage());
+    }
+
+    private static DataIntegrityViolationException violacaoDeIndiceUnico(String indice) {
+        return violacaoDeIndiceUnico(indice, "valor");
+    }
+
+    // Simula a exceção traduzida pelo Spring quando o H2 rejeita um valor repetido em um índice único. Como o
+    // Hibernate faz com o H2, o nome da restrição vem com o restante da mensagem, inclusive os valores.
+    private static DataIntegrityViolationException violacaoDeIndiceUnico(String indice, String valor) {
+        SQLException causa = violacaoH2(indice, valor);
+        String restricao = causa.getMessage().substring(causa.getMessage().indexOf("violation: ") + "violation: ".length());
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", causa, "insert into usuario", restricao));
+    }
 
-        // Verificando se o método save do mock usuarioRepository nunca foi chamado com qualquer objeto Usuario.
-        verify(usuarioRepository, never()).save(any(Usuario.class));
+    private static SQLException violacaoH2(String indice, String valor) {
+        return new SQLException("Unique index or primary key violation: \"PUBLIC." + indice
+                + "_INDEX_E ON PUBLIC.USUARIO(...) VALUES ( /* 1 */ '" + valor + "' )\"", "23505");
     }
 
     @ParameterizedTest(name = "Teste com ID:{0}") // Será executado várias vezes com valores de ids diferentes.
     @MethodSource("idsParaTeste")  // Anotação indicando uso das streams de ids no @ParameterizedTest
     @DisplayName("Teste para verificar o lançamento de exceção ao buscar um Usuario inexistente por id")
     void testeBuscarPorIdLancarExcecao(Long id) {
-        // Configurando o comportamento do mock usuarioRepository para retornar um Optional vazio quando o método findById
-        // é chamado com o ID fornecido.
-        when(usuarioRepository.findById(id)).thenReturn(Optional.empty());
+        // Configurando o comportamento do mock usuarioRepository para retornar um Optional vazio quando o método
+        // buscarProjetadoPorId é chamado com o ID fornecido.
+        when(usuarioRepository.buscarProjetadoPorId(id)).thenReturn(Optional.empty());
 
         // Verificando se a exceção BadRequestException é lançada quando o método buscarPorId é chamado no usuarioService.
         BadRequestException badRequestException =
@@ -75,17 +151,34 @@ public class UsuarioExceptionTest {
         // Verificando se a mensagem da exceção lançada é a esperada.
         assertEquals(badRequestException.getMessage(), "Usuario não encontrado");
 
-        // Verificando se o método findById do mock usuarioRepository foi chamado exatamente uma vez com o ID fornecido.
-        verify(usuarioRepository, times(1)).findById(id);
+        // Verificando se o método buscarProjetadoPorId do mock usuarioRepository foi chamado exatamente uma vez com o ID fornecido.
+        verify(usuarioRepository, times(1)).buscarProjetadoPorId(id);
+    }
+
+    @Test
+    @DisplayName("Teste para verificar que o erro de Usuario inexistente é uma instância única e sem stack trace")
+    void testeBuscarPorIdExcecaoPreAlocada() {
+        when(usuarioRepository.buscarProjetadoPorId(anyLong())).thenReturn(Optional.empty());
+
+        // Buscas por ids diferentes recebem a mesma instância: nada é alocado no caminho de erro.
+        BadRequestException primeira = assertThrows(BadRequestException.class, () -> usuarioService.buscarPorId(1L));
+        BadRequestException segunda = assertThrows(BadRequestException.class, () -> usuarioService.buscarPorId(2L));
+        assertSame(primeira, segunda);
+
+        // Verificando se o stack trace não foi preenchido.
+        assertEquals(0, primeira.getStackTrace().length);
     }
 
     @ParameterizedTest(name = "Teste com ID:{0}")
     @MethodSource("idsParaTeste")
     @DisplayName("teste para verificar lançamento de exceção ao atualizar Usuario inexistente")
     void testeAtualizarLancarExcecao(Long id) {
-        // Configurando o comportamento do mock usuarioRepository para retornar um Optional vazio quando o método findById
+        // Sem versão informada pelo cliente, o serviço consulta a versão atual do usuário.
+        when(usuarioRequestDTO.getVersao()).thenReturn(null);
+
+        // Configurando o comportamento do mock usuarioRepository para retornar um Optional vazio quando o método buscarVersao
         // é chamado com o ID fornecido.
-        when(usuarioRepository.findById(id)).thenReturn(Optional.empty());
+        when(usuarioRepository.buscarVersao(id)).thenReturn(Optional.empty());
 
         // Verificando se a exceção BadRequestException é lançada quando o método atualizar é chamado no usuarioService.
         BadRequestException badRequestException =
@@ -94,20 +187,41 @@ public class UsuarioExceptionTest {
         // Verificando se a mensagem da exceção lançada é a esperada.
         assertEquals(badRequestException.getMessage(), "Usuario não encontrado");
 
-        // Verificando se o método findById do mock usuarioRepository foi chamado exatamente uma vez com o ID fornecido.
-        verify(usuarioRepository, times(1)).findById(id);
+        // Verificando se o método buscarVersao do mock usuarioRepository foi chamado exatamente uma vez com o ID fornecido.
+        verify(usuarioRepository, times(1)).buscarVersao(id);
 
-        // Verificando se o método save do mock usuarioRepository nunca foi chamado com qualquer objeto Usuario.
-        verify(usuarioRepository, never()).save(any(Usuario.class));
+        // Verificando se o UPDATE nunca foi executado.
+        verify(usuarioRepository, never()).atualizarSeVersao(anyLong(), any(), any(), anyLong(), any());
+    }
+
+    @ParameterizedTest(name = "Teste com ID:{0}")
+    @MethodSource("idsParaTeste")
+    @DisplayName("teste para verificar lançamento de exceção ao atualizar Usuario com versão desatualizada")
+    void testeAtualizarComVersaoDesatualizadaLancarExcecao(Long id) {
+        // O cliente envia uma versão antiga: o UPDATE condicionado à versão não altera nenhuma linha,
+        // mas o usuário continua existindo.
+        when(usuarioRequestDTO.getVersao()).thenReturn(1L);
+        when(usuarioRepository.atualizarSeVersao(eq(id), isNull(), isNull(), eq(1L), any(Instant.class))).thenReturn(0);
+        when(usuarioRepository.existsById(id)).thenReturn(true);
+
+        // Verificando se a exceção ConflitoException é lançada quando o método atualizar é chamado no usuarioService.
+        ConflitoException conflitoException =
+                assertThrows(ConflitoException.class, () -> usuarioService.atualizar(id, usuarioRequestDTO));
+
+        // Verificando se a mensagem da exceção lançada é a esperada.
+        assertEquals(conflitoException.getMessage(), "Usuario foi alterado por outra requisicao");
+
+        // Verificando se nenhum mapeamento de resposta foi feito.
+        verify(usuarioMapper, never()).paraResponseDTO(any(Usuario.class));
     }
 
     @ParameterizedTest(name = "Teste com ID:{0}")
     @MethodSource("idsParaTeste")
     @DisplayName("teste para verificar lançamento de exceção ao deletar Usuario inexistente")
     void testeDeletarLancarExcecao(Long id) {
-        // Configurando o comportamento do mock usuarioRepository para retornar um Optional vazio quando o método findById
-        // é chamado com o ID fornecido.
-        when(usuarioRepository.findById(id)).thenReturn(Optional.empty());
+        // Configurando o comportamento do mock usuarioRepository para indicar que nenhuma linha foi removida quando o método
+        // deletarPorId é chamado com o ID fornecido.
+        when(usuarioRepository.deletarPorId(id)).thenReturn(0);
 
         // Verificando se a exceção BadRequestException é lançada quando o método deletar é chamado no usuarioService.
         BadRequestException badRequestException =
@@ -116,8 +230,8 @@ public class UsuarioExceptionTest {
         // Verificando se a mensagem da exceção lançada é a esperada.
         assertEquals(badRequestException.getMessage(), "Usuario não encontrado");
 
-        // Verificando se o método findById do mock usuarioRepository foi chamado exatamente uma vez com o ID fornecido.
-        verify(usuarioRepository, times(1)).findById(id);
+        // Verificando se o método deletarPorId do mock usuarioRepository foi chamado exatamente uma vez com o ID fornecido.
+        verify(usuarioRepository, times(1)).deletarPorId(id);
 
         // Verificando se o método delete do mock usuarioRepository nunca foi chamado com qualquer objeto Usuario.
         verify(usuarioRepository, never()).delete(any(Usuario.class));
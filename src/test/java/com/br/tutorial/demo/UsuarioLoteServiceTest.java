@@ -0,0 +1,310 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.mapper.UsuarioMapperDireto;
+import com.br.tutorial.demo.repository.UsuarioRepository;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.ResultadoLoteDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioLoteService;
+import com.br.tutorial.demo.service.UsuarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class UsuarioLoteServiceTest {
+    @Mock // Indica que esta classe será uma instância simulada.
+    private UsuarioRepository usuarioRepository;
+    @Mock // Sem banco: as transações de cada bloco só passam pelo gerenciador simulado.
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private ApplicationEventPublisher eventos;
+    // Objetos reais: o cache e o mapeamento direto não dependem do banco.
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+    private final ConsultaCoalescida<Long, UsuarioResponseDTO> consultasPorId =
+            new ConsultaCoalescida<>(new SimpleMeterRegistry(), "usuario.coalescencia", Duration.ofSeconds(1));
+    private final ArgumentCaptor<UsuarioEvento> eventosPublicados = ArgumentCaptor.forClass(UsuarioEvento.class);
+
+    @BeforeEach // Método executado antes de cada teste dentro da classe de testes.
+    public void setup() {
+        MockitoAnnotations.openMocks(this); // Inicializar mocks criados com @Mock.
+    }
+
+    // O tamanho do bloco vem da configuração: cada teste escolhe o seu.
+    private UsuarioLoteService servico(int tamanhoBloco) {
+        return new UsuarioLoteService(usuarioRepository, new UsuarioMapperDireto(), transactionManager, cacheManager,
+                consultasPorId, eventos, tamanhoBloco);
+    }
+
+    @Test
+    @DisplayName("Teste para salvar um lote em blocos, recusando itens sem nome e publicando cada inclusão")
+    void testSalvarLoteEmBlocos() {
+        // Configurando o mock usuarioRepository para atribuir ids sequenciais aos usuários de cada saveAll.
+        when(usuarioRepository.saveAll(anyList())).thenAnswer(invocacao -> comIds(invocacao.getArgument(0)));
+
+        List<ResultadoLoteDTO> resultados = servico(2).salvarLote(List.of(
+                request(null, "Ana", "A-1", null), request(null, " ", "X-1", null), request(null, "Bia", "B-1", null)));
+
+        // Verificando se cada posição tem o seu resultado, na ordem do lote.
+        assertEquals(3, resultados.size());
+        assertTrue(resultados.get(0).isSucesso());
+        assertEquals("nome obrigatorio", resultados.get(1).getMensagem());
+        assertTrue(resultados.get(2).isSucesso());
+        assertEquals(List.of(0, 1, 2), resultados.stream().map(ResultadoLoteDTO::getIndice).toList());
+
+        // Verificando se os dois blocos foram gravados em batch, sem gravação item a item.
+        verify(usuarioRepository, times(2)).saveAll(anyList());
+        verify(usuarioRepository, never()).saveAndFlush(any(Usuario.class));
+
+        // Verificando se só as inclusões confirmadas foram publicadas.
+        verify(eventos, times(2)).publishEvent(eventosPublicados.capture());
+        assertTrue(eventosPublicados.getAllValues().stream().allMatch(evento -> evento.getTipo() == UsuarioEvento.Tipo.SALVO));
+    }
+
+    @Test
+    @DisplayName("Teste para refazer item a item o bloco com nome repetido, informando o erro só do item duplicado")
+    void testSalvarLoteComDuplicado() {
+        // O bloco inteiro falha no índice único; sozinho, só o segundo item é rejeitado.
+        when(usuarioRepository.saveAll(anyList())).thenThrow(violacaoDeIndiceUnico(Usuario.UK_NOME));
+        when(usuarioRepository.saveAndFlush(argThat(usuario -> usuario != null && "Ana".equals(usuario.getNome()))))
+                .thenAnswer(invocacao -> comId(invocacao.getArgument(0), 10L));
+        when(usuarioRepository.saveAndFlush(argThat(usuario -> usuario != null && "Bia".equals(usuario.getNome()))))
+                .thenThrow(violacaoDeIndiceUnico(Usuario.UK_NOME));
+
+        List<ResultadoLoteDTO> resultados = servico(10).salvarLote(List.of(
+                request(null, "Ana", "A-1", null), request(null, "Bia", "B-1", null)));
+
+        assertTrue(resultados.get(0).isSucesso());
+        assertEquals(10L, resultados.get(0).getId());
+        assertFalse(resultados.get(1).isSucesso());
+        assertEquals("Este nome para Usuario ja existe", resultados.get(1).getMensagem());
+
+        // Verificando se cada item teve a sua transação e se só a inclusão confirmada foi publicada.
+        verify(usuarioRepository, times(2)).saveAndFlush(any(Usuario.class));
+        verify(eventos, times(1)).publishEvent(eventosPublicados.capture());
+        assertEquals(10L, eventosPublicados.getValue().getId());
+    }
+
+    @Test
+    @DisplayName("Teste para atualizar um lote informando id ausente, repetido, não encontrado e versão desatualizada")
+    void testAtualizarLoteComResultadosPorItem() {
+        // Configurando o mock usuarioRepository para carregar o bloco com os usuários 1 (versão 0) e 2 (versão 5).
+        when(usuarioRepository.findAllById(anyIterable())).thenReturn(List.of(usuario(1L, "Ana", 0L), usuario(2L, "Bia", 5L)));
+
+        List<ResultadoLoteDTO> resultados = servico(10).atualizarLote(List.of(
+                request(null, "Sem id", "S-1", null),
+                request(1L, "Ana Maria", "A-1", 0L),
+                request(1L, "Ana de novo", "A-1", 0L),
+                request(2L, "Bia Souza", "B-1", 3L),
+                request(3L, "Caio", "C-1", null)));
+
+        assertEquals("id obrigatorio", resultados.get(0).getMensagem());
+        assertTrue(resultados.get(1).isSucesso());
+        assertEquals("Usuario repetido no lote", resultados.get(2).getMensagem());
+        assertEquals("Usuario foi alterado por outra requisicao", resultados.get(3).getMensagem());
+        assertEquals("Usuario não encontrado", resultados.get(4).getMensagem());
+
+        // Verificando se só o usuário alterado foi para o cache e foi publicado, depois do bloco.
+        assertEquals("Ana Maria", ((UsuarioResponseDTO) cacheManager.getCache(UsuarioService.CACHE_USUARIOS).get(1L).get()).getNome());
+        assertNull(cacheManager.getCache(UsuarioService.CACHE_USUARIOS).get(2L));
+        verify(eventos, times(1)).publishEvent(eventosPublicados.capture());
+        assertEquals(UsuarioEvento.Tipo.ATUALIZADO, eventosPublicados.getValue().getTipo());
+        assertEquals(1L, eventosPublicados.getValue().getId());
+    }
+
+    @Test
+    @DisplayName("Teste para refazer item a item o bloco de atualização que falhou por concorrência")
+    void testAtualizarLoteRefeitoItemAItem() {
+        // O UPDATE em batch perde a corrida por outro escritor; item a item, o usuário 1 ainda está na versão informada.
+        when(usuarioRepository.findAllById(anyIterable())).thenReturn(List.of(usuario(1L, "Ana", 0L), usuario(2L, "Bia", 0L)));
+        doThrow(new ObjectOptimisticLockingFailureException(Usuario.class, 2L)).when(usuarioRepository).flush();
+        when(usuarioRepository.findById(1L)).thenReturn(Optional.of(usuario(1L, "Ana", 0L)));
+        when(usuarioRepository.findById(2L)).thenReturn(Optional.of(usuario(2L, "Bia", 1L)));
+        when(usuarioRepository.saveAndFlush(any(Usuario.class))).thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        List<ResultadoLoteDTO> resultados = servico(10).atualizarLote(List.of(
+                request(1L, "Ana Maria", "A-1", 0L), request(2L, "Bia Souza", "B-1", 0L)));
+
+        assertTrue(resultados.get(0).isSucesso());
+        assertEquals("Usuario foi alterado por outra requisicao", resultados.get(1).getMensagem());
+        verify(usuarioRepository, times(1)).saveAndFlush(any(Usuario.class));
+        assertNotNull(cacheManager.getCache(UsuarioService.CACHE_USUARIOS).get(1L));
+        assertNull(cacheManager.getCache(UsuarioService.CACHE_USUARIOS).get(2L));
+    }
+
+    @Test
+    @DisplayName("Teste para deletar um lote com um único DELETE, removendo do cache e publicando só os existentes")
+    void testDeletarLote() {
+        cacheManager.getCache(UsuarioService.CACHE_USUARIOS).put(1L, new UsuarioResponseDTO(1L, "Ana", "A-1", 0L));
+        when(usuarioRepository.buscarIdsExistentes(anyCollection())).thenReturn(List.of(1L));
+
+        List<ResultadoLoteDTO> resultados = servico(10).deletarLote(Arrays.asList(1L, null, 1L, 2L));
+
+        assertTrue(resultados.get(0).isSucesso());
+        assertEquals("id obrigatorio", resultados.get(1).getMensagem());
+        assertEquals("Usuario repetido no lote", resultados.get(2).getMensagem());
+        assertEquals("Usuario não encontrado", resultados.get(3).getMensagem());
+
+        verify(usuarioRepository, times(1)).deleteAllByIdInBatch(List.of(1L));
+        assertNull(cacheManager.getCache(UsuarioService.CACHE_USUARIOS).get(1L));
+        verify(eventos, times(1)).publishEvent(eventosPublicados.capture());
+        assertEquals(UsuarioEvento.Tipo.REMOVIDO, eventosPublicados.getValue().getTipo());
+    }
+
+    @Test
+    @DisplayName("Teste para não devolver ao cache o usuário removido no lote enquanto uma busca por id estava em andamento")
+    void testDeletarLoteDuranteBuscaPorId() throws Exception {
+        CountDownLatch iniciada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        // A busca por id lê o usuário e fica presa até o lote removê-lo.
+        when(usuarioRepository.buscarProjetadoPorId(1L)).thenAnswer(invocacao -> {
+            iniciada.countDown();
+            assertTrue(liberar.await(5, TimeUnit.SECONDS));
+            return Optional.of(new UsuarioResponseDTO(1L, "Ana", "A-1", 0L));
+        });
+        when(usuarioRepository.buscarIdsExistentes(anyCollection())).thenReturn(List.of(1L));
+        UsuarioService usuarioService = new UsuarioService(usuarioRepository, new UsuarioMapperDireto(), eventos,
+                cacheManager, consultasPorId);
+
+        CompletableFuture<UsuarioResponseDTO> busca = CompletableFuture.supplyAsync(() -> usuarioService.buscarPorId(1L));
+        assertTrue(iniciada.await(5, TimeUnit.SECONDS));
+        List<ResultadoLoteDTO> resultados = servico(10).deletarLote(List.of(1L));
+        liberar.countDown();
+
+        // Verificando se a busca terminou com o que leu, mas sem gravar no cache o usuário já removido.
+        assertEquals(1L, busca.get(5, TimeUnit.SECONDS).getId());
+        assertTrue(resultados.get(0).isSucesso());
+        assertNull(cacheManager.getCache(UsuarioService.CACHE_USUARIOS).get(1L));
+    }
+
+    @Test
+    @DisplayName("Teste para deletar por prefixo de codigo que não combina com nenhum usuário")
+    void testDeletarPorPrefixoSemCorrespondencia() {
+        // O mock usuarioRepository devolve uma lista vazia para qualquer consulta de ids.
+        long removidos = servico(2).deletarPorPrefixoCodigo("Z-");
+
+        // Verificando se uma única consulta bastou e se nada foi apagado, removido do cache ou publicado.
+        assertEquals(0, removidos);
+        verify(usuarioRepository, times(1)).buscarIdsPorPadraoCodigo(eq("Z-%"), eq(0L), any());
+        verify(usuarioRepository, never()).deleteAllByIdInBatch(anyIterable());
+        verifyNoInteractions(eventos);
+    }
+
+    @Test
+    @DisplayName("Teste para deletar por prefixo de codigo em vários blocos, avançando o cursor pelo último id")
+    void testDeletarPorPrefixoEmVariosBlocos() {
+        emCache(1L, 2L, 3L, 4L, 5L);
+        // Configurando o mock usuarioRepository para devolver dois blocos cheios e um parcial, que encerra a busca.
+        when(usuarioRepository.buscarIdsPorPadraoCodigo(eq("A-%"), eq(0L), any())).thenReturn(List.of(1L, 2L));
+        when(usuarioRepository.buscarIdsPorPadraoCodigo(eq("A-%"), eq(2L), any())).thenReturn(List.of(3L, 4L));
+        when(usuarioRepository.buscarIdsPorPadraoCodigo(eq("A-%"), eq(4L), any())).thenReturn(List.of(5L));
+
+        long removidos = servico(2).deletarPorPrefixoCodigo("A-");
+
+        // Verificando se cada bloco teve o seu DELETE e se não houve consulta além do bloco parcial.
+        assertEquals(5, removidos);
+        verify(usuarioRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(usuarioRepository).deleteAllByIdInBatch(List.of(3L, 4L));
+        verify(usuarioRepository).deleteAllByIdInBatch(List.of(5L));
+        verify(usuarioRepository, times(3)).buscarIdsPorPadraoCodigo(anyString(), anyLong(), any());
+        assertRemovidos(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    @DisplayName("Teste para deletar por prefixo de codigo com % e _, tratados como caracteres e não como curingas")
+    void testDeletarPorPrefixoComCuringas() {
+        emCache(7L);
+        // Só o padrão escapado encontra o usuário: "%" e "_" sem escape combinariam com qualquer codigo.
+        when(usuarioRepository.buscarIdsPorPadraoCodigo(eq("10\\%\\_%"), eq(0L), any())).thenReturn(List.of(7L));
+
+        long removidos = servico(2).deletarPorPrefixoCodigo("10%_");
+
+        assertEquals(1, removidos);
+        verify(usuarioRepository, never()).buscarIdsPorPadraoCodigo(eq("10%_%"), anyLong(), any());
+        verify(usuarioRepository).deleteAllByIdInBatch(List.of(7L));
+        assertRemovidos(7L);
+    }
+
+    private void emCache(Long... ids) {
+        for (Long id : ids) {
+            cacheManager.getCache(UsuarioService.CACHE_USUARIOS).put(id, new UsuarioResponseDTO(id, "Usuario " + id, "A-" + id, 0L));
+        }
+    }
+
+    // Cada id removido saiu do cache e teve exatamente um evento REMOVIDO, na ordem da remoção.
+    private void assertRemovidos(Long... ids) {
+        for (Long id : ids) {
+            assertNull(cacheManager.getCache(UsuarioService.CACHE_USUARIOS).get(id));
+        }
+        verify(eventos, times(ids.length)).publishEvent(eventosPublicados.capture());
+        assertTrue(eventosPublicados.getAllValues().stream().allMatch(evento -> evento.getTipo() == UsuarioEvento.Tipo.REMOVIDO));
+        assertEquals(List.of(ids), eventosPublicados.getAllValues().stream().map(UsuarioEvento::getId).toList());
+    }
+
+    private static List<Usuario> comIds(List<Usuario> usuarios) {
+        List<Usuario> salvos = new ArrayList<>(usuarios.size());
+        for (Usuario usuario : usuarios) {
+            salvos.add(comId(usuario, (long) usuario.getNome().hashCode()));
+        }
+        return salvos;
+    }
+
+    private static Usuario comId(Usuario usuario, Long id) {
+        usuario.setId(id);
+        usuario.setVersao(0L);
+        return usuario;
+    }
+
+    private static Usuario usuario(Long id, String nome, Long versao) {
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setNome(nome);
+        usuario.setVersao(versao);
+        return usuario;
+    }
+
+    private static UsuarioRequestDTO request(Long id, String nome, String codigo, Long versao) {
+        UsuarioRequestDTO usuarioRequestDTO = new UsuarioRequestDTO();
+        usuarioRequestDTO.setId(id);
+        usuarioRequestDTO.setNome(nome);
+        usuarioRequestDTO.setCodigo(codigo);
+        usuarioRequestDTO.setVersao(versao);
+        return usuarioRequestDTO;
+    }
+
+    // Como o Hibernate traduz a rejeição do H2 a um valor repetido num índice único.
+    private static DataIntegrityViolationException violacaoDeIndiceUnico(String indice) {
+        SQLException causa = new SQLException("Unique index or primary key violation: \"PUBLIC." + indice
+                + "_INDEX_E ON PUBLIC.USUARIO(...) VALUES ( /* 1 */ 'valor' )\"", "23505");
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", causa, "insert into usuario",
+                        causa.getMessage().substring(causa.getMessage().indexOf("violation: ") + "violation: ".length())));
+    }
+}
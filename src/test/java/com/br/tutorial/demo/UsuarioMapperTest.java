@@ -0,0 +1,86 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.config.ModelMapperConfig;
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.mapper.UsuarioMapper;
+import com.br.tutorial.demo.mapper.UsuarioMapperDireto;
+import com.br.tutorial.demo.mapper.UsuarioModelMapper;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UsuarioMapperTest {
+    // Mapeamento reflexivo original, usado como referência, com a mesma configuração do profile modelmapper.
+    private final UsuarioMapper referencia = new UsuarioModelMapper(new ModelMapperConfig().modelMapper());
+    // Mapeamento direto que substitui o ModelMapper no profile padrão.
+    private final UsuarioMapper direto = new UsuarioMapperDireto();
+
+    // Combinações de campos preenchidos e nulos para comparar os dois mapeamentos.
+    private static Stream<Arguments> camposParaTeste() {
+        return Stream.of(
+                Arguments.of(1L, "Maria", "A-001", 0L, Instant.parse("2024-03-10T12:30:45.123456Z")),
+                Arguments.of(2L, "João", null, 5L, Instant.parse("2024-03-10T12:30:45Z")),
+                Arguments.of(null, "Ana", "B-002", null, null),
+                Arguments.of(null, null, null, null, null));
+    }
+
+    @ParameterizedTest(name = "Teste com id={0}, nome={1}, codigo={2}, versao={3}, atualizadoEm={4}")
+    @MethodSource("camposParaTeste")
+    @DisplayName("Teste para comparar o mapeamento de UsuarioRequestDTO para Usuario com o ModelMapper")
+    void testParaEntidadeIgualAoModelMapper(Long id, String nome, String codigo, Long versao, Instant atualizadoEm) {
+        // Criando o objeto de entrada com os campos do caso de teste.
+        UsuarioRequestDTO usuarioRequestDTO = new UsuarioRequestDTO();
+        usuarioRequestDTO.setId(id);
+        usuarioRequestDTO.setNome(nome);
+        usuarioRequestDTO.setCodigo(codigo);
+        usuarioRequestDTO.setVersao(versao);
+
+        // Mapeando com as duas implementações.
+        Usuario esperado = referencia.paraEntidade(usuarioRequestDTO);
+        Usuario obtido = direto.paraEntidade(usuarioRequestDTO);
+
+        // Verificando campo a campo se o resultado é o mesmo do ModelMapper.
+        assertEquals(esperado.getId(), obtido.getId());
+        assertEquals(esperado.getNome(), obtido.getNome());
+        assertEquals(esperado.getCodigo(), obtido.getCodigo());
+        assertEquals(esperado.getVersao(), obtido.getVersao());
+        // A data da última alteração não vem do cliente: a entidade sai sem ela e o banco a preenche ao gravar.
+        assertNull(esperado.getAtualizadoEm());
+        assertNull(obtido.getAtualizadoEm());
+    }
+
+    @ParameterizedTest(name = "Teste com id={0}, nome={1}, codigo={2}, versao={3}, atualizadoEm={4}")
+    @MethodSource("camposParaTeste")
+    @DisplayName("Teste para comparar o mapeamento de Usuario para UsuarioResponseDTO com o ModelMapper")
+    void testParaResponseDTOIgualAoModelMapper(Long id, String nome, String codigo, Long versao, Instant atualizadoEm) {
+        // Criando a entidade de entrada com os campos do caso de teste.
+        Usuario usuario = new Usuario();
+        usuario.setId(id);
+        usuario.setNome(nome);
+        usuario.setCodigo(codigo);
+        usuario.setVersao(versao);
+        usuario.setAtualizadoEm(atualizadoEm);
+
+        // Mapeando com as duas implementações.
+        UsuarioResponseDTO esperado = referencia.paraResponseDTO(usuario);
+        UsuarioResponseDTO obtido = direto.paraResponseDTO(usuario);
+
+        // Verificando campo a campo se o resultado é o mesmo do ModelMapper.
+        assertEquals(esperado.getId(), obtido.getId());
+        assertEquals(esperado.getNome(), obtido.getNome());
+        assertEquals(esperado.getCodigo(), obtido.getCodigo());
+        assertEquals(esperado.getVersao(), obtido.getVersao());
+        // A data da última alteração segue para a resposta sem perder precisão: é o Last-Modified do GET por id.
+        assertEquals(esperado.getAtualizadoEm(), obtido.getAtualizadoEm());
+        assertEquals(atualizadoEm, obtido.getAtualizadoEm());
+    }
+}
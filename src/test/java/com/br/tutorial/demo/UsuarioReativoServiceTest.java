@@ -0,0 +1,101 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.handler.entidadeHandler.ConflitoException;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioReativoService;
+import com.br.tutorial.demo.service.UsuarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class UsuarioReativoServiceTest {
+    private final DatabaseClient databaseClient = DatabaseClient.create(
+            ConnectionFactories.get("r2dbc:h2:mem:///reativo-teste?options=DB_CLOSE_DELAY=-1"));
+    private final ApplicationEventPublisher eventos = mock(ApplicationEventPublisher.class);
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+    private UsuarioReativoService usuarioReativoService;
+
+    @BeforeEach
+    public void setUp() {
+        // Mesma tabela e sequence que o Hibernate cria para a entidade Usuario.
+        executar("drop all objects");
+        executar("create sequence usuario_seq start with 1 increment by 50");
+        executar("create table usuario (id bigint primary key, nome varchar(255), codigo varchar(255), versao bigint, "
+                + "atualizado_em timestamp(6) with time zone, "
+                + "constraint " + Usuario.UK_NOME + " unique (nome), constraint " + Usuario.UK_CODIGO + " unique (codigo))");
+
+        usuarioReativoService = new UsuarioReativoService(databaseClient, eventos, cacheManager,
+                new ConsultaCoalescida<>(new SimpleMeterRegistry(), "usuario.coalescencia", Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("Teste para salvar, buscar e listar usuarios pelo driver reativo, recusando nome repetido")
+    void testSalvarEBuscar() {
+        UsuarioResponseDTO ana = usuarioReativoService.salvar(request(null, "Ana", "A-1")).block();
+        UsuarioResponseDTO bia = usuarioReativoService.salvar(request(null, "Bia", "B-1")).block();
+        assertNotEquals(ana.getId(), bia.getId());
+        assertEquals(0L, ana.getVersao());
+        verify(eventos, times(2)).publishEvent(any(UsuarioEvento.class));
+
+        BadRequestException erro = assertThrows(BadRequestException.class,
+                () -> usuarioReativoService.salvar(request(null, "Ana", "A-2")).block());
+        assertEquals("Este nome para Usuario ja existe", erro.getMessage());
+
+        // Sem o cache, a leitura vai ao banco.
+        cacheManager.getCache(UsuarioService.CACHE_USUARIOS).clear();
+        assertEquals("Bia", usuarioReativoService.buscarPorId(bia.getId()).block().getNome());
+        assertThrows(BadRequestException.class, () -> usuarioReativoService.buscarPorId(-1L).block());
+
+        // A listagem vem em ordem de id, lida aos poucos conforme a demanda.
+        List<String> nomes = usuarioReativoService.buscarTodos().limitRate(1)
+                .map(UsuarioResponseDTO::getNome).collectList().block();
+        assertEquals(List.of("Ana", "Bia"), nomes);
+    }
+
+    @Test
+    @DisplayName("Teste para atualizar com controle de versão e deletar pelo driver reativo")
+    void testAtualizarEDeletar() {
+        Long id = usuarioReativoService.salvar(request(null, "Ana", "A-1")).block().getId();
+
+        // Sem versão informada, parte da atual; com versão antiga, conflito.
+        assertEquals(1L, usuarioReativoService.atualizar(id, request(null, "Ana Maria", "A-1")).block().getVersao());
+        assertThrows(ConflitoException.class, () -> usuarioReativoService.atualizar(id, request(0L, "Ana", "A-1")).block());
+        assertThrows(BadRequestException.class, () -> usuarioReativoService.atualizar(-1L, request(0L, "X", "X")).block());
+        assertEquals("Ana Maria", usuarioReativoService.buscarPorId(id).block().getNome());
+
+        usuarioReativoService.deletar(id).block();
+        assertNull(cacheManager.getCache(UsuarioService.CACHE_USUARIOS).get(id));
+        assertThrows(BadRequestException.class, () -> usuarioReativoService.buscarPorId(id).block());
+        assertThrows(BadRequestException.class, () -> usuarioReativoService.deletar(id).block());
+    }
+
+    private void executar(String sql) {
+        databaseClient.sql(sql).fetch().rowsUpdated().block();
+    }
+
+    private static UsuarioRequestDTO request(Long versao, String nome, String codigo) {
+        UsuarioRequestDTO usuarioRequestDTO = new UsuarioRequestDTO();
+        usuarioRequestDTO.setNome(nome);
+        usuarioRequestDTO.setCodigo(codigo);
+        usuarioRequestDTO.setVersao(versao);
+        return usuarioRequestDTO;
+    }
+}
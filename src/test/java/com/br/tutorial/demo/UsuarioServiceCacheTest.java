@@ -0,0 +1,112 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
+import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.mapper.UsuarioMapper;
+import com.br.tutorial.demo.repository.UsuarioRepository;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+// As anotações @CachePut/@CacheEvict só valem pelo proxy do Spring: o service é criado num contexto com cache ligado.
+@SpringJUnitConfig(UsuarioServiceCacheTest.Config.class)
+class UsuarioServiceCacheTest {
+    @MockBean
+    private UsuarioRepository usuarioRepository;
+    @MockBean
+    private UsuarioMapper usuarioMapper;
+    @Autowired
+    private UsuarioService userService;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Configuration
+    @EnableCaching
+    @Import(UsuarioService.class)
+    static class Config {
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(UsuarioService.CACHE_USUARIOS);
+        }
+
+        @Bean
+        public ConsultaCoalescida<Long, UsuarioResponseDTO> consultasUsuarioPorId() {
+            return new ConsultaCoalescida<>(new SimpleMeterRegistry(), "usuario.coalescencia", Duration.ofSeconds(1));
+        }
+    }
+
+    @BeforeEach
+    public void setup() {
+        cacheManager.getCache(UsuarioService.CACHE_USUARIOS).clear();
+    }
+
+    @Test
+    @DisplayName("Teste para servir a segunda busca pelo mesmo ID do cache, sem ir ao repositório")
+    void testBuscarPorIdDoCache() {
+        UsuarioResponseDTO ana = new UsuarioResponseDTO(1L, "Ana", "A-1", 0L);
+        when(usuarioRepository.buscarProjetadoPorId(1L)).thenReturn(Optional.of(ana));
+
+        assertEquals(ana, userService.buscarPorId(1L));
+        assertEquals(ana, userService.buscarPorId(1L));
+
+        // Verificando se só a primeira busca consultou o banco.
+        verify(usuarioRepository, times(1)).buscarProjetadoPorId(1L);
+    }
+
+    @Test
+    @DisplayName("Teste para atualizar a entrada do cache no atualizar e removê-la no deletar")
+    void testAtualizarEDeletarMantemCache() {
+        when(usuarioRepository.buscarProjetadoPorId(1L)).thenReturn(Optional.of(new UsuarioResponseDTO(1L, "Ana", "A-1", 0L)));
+        userService.buscarPorId(1L);
+
+        // O atualizar grava no cache a resposta que devolve (@CachePut).
+        UsuarioResponseDTO atualizado = new UsuarioResponseDTO(1L, "Ana Maria", "A-1", 1L);
+        when(usuarioRepository.atualizarSeVersao(eq(1L), eq("Ana Maria"), eq("A-1"), eq(0L), any(Instant.class))).thenReturn(1);
+        when(usuarioMapper.paraEntidade(any(UsuarioRequestDTO.class))).thenReturn(new Usuario());
+        when(usuarioMapper.paraResponseDTO(any(Usuario.class))).thenReturn(atualizado);
+        userService.atualizar(1L, request("Ana Maria", "A-1", 0L));
+
+        assertEquals("Ana Maria", userService.buscarPorId(1L).getNome());
+        verify(usuarioRepository, times(1)).buscarProjetadoPorId(1L);
+
+        // O deletar remove a entrada (@CacheEvict): a busca seguinte volta ao banco.
+        when(usuarioRepository.deletarPorId(1L)).thenReturn(1);
+        userService.deletar(1L);
+
+        assertNull(cacheManager.getCache(UsuarioService.CACHE_USUARIOS).get(1L));
+        when(usuarioRepository.buscarProjetadoPorId(1L)).thenReturn(Optional.empty());
+        assertThrows(BadRequestException.class, () -> userService.buscarPorId(1L));
+        verify(usuarioRepository, times(2)).buscarProjetadoPorId(1L);
+    }
+
+    private static UsuarioRequestDTO request(String nome, String codigo, Long versao) {
+        UsuarioRequestDTO usuarioRequestDTO = new UsuarioRequestDTO();
+        usuarioRequestDTO.setNome(nome);
+        usuarioRequestDTO.setCodigo(codigo);
+        usuarioRequestDTO.setVersao(versao);
+        return usuarioRequestDTO;
+    }
+}
@@ -1,10 +1,15 @@
 package com.br.tutorial.demo;
 
+import com.br.tutorial.demo.coalescencia.ConsultaCoalescida;
 import com.br.tutorial.demo.entity.Usuario;
+import com.br.tutorial.demo.evento.UsuarioEvento;
+import com.br.tutorial.demo.mapper.UsuarioMapper;
 import com.br.tutorial.demo.repository.UsuarioRepository;
 import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.UsuarioPaginaResponseDTO;
 import com.br.tutorial.demo.response.UsuarioResponseDTO;
 import com.br.tutorial.demo.service.UsuarioService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,8 +18,16 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
-
+import org.mockito.Spy;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -33,7 +46,14 @@ class UsuarioServiceTest {
     @Mock
     private UsuarioRequestDTO usuarioRequestDTO;
     @Mock
-    private ModelMapper modelMapper;
+    private UsuarioMapper usuarioMapper;
+    @Mock
+    private ApplicationEventPublisher eventos;
+    @Spy // Objetos reais: o cache e a coalescência de consultas não dependem do banco.
+    private CacheManager cacheManager = new ConcurrentMapCacheManager();
+    @Spy
+    private ConsultaCoalescida<Long, UsuarioResponseDTO> consultasPorId =
+            new ConsultaCoalescida<>(new SimpleMeterRegistry(), "usuario.coalescencia", Duration.ofSeconds(1));
     @InjectMocks // Injeta automaticamente objetos simulados, permitindo o uso de dependências simuladas.
     private UsuarioService userService;
 
@@ -43,6 +63,8 @@ class UsuarioServiceTest {
         usuario = new Usuario(); // Criando objetos reais para teste.
         usuarioResponseDTO = new UsuarioResponseDTO(); // Criando objetos reais para teste.
         usuarioRequestDTO = new UsuarioRequestDTO(); // Criando objetos reais para teste.
+        // O mapeamento de listas é um método default da interface: delega para o paraResponseDTO simulado.
+        when(usuarioMapper.paraResponseDTOs(anyList())).thenCallRealMethod();
         // O método setup garante que a classe sob teste comece cada teste em um estado conhecido e limpo.
     }
 
@@ -54,17 +76,17 @@ class UsuarioServiceTest {
     @Test
     @DisplayName("Teste para salvar um usuário")
     public void testSalvar() {
-        // Configurando o comportamento do mock modelMapper para mapear o objeto usuarioRequestDTO para a classe Usuario
+        // Configurando o comportamento do mock usuarioMapper para mapear o objeto usuarioRequestDTO para a classe Usuario
         // e esperando que o retorno seja o objeto usuario simulado.
-        when(modelMapper.map(usuarioRequestDTO, Usuario.class)).thenReturn(usuario);
+        when(usuarioMapper.paraEntidade(usuarioRequestDTO)).thenReturn(usuario);
 
         // Configurando o comportamento do mock usuarioRepository para retornar o próprio objeto usuario simulado
-        // quando o método save é chamado com o objeto usuario como argumento.
-        when(usuarioRepository.save(usuario)).thenReturn(usuario);
+        // quando o método saveAndFlush é chamado com o objeto usuario como argumento.
+        when(usuarioRepository.saveAndFlush(usuario)).thenReturn(usuario);
 
-        // Configurando o comportamento do mock modelMapper para mapear o objeto usuario para a classe UsuarioResponseDTO
+        // Configurando o comportamento do mock usuarioMapper para mapear o objeto usuario para a classe UsuarioResponseDTO
         // e esperando que o retorno seja o objeto usuarioResponseDTO simulado.
-        when(modelMapper.map(usuario, UsuarioResponseDTO.class)).thenReturn(usuarioResponseDTO);
+        when(usuarioMapper.paraResponseDTO(usuario)).thenReturn(usuarioResponseDTO);
 
         // Chamando o método salvar do userService para testá-lo.
         UsuarioResponseDTO salvarUsuarioResponseDTO = userService.salvar(usuarioRequestDTO);
@@ -72,61 +94,74 @@ class UsuarioServiceTest {
         // Verificando se o resultado retornado não é nulo.
         assertNotNull(salvarUsuarioResponseDTO);
 
-        // Verificando se o método save do mock usuarioRepository foi chamado exatamente uma vez com o objeto usuario
+        // Verificando se o método saveAndFlush do mock usuarioRepository foi chamado exatamente uma vez com o objeto usuario
         // como argumento.
-        verify(usuarioRepository, times(1)).save(usuario);
+        verify(usuarioRepository, times(1)).saveAndFlush(usuario);
 
-        // Verificando se o método map do mock modelMapper foi chamado exatamente uma vez com o objeto usuarioRequestDTO
+        // Verificando se o método de mapeamento do mock usuarioMapper foi chamado exatamente uma vez com o objeto usuarioRequestDTO
         // como primeiro argumento e a classe Usuario.class como segundo argumento.
-        verify(modelMapper, times(1)).map(usuarioRequestDTO, Usuario.class);
+        verify(usuarioMapper, times(1)).paraEntidade(usuarioRequestDTO);
 
-        // Verificando se o método map do mock modelMapper foi chamado exatamente uma vez com o objeto usuario como
+        // Verificando se o método de mapeamento do mock usuarioMapper foi chamado exatamente uma vez com o objeto usuario como
         // primeiro argumento e a classe UsuarioResponseDTO.class como segundo argumento.
-        verify(modelMapper, times(1)).map(usuario, UsuarioResponseDTO.class);
+        verify(usuarioMapper, times(1)).paraResponseDTO(usuario);
     }
 
     @Test
-    @DisplayName("Teste para buscar todos os usuários")
+    @DisplayName("Teste para buscar todos os usuários em lotes pelo cursor")
     void testBuscarTodos() {
-        // Configurando o comportamento do mock usuarioRepository para retornar uma lista contendo 1 objeto usuario
-        // quando o método findAll for chamado.
-        when(usuarioRepository.findAll()).thenReturn(List.of(usuario));
-
-        // Configurando o comportamento do mock modelMapper para mapear o objeto usuario para a classe
-        // UsuarioResponseDTO e retornar o objeto usuarioResponseDTO quando o método map for chamado.
-        when(modelMapper.map(usuario, UsuarioResponseDTO.class)).thenReturn(usuarioResponseDTO);
-
-        // Chamando o método buscarTodos do userService para testá-lo.
-        List<UsuarioResponseDTO> usuarioResponseDTOS = userService.buscarTodos();
+        UsuarioResponseDTO segundo = new UsuarioResponseDTO(2L, "Segundo", "SEG", 0L);
+        UsuarioResponseDTO terceiro = new UsuarioResponseDTO(3L, "Terceiro", "TER", 0L);
+        // Lotes de 2: a primeira página traz um registro a mais (o sinal de próxima página), a segunda não.
+        when(usuarioRepository.buscarPaginaProjetada(eq(0L), any(Pageable.class)))
+                .thenReturn(List.of(usuarioResponseDTO, segundo, terceiro));
+        when(usuarioRepository.buscarPaginaProjetada(eq(2L), any(Pageable.class))).thenReturn(List.of(terceiro));
+
+        // Chamando o método buscarTodos do userService: nada é consultado antes da iteração.
+        Iterable<UsuarioResponseDTO> usuarios = userService.buscarTodos(2);
+        verifyNoInteractions(usuarioRepository);
+
+        // Os três usuários, em ordem de id, vindos de duas páginas de 2 (limite + 1 na consulta).
+        List<UsuarioResponseDTO> usuarioResponseDTOS = new ArrayList<>();
+        usuarios.forEach(usuarioResponseDTOS::add);
+        assertEquals(List.of(usuarioResponseDTO, segundo, terceiro), usuarioResponseDTOS);
+        verify(usuarioRepository, times(1)).buscarPaginaProjetada(0L, PageRequest.of(0, 3));
+        verify(usuarioRepository, times(1)).buscarPaginaProjetada(2L, PageRequest.of(0, 3));
+
+        // Verificando se nenhuma entidade foi carregada nem mapeada.
+        verify(usuarioRepository, never()).findAll();
+        verify(usuarioMapper, never()).paraResponseDTO(any(Usuario.class));
+    }
 
-        // Verificando se o resultado retornado não é nulo.
-        assertNotNull(usuarioResponseDTOS);
+    @Test
+    @DisplayName("Teste para buscar uma página de usuários a partir de um cursor")
+    void testBuscarPagina() {
+        // Criando dois DTOs reais com ids sequenciais para simular o retorno da consulta por cursor.
+        UsuarioResponseDTO primeiro = new UsuarioResponseDTO(11L, "primeiro", "P-11", 0L);
+        UsuarioResponseDTO segundo = new UsuarioResponseDTO(12L, "segundo", "S-12", 0L);
 
-        // Verificando se a lista de resultado contém exatamente um elemento.
-        assertEquals(1, usuarioResponseDTOS.size());
+        // Configurando o mock usuarioRepository para retornar limite + 1 registros, indicando que existe próxima página.
+        when(usuarioRepository.buscarPaginaProjetada(eq(10L), any(Pageable.class)))
+                .thenReturn(List.of(primeiro, segundo));
 
-        // Verifica se o primeiro elemento da lista é do tipo UsuarioResponseDTO, pois temos apenas 1 usuário.
-        assertEquals(UsuarioResponseDTO.class, usuarioResponseDTOS.get(0).getClass());
+        // Chamando o método buscarPagina do userService com limite 1, a partir do id 10.
+        UsuarioPaginaResponseDTO pagina = userService.buscarPagina(10L, 1);
 
-        // Verificando se o método findAll do mock usuarioRepository foi chamado exatamente uma vez.
-        verify(usuarioRepository, times(1)).findAll();
+        // Verificando se a página contém apenas o primeiro usuário e se o cursor aponta para o id dele.
+        assertEquals(List.of(primeiro), pagina.getUsuarios());
+        assertEquals(11L, pagina.getProximoCursor());
 
-        // Verificando se o método map do mock modelMapper foi chamado exatamente uma vez, mapeando o objeto usuario
-        // para a classe UsuarioResponseDTO.
-        verify(modelMapper, times(1)).map(usuario, UsuarioResponseDTO.class);
+        // Verificando se a consulta pediu exatamente limite + 1 registros.
+        verify(usuarioRepository, times(1)).buscarPaginaProjetada(10L, PageRequest.of(0, 2));
     }
 
     @ParameterizedTest(name = "Teste com ID: {0}") // Será executado várias vezes com valores de ids diferentes.
     @MethodSource("idsParaTeste") // Anotação indicando uso das streams de ids no @ParameterizedTest
     @DisplayName("Teste para buscar usuário por ID")
     void testBuscarPorId(Long id) {
-        // Configurando o comportamento do mock usuarioRepository para retornar um Optional contendo o objeto usuario
-        // quando o método findById é chamado com o valor específico de id.
-        when(usuarioRepository.findById(id)).thenReturn(Optional.ofNullable(usuario));
-
-        // Configurando o comportamento do mock modelMapper para mapear o objeto usuario para a classe UsuarioResponseDTO
-        // e retornar o objeto usuarioResponseDTO quando o método map é chamado.
-        when(modelMapper.map(usuario, UsuarioResponseDTO.class)).thenReturn(usuarioResponseDTO);
+        // Configurando o comportamento do mock usuarioRepository para retornar um Optional contendo o objeto usuarioResponseDTO
+        // quando o método buscarProjetadoPorId é chamado com o valor específico de id.
+        when(usuarioRepository.buscarProjetadoPorId(id)).thenReturn(Optional.of(usuarioResponseDTO));
 
         // Chamando o método buscarPorId do userService para testá-lo.
         UsuarioResponseDTO buscarUsuarioResponseDTO = userService.buscarPorId(id);
@@ -134,44 +169,56 @@ class UsuarioServiceTest {
         // Verificando se o resultado retornado não é nulo.
         assertNotNull(buscarUsuarioResponseDTO);
 
-        // Verificando se os campos do objeto usuarioResponseDTO retornado são iguais aos campos do objeto usuario
-        // que foi configurado no mock do usuarioRepository.
-        assertEquals(usuarioResponseDTO.getId(), buscarUsuarioResponseDTO.getId());
-        assertEquals(usuarioResponseDTO.getNome(), buscarUsuarioResponseDTO.getNome());
-        assertEquals(usuarioResponseDTO.getCodigo(), buscarUsuarioResponseDTO.getCodigo());
-
-        // Verificando se o objeto usuarioResponseDTO retornado é igual ao objeto usuarioResponseDTO configurado
-        // no mock do modelMapper.
+        // Verificando se o objeto retornado é o próprio DTO devolvido pela consulta projetada.
         assertEquals(usuarioResponseDTO, buscarUsuarioResponseDTO);
 
-        // Verificando se o método findById do mock usuarioRepository foi chamado exatamente uma vez com o valor
+        // Verificando se o método buscarProjetadoPorId do mock usuarioRepository foi chamado exatamente uma vez com o valor
         // específico de id.
-        verify(usuarioRepository, times(1)).findById(id);
+        verify(usuarioRepository, times(1)).buscarProjetadoPorId(id);
 
-        // Verificando se o método map do mock modelMapper foi chamado exatamente uma vez, mapeando o objeto usuario
-        // para a classe UsuarioResponseDTO.
-        verify(modelMapper, times(1)).map(usuario, UsuarioResponseDTO.class);
+        // Verificando se a entidade não foi carregada: a consulta projetada dispensa o findById e o mapeamento.
+        verify(usuarioRepository, never()).findById(id);
+        verify(usuarioMapper, never()).paraResponseDTO(any(Usuario.class));
+    }
+
+    @ParameterizedTest(name = "Teste com ID: {0}")
+    @MethodSource("idsParaTeste")
+    @DisplayName("Teste para obter a versão de um usuário sem carregá-lo, do cache ou da consulta de uma coluna")
+    void testBuscarVersao(Long id) {
+        // Fora do cache, a versão vem do SELECT só da coluna versao.
+        when(usuarioRepository.buscarVersao(id)).thenReturn(Optional.of(5L));
+        assertEquals(5L, userService.buscarVersao(id));
+
+        // Com o usuário no cache (ex.: depois de um GET), nem essa consulta é feita.
+        usuarioResponseDTO.setVersao(7L);
+        cacheManager.getCache(UsuarioService.CACHE_USUARIOS).put(id, usuarioResponseDTO);
+        assertEquals(7L, userService.buscarVersao(id));
+
+        // Verificando se a consulta da versão foi feita só uma vez e nenhuma leitura completa aconteceu.
+        verify(usuarioRepository, times(1)).buscarVersao(id);
+        verify(usuarioRepository, never()).buscarProjetadoPorId(id);
+        verify(usuarioMapper, never()).paraResponseDTO(any(Usuario.class));
     }
 
     @ParameterizedTest(name = "Teste com ID: {0}")
     @MethodSource("idsParaTeste")
     @DisplayName("Teste para atualizar um usuário, buscando pelo ID")
     void testAtualizar(Long id) {
-        // Configurando o comportamento do mock usuarioRepository para retornar um Optional contendo o objeto usuario simulado
-        // quando o método findById é chamado com o valor específico de id.
-        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
+        // O cliente envia a versão que leu; a atualização é um único UPDATE condicionado a essa versão.
+        usuarioRequestDTO.setVersao(3L);
 
-        // Configurando o comportamento do mock modelMapper para mapear o objeto usuarioRequestDTO para a classe Usuario
-        // e retornar o objeto usuario simulado.
-        when(modelMapper.map(usuarioRequestDTO, Usuario.class)).thenReturn(usuario);
+        // Configurando o comportamento do mock usuarioRepository para indicar que uma linha foi alterada
+        // quando o método atualizarSeVersao é chamado com o id e a versão informados.
+        when(usuarioRepository.atualizarSeVersao(eq(id), eq(usuarioRequestDTO.getNome()), eq(usuarioRequestDTO.getCodigo()),
+                eq(3L), any(Instant.class))).thenReturn(1);
 
-        // Configurando o comportamento do mock usuarioRepository para retornar o próprio objeto usuario simulado
-        // quando o método save é chamado com o objeto usuario como argumento.
-        when(usuarioRepository.save(usuario)).thenReturn(usuario);
+        // Configurando o comportamento do mock usuarioMapper para mapear o objeto usuarioRequestDTO para a classe Usuario
+        // e retornar o objeto usuario simulado.
+        when(usuarioMapper.paraEntidade(usuarioRequestDTO)).thenReturn(usuario);
 
-        // Configurando o comportamento do mock modelMapper para mapear o objeto usuario para a classe UsuarioResponseDTO
+        // Configurando o comportamento do mock usuarioMapper para mapear o objeto usuario para a classe UsuarioResponseDTO
         // e retornar o objeto usuarioResponseDTO simulado.
-        when(modelMapper.map(usuario, UsuarioResponseDTO.class)).thenReturn(usuarioResponseDTO);
+        when(usuarioMapper.paraResponseDTO(usuario)).thenReturn(usuarioResponseDTO);
 
         // Chamando o método atualizar do userService para testá-lo.
         UsuarioResponseDTO usuarioResponseDTOatualizado = userService.atualizar(id, usuarioRequestDTO);
@@ -184,40 +231,44 @@ class UsuarioServiceTest {
         assertEquals(usuarioResponseDTO.getNome(), usuarioResponseDTOatualizado.getNome());
         assertEquals(usuarioResponseDTO.getCodigo(), usuarioResponseDTOatualizado.getCodigo());
 
-        // Verificando se o método findById do mock usuarioRepository foi chamado exatamente uma vez com o valor específico de id.
-        verify(usuarioRepository, times(1)).findById(id);
+        // Verificando se a resposta foi montada com o id do caminho e a versão seguinte à informada.
+        assertEquals(id, usuarioRequestDTO.getId());
+        assertEquals(4L, usuario.getVersao());
+        assertNotNull(usuario.getAtualizadoEm());
 
-        // Verificando se o método map do mock modelMapper foi chamado para mapear o objeto usuarioRequestDTO para a classe Usuario.
-        // Não estamos especificando o número exato de vezes, apenas verificando se o método foi chamado ao menos uma vez.
-        verify(modelMapper).map(usuarioRequestDTO, Usuario.class);
+        // Verificando se o método atualizarSeVersao do mock usuarioRepository foi chamado exatamente uma vez.
+        verify(usuarioRepository, times(1)).atualizarSeVersao(eq(id), eq(usuarioRequestDTO.getNome()),
+                eq(usuarioRequestDTO.getCodigo()), eq(3L), eq(usuario.getAtualizadoEm()));
 
-        // Verificando se o método save do mock usuarioRepository foi chamado exatamente uma vez com o objeto usuario simulado como argumento.
-        verify(usuarioRepository, times(1)).save(usuario);
+        // Verificando se nenhuma leitura da entidade foi feita: a versão veio do cliente e a resposta não precisa do banco.
+        verify(usuarioRepository, never()).findById(id);
+        verify(usuarioRepository, never()).buscarVersao(id);
+        verify(usuarioRepository, never()).saveAndFlush(any(Usuario.class));
 
-        // Verificando se o método map do mock modelMapper foi chamado para mapear o objeto usuario para a classe UsuarioResponseDTO.
+        // Verificando se o método de mapeamento do mock usuarioMapper foi chamado para mapear o objeto usuario para a classe UsuarioResponseDTO.
         // Não estamos especificando o número exato de vezes, apenas verificando se o método foi chamado ao menos uma vez.
-        verify(modelMapper).map(usuario, UsuarioResponseDTO.class);
+        verify(usuarioMapper).paraResponseDTO(usuario);
     }
 
     @ParameterizedTest(name = "Teste com ID: {0}")
     @MethodSource("idsParaTeste")
     @DisplayName("Teste para deletar um usuário, buscando pelo ID")
     void testDeletar(Long id) {
-        // Configurando o comportamento do mock usuarioRepository para retornar um Optional contendo o objeto usuario simulado
-        // quando o método findById é chamado com o valor específico de id.
-        when(usuarioRepository.findById(id)).thenReturn(Optional.of(usuario));
-
-        // Configurando o comportamento do mock usuarioRepository para não fazer nada (simulando o comportamento do método delete)
-        // quando o método delete é chamado com o objeto usuario como argumento.
-        doNothing().when(usuarioRepository).delete(usuario);
+        // Configurando o comportamento do mock usuarioRepository para indicar que uma linha foi removida
+        // quando o método deletarPorId é chamado com o valor específico de id.
+        when(usuarioRepository.deletarPorId(id)).thenReturn(1);
 
         // Chamando o método deletar do userService para testá-lo.
         userService.deletar(id);
 
-        // Verificando se o método findById do mock usuarioRepository foi chamado exatamente uma vez com o valor específico de id.
-        verify(usuarioRepository, times(1)).findById(id);
+        // Verificando se o método deletarPorId do mock usuarioRepository foi chamado exatamente uma vez com o valor específico de id.
+        verify(usuarioRepository, times(1)).deletarPorId(id);
+
+        // Verificando se a entidade não foi carregada antes da remoção: o DELETE é feito direto pela chave.
+        verify(usuarioRepository, never()).findById(id);
+        verify(usuarioRepository, never()).delete(any(Usuario.class));
 
-        // Verificando se o método delete do mock usuarioRepository foi chamado exatamente uma vez com o objeto usuario simulado como argumento.
-        verify(usuarioRepository, times(1)).delete(usuario);
+        // Verificando se a remoção foi publicada para quem mantém cópias dos dados (como o índice de busca).
+        verify(eventos, times(1)).publishEvent(any(UsuarioEvento.class));
     }
 }
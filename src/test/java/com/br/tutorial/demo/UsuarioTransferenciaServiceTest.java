@@ -0,0 +1,182 @@
+package com.br.tutorial.demo;
+
+import com.br.tutorial.demo.controller.TransferenciaController;
+import com.br.tutorial.demo.handler.entidadeHandler.BadRequestException;
+import com.br.tutorial.demo.request.UsuarioRequestDTO;
+import com.br.tutorial.demo.response.ImportacaoResultadoDTO;
+import com.br.tutorial.demo.response.ResultadoLoteDTO;
+import com.br.tutorial.demo.response.UsuarioResponseDTO;
+import com.br.tutorial.demo.service.UsuarioLoteService;
+import com.br.tutorial.demo.service.UsuarioTransferenciaService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class UsuarioTransferenciaServiceTest {
+    @Mock
+    private DataSource dataSource;
+    @Mock
+    private UsuarioLoteService usuarioLoteService;
+
+    private UsuarioTransferenciaService usuarioTransferenciaService;
+    // Cópia de cada bloco recebido pelo salvarLote: o serviço reaproveita a mesma lista entre blocos.
+    private final List<List<UsuarioRequestDTO>> blocos = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        // Blocos de 2 registros para que poucas linhas já exercitem a divisão em vários salvarLote.
+        usuarioTransferenciaService = new UsuarioTransferenciaService(dataSource, usuarioLoteService,
+                new ObjectMapper(), 1000, 2, 100);
+        // O lote simulado grava tudo, menos usuários sem codigo; cada resultado leva o índice recebido.
+        when(usuarioLoteService.salvarLote(anyList(), anyInt())).thenAnswer(invocacao -> {
+            List<UsuarioRequestDTO> bloco = invocacao.getArgument(0);
+            int deslocamento = invocacao.getArgument(1);
+            blocos.add(new ArrayList<>(bloco));
+            List<ResultadoLoteDTO> resultados = new ArrayList<>();
+            for (int i = 0; i < bloco.size(); i++) {
+                resultados.add(bloco.get(i).getCodigo() == null
+                        ? ResultadoLoteDTO.erro(deslocamento + i, null, "sem codigo")
+                        : ResultadoLoteDTO.sucesso(deslocamento + i, (long) deslocamento + i + 1));
+            }
+            return resultados;
+        });
+    }
+
+    @Test
+    @DisplayName("Teste para importar CSV com aspas, quebras de linha e colunas fora de ordem em blocos")
+    public void testImportarCsv() throws IOException {
+        // Colunas em outra ordem que a da exportação; id e versao são ignorados.
+        String csv = "codigo,versao,nome,id\r\n"
+                + "A1,0,\"Silva, Ana\",7\r\n"
+                + "A2,0,\"Dito \"\"Zé\"\"\",8\n"
+                + ",0,Sem Codigo,9\n"
+                + "\n"
+                + "A4,0,\"duas\nlinhas\",10\n";
+
+        ImportacaoResultadoDTO resultado = usuarioTransferenciaService.importarCsv(corpo(csv));
+
+        // Quatro registros (a linha vazia é ignorada) em dois blocos de 2, com os índices contínuos entre blocos.
+        verify(usuarioLoteService).salvarLote(anyList(), eq(0));
+        verify(usuarioLoteService).salvarLote(anyList(), eq(2));
+        assertEquals(2, blocos.size());
+
+        assertEquals(4, resultado.getLidos());
+        assertEquals(3, resultado.getGravados());
+        assertEquals(1, resultado.getRecusados());
+        assertEquals(2, resultado.getErros().get(0).getIndice());
+
+        // Os campos entre aspas chegam sem as aspas, com vírgula, aspas internas e quebra de linha preservadas;
+        // campo vazio vira null.
+        assertEquals("Silva, Ana", blocos.get(0).get(0).getNome());
+        assertEquals("A1", blocos.get(0).get(0).getCodigo());
+        assertEquals("Dito \"Zé\"", blocos.get(0).get(1).getNome());
+        assertNull(blocos.get(1).get(0).getCodigo());
+        assertEquals("duas\nlinhas", blocos.get(1).get(1).getNome());
+    }
+
+    @Test
+    @DisplayName("Teste para importar NDJSON descartando id e versao e recusar um CSV sem coluna nome")
+    public void testImportarNdjson() throws IOException {
+        String ndjson = "{\"id\":5,\"nome\":\"a\",\"codigo\":\"X1\",\"versao\":3}\n"
+                + "{\"id\":6,\"nome\":\"b\",\"codigo\":\"X2\",\"versao\":0}\n"
+                + "{\"id\":7,\"nome\":\"c\",\"codigo\":\"X3\",\"versao\":0}\n";
+
+        ImportacaoResultadoDTO resultado = usuarioTransferenciaService.importarNdjson(corpo(ndjson));
+
+        assertEquals(3, resultado.getLidos());
+        assertEquals(3, resultado.getGravados());
+        // Os usuários importados recebem ids novos: id e versao do arquivo não chegam ao salvarLote.
+        verify(usuarioLoteService, times(2)).salvarLote(anyList(), anyInt());
+        assertEquals("c", blocos.get(1).get(0).getNome());
+        for (List<UsuarioRequestDTO> bloco : blocos) {
+            for (UsuarioRequestDTO usuarioRequestDTO : bloco) {
+                assertNull(usuarioRequestDTO.getId());
+                assertNull(usuarioRequestDTO.getVersao());
+            }
+        }
+
+        // Sem a coluna nome não há o que importar: nada é gravado.
+        assertThrows(BadRequestException.class, () -> usuarioTransferenciaService.importarCsv(corpo("id,codigo\n1,A\n")));
+        verifyNoMoreInteractions(usuarioLoteService);
+    }
+
+    @Test
+    @DisplayName("Teste para exportar NDJSON com os mesmos campos do DTO, nulos inclusive, e CSV com campo vazio")
+    public void testExportar() throws IOException {
+        // Banco H2 de verdade: a exportação lê o cursor JDBC; o ObjectMapper com a configuração do Spring Boot.
+        DriverManagerDataSource banco = new DriverManagerDataSource("jdbc:h2:mem:teste-exportacao;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(banco);
+        jdbcTemplate.execute("create table usuario (id bigint primary key, nome varchar(255), codigo varchar(255), "
+                + "versao bigint, atualizado_em timestamp(6) with time zone)");
+        Instant atualizadoEm = Instant.parse("2024-05-01T10:15:30.123456Z");
+        jdbcTemplate.update("insert into usuario values (1, 'Ana', 'A1', 2, ?)", atualizadoEm.atOffset(ZoneOffset.UTC));
+        jdbcTemplate.update("insert into usuario values (2, 'Bia', 'B1', null, null)");
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        UsuarioTransferenciaService exportacao = new UsuarioTransferenciaService(banco, usuarioLoteService,
+                objectMapper, 1000, 2, 100);
+
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        exportacao.exportarNdjson(ndjson);
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        exportacao.exportarCsv(csv);
+        jdbcTemplate.execute("drop table usuario");
+
+        // Linha a linha igual ao que o GET / em NDJSON serializa do UsuarioResponseDTO.
+        String esperado = objectMapper.writeValueAsString(new UsuarioResponseDTO(1L, "Ana", "A1", 2L, atualizadoEm))
+                + "\n" + objectMapper.writeValueAsString(new UsuarioResponseDTO(2L, "Bia", "B1", null, null)) + "\n";
+        assertEquals(esperado, ndjson.toString(StandardCharsets.UTF_8));
+        assertEquals("id,nome,codigo,versao,atualizadoEm\n1,Ana,A1,2,2024-05-01T10:15:30.123456Z\n2,Bia,B1,,\n",
+                csv.toString(StandardCharsets.UTF_8));
+
+        // O arquivo exportado volta na importação, com o atualizadoEm ignorado.
+        ImportacaoResultadoDTO resultado = usuarioTransferenciaService.importarNdjson(corpo(esperado));
+        assertEquals(2, resultado.getGravados());
+    }
+
+    @Test
+    @DisplayName("Teste para compactar a exportação só quando o Accept-Encoding aceita gzip com q > 0")
+    public void testExportarCompactado() {
+        TransferenciaController transferenciaController = new TransferenciaController(usuarioTransferenciaService);
+
+        for (String aceita : List.of("gzip", "deflate, gzip;q=0.5", "GZIP ; q=1.0", "br, *;q=0.1")) {
+            assertEquals("gzip", transferenciaController.exportarCsv(aceita).getHeaders()
+                    .getFirst(HttpHeaders.CONTENT_ENCODING), aceita);
+        }
+        for (String recusa : Arrays.asList(null, "gzip;q=0", "identity", "*;q=0.5, gzip;q=0", "gzip;q=0.000", "gzipx")) {
+            assertNull(transferenciaController.exportarNdjson(recusa).getHeaders()
+                    .getFirst(HttpHeaders.CONTENT_ENCODING), recusa);
+        }
+    }
+
+    private static InputStream corpo(String conteudo) {
+        return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}